@@ -0,0 +1,254 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//--------------------------------------------------------------------------
+/**
+ * A minimal HTTP server on the loopback interface that serves documents
+ * from memory, standing in for a Web-CAT server so that benchmarks measure
+ * real HTTP fetches without depending on the network.
+ * <p>
+ * Only {@code GET} is supported, and every connection is closed after one
+ * response.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class LocalHttpServer
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts a server on a free port.
+	 *
+	 * @throws IOException if the server socket could not be opened
+	 */
+	public LocalHttpServer() throws IOException
+	{
+		serverSocket = new ServerSocket(0, 50, InetAddress.getByName(null));
+
+		pool = Executors.newCachedThreadPool(new ThreadFactory() {
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "LocalHttpServer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		pool.execute(new Runnable() {
+			public void run()
+			{
+				acceptConnections();
+			}
+		});
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Makes a document available at the specified path.
+	 *
+	 * @param path the path of the document, starting with a slash
+	 * @param content the content of the document
+	 */
+	public void put(String path, byte[] content)
+	{
+		documents.put(path, content);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Removes all of the documents.
+	 */
+	public void clear()
+	{
+		documents.clear();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the URL of the document at the specified path.
+	 *
+	 * @param path the path of the document, starting with a slash
+	 * @return the URL of the document
+	 * @throws IOException if the URL is malformed
+	 */
+	public URL getURL(String path) throws IOException
+	{
+		return new URL("http", "127.0.0.1", serverSocket.getLocalPort(),
+				path);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the number of requests that have been answered since the server
+	 * was started.
+	 *
+	 * @return the number of requests
+	 */
+	public int getRequestCount()
+	{
+		return requestCount.get();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Stops the server.
+	 */
+	public void close()
+	{
+		try
+		{
+			serverSocket.close();
+		}
+		catch (IOException e)
+		{
+			// Do nothing.
+		}
+
+		pool.shutdownNow();
+	}
+
+
+	// ----------------------------------------------------------
+	private void acceptConnections()
+	{
+		while (!serverSocket.isClosed())
+		{
+			try
+			{
+				final Socket socket = serverSocket.accept();
+
+				pool.execute(new Runnable() {
+					public void run()
+					{
+						handle(socket);
+					}
+				});
+			}
+			catch (IOException e)
+			{
+				// The server was closed.
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private void handle(Socket socket)
+	{
+		try
+		{
+			BufferedReader reader = new BufferedReader(new InputStreamReader(
+					socket.getInputStream(), "ISO-8859-1"));
+			String requestLine = reader.readLine();
+			String line;
+
+			do
+			{
+				line = reader.readLine();
+			}
+			while (line != null && line.length() > 0);
+
+			String[] parts =
+				(requestLine != null) ? requestLine.split(" ") : new String[0];
+			byte[] content = (parts.length >= 2 && "GET".equals(parts[0]))
+				? documents.get(parts[1]) : null;
+
+			OutputStream output = socket.getOutputStream();
+
+			if (content != null)
+			{
+				output.write(("HTTP/1.0 200 OK\r\n"
+						+ "Content-Type: text/xml\r\n"
+						+ "Content-Length: " + content.length + "\r\n"
+						+ "Connection: close\r\n\r\n").getBytes("ISO-8859-1"));
+				output.write(content);
+			}
+			else
+			{
+				output.write(("HTTP/1.0 404 Not Found\r\n"
+						+ "Content-Length: 0\r\n"
+						+ "Connection: close\r\n\r\n").getBytes("ISO-8859-1"));
+			}
+
+			output.flush();
+			requestCount.incrementAndGet();
+		}
+		catch (IOException e)
+		{
+			// The client went away.
+		}
+		finally
+		{
+			try
+			{
+				socket.close();
+			}
+			catch (IOException e)
+			{
+				// Do nothing.
+			}
+		}
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The socket on which connections are accepted. */
+	private ServerSocket serverSocket;
+
+	/* The threads that accept and answer connections. */
+	private ExecutorService pool;
+
+	/* The documents being served, keyed by path. */
+	private Map<String, byte[]> documents =
+		new ConcurrentHashMap<String, byte[]>();
+
+	/* The number of requests that have been answered. */
+	private AtomicInteger requestCount = new AtomicInteger();
+}
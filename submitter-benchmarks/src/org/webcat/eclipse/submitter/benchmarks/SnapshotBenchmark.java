@@ -0,0 +1,280 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.webcat.eclipse.submitter.core.DefinitionsCache;
+import org.webcat.eclipse.submitter.core.TargetOutline;
+import org.webcat.eclipse.submitter.core.TargetTreeSnapshot;
+import org.webcat.submitter.Submitter;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * Compares the time it takes to parse a large submission target definitions
+ * file from scratch with the time it takes to restore the outline of the
+ * same target tree from a {@link TargetTreeSnapshot}, which is what the
+ * wizard displays while the definitions are parsed. The restored outline is
+ * checked against the parsed tree, so that a snapshot that was not written,
+ * or that cannot be read back, fails the benchmark instead of being
+ * reported as fast.
+ * <p>
+ * This is a plain Java application; run it from the workbench as a "Java
+ * Application" so that the required plug-ins are on the class path. The
+ * optional arguments are the number of assignment groups, the number of
+ * assignments in each group, and the number of timed iterations (default
+ * 200, 25, and 10).
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class SnapshotBenchmark
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	public static void main(String[] args) throws Exception
+	{
+		int groups = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+		int assignments = (args.length > 1) ? Integer.parseInt(args[1]) : 25;
+		int iterations = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+
+		File directory = createTempDirectory();
+		File definitions = new File(directory, "definitions.xml");
+		generateDefinitions(definitions, groups, assignments);
+
+		URL url = definitions.toURI().toURL();
+		URI uri = definitions.toURI();
+
+		DefinitionsCache cache =
+			new DefinitionsCache(new File(directory, "cache"));
+		File snapshotFile = cache.getSnapshotFile(uri);
+
+		System.out.println("Definitions: " + groups + " groups x "
+				+ assignments + " assignments ("
+				+ definitions.length() / 1024 + " KB)");
+
+		// Cold parse.
+
+		SubmissionTarget root = null;
+		long[] parseTimes = new long[iterations];
+
+		for (int i = -WARMUP_ITERATIONS; i < iterations; i++)
+		{
+			long start = System.nanoTime();
+
+			Submitter engine = new Submitter();
+			engine.readSubmissionTargets(url);
+			root = engine.getRoot();
+
+			if (i >= 0)
+			{
+				parseTimes[i] = System.nanoTime() - start;
+			}
+		}
+
+		Map<String, String> documents = new TreeMap<String, String>();
+		documents.put(uri.toString(), cache.revalidate(uri));
+
+		if (!TargetTreeSnapshot.write(snapshotFile, root, documents)
+				|| !snapshotFile.isFile())
+		{
+			throw new IllegalStateException(
+					"The snapshot could not be written.");
+		}
+
+		// Snapshot load, including revalidation of the source document.
+
+		TargetTreeSnapshot restored = null;
+		long[] loadTimes = new long[iterations];
+
+		for (int i = -WARMUP_ITERATIONS; i < iterations; i++)
+		{
+			long start = System.nanoTime();
+
+			restored = TargetTreeSnapshot.read(snapshotFile, cache, true);
+
+			if (restored == null)
+			{
+				throw new IllegalStateException(
+						"The snapshot could not be read back.");
+			}
+
+			if (i >= 0)
+			{
+				loadTimes[i] = System.nanoTime() - start;
+			}
+		}
+
+		int parsed = countAssignments(root);
+		int outlined = countAssignments(restored.getRoot());
+
+		if (parsed != groups * assignments || outlined != parsed)
+		{
+			throw new IllegalStateException("The snapshot holds " + outlined
+					+ " assignments, but the definitions hold " + parsed
+					+ ".");
+		}
+
+		System.out.println("Snapshot size: "
+				+ snapshotFile.length() / 1024 + " KB, "
+				+ outlined + " assignments");
+		System.out.println("Cold parse (median):    "
+				+ format(median(parseTimes)));
+		System.out.println("Snapshot load (median): "
+				+ format(median(loadTimes)));
+		System.out.println("Speedup: " + String.format("%.1fx",
+				(double) median(parseTimes) / median(loadTimes)));
+	}
+
+
+	// ----------------------------------------------------------
+	private static int countAssignments(SubmissionTarget target)
+		throws Exception
+	{
+		if (!target.isContainer())
+		{
+			return 1;
+		}
+
+		int count = 0;
+
+		for (SubmissionTarget child : target.getLogicalChildren())
+		{
+			count += countAssignments(child);
+		}
+
+		return count;
+	}
+
+
+	// ----------------------------------------------------------
+	private static int countAssignments(TargetOutline outline)
+	{
+		if (!outline.isContainer())
+		{
+			return 1;
+		}
+
+		int count = 0;
+
+		for (TargetOutline child : outline.getChildren())
+		{
+			count += countAssignments(child);
+		}
+
+		return count;
+	}
+
+
+	// ----------------------------------------------------------
+	private static void generateDefinitions(File file, int groups,
+			int assignments) throws IOException
+	{
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+				new FileOutputStream(file), "UTF-8"));
+
+		try
+		{
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.println("<submission-targets>");
+			writer.println("  <exclude pattern=\"*.class\"/>");
+			writer.println("  <exclude pattern=\"bin/**\"/>");
+
+			for (int g = 0; g < groups; g++)
+			{
+				writer.println("  <assignment-group name=\"Course "
+						+ g + "\">");
+
+				for (int a = 0; a < assignments; a++)
+				{
+					writer.println("    <assignment name=\"Assignment "
+							+ a + "\">");
+					writer.println("      <required pattern=\"src/Main"
+							+ a + ".java\"/>");
+					writer.println("      <transport uri=\"http://"
+							+ "example.org/Web-CAT/WebObjects/Web-CAT.woa"
+							+ "/wa/submit\">");
+					writer.println("        <param name=\"course\" "
+							+ "value=\"" + g + "\"/>");
+					writer.println("        <param name=\"a\" value=\"Assignment "
+							+ a + "\"/>");
+					writer.println("        <file-param name=\"file1\" "
+							+ "value=\"${user}.jar\"/>");
+					writer.println("      </transport>");
+					writer.println("    </assignment>");
+				}
+
+				writer.println("  </assignment-group>");
+			}
+
+			writer.println("</submission-targets>");
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static File createTempDirectory() throws IOException
+	{
+		File directory = File.createTempFile("snapshot-benchmark", "");
+		directory.delete();
+		directory.mkdirs();
+		return directory;
+	}
+
+
+	// ----------------------------------------------------------
+	private static long median(long[] times)
+	{
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+
+	// ----------------------------------------------------------
+	private static String format(long nanos)
+	{
+		return String.format("%.2f ms", nanos / 1000000.0);
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The number of untimed iterations run first to warm up the JIT. */
+	private static final int WARMUP_ITERATIONS = 3;
+}
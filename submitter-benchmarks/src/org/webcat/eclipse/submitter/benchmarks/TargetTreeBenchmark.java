@@ -0,0 +1,587 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TreeItem;
+import org.webcat.eclipse.submitter.core.DefinitionsCache;
+import org.webcat.eclipse.submitter.core.DefinitionsSource;
+import org.webcat.eclipse.submitter.core.ImportGroupLoader;
+import org.webcat.eclipse.submitter.ui.wizards.DefinitionsSourceNode;
+import org.webcat.eclipse.submitter.ui.wizards.SubmissionTargetsContentProvider;
+import org.webcat.submitter.Submitter;
+
+//--------------------------------------------------------------------------
+/**
+ * Measures how the target side of the plug-in scales with the size and
+ * shape of the submission target definitions, using generated documents
+ * that are served from a {@link LocalHttpServer}.
+ * <p>
+ * Four shapes are generated, each with 10<sup>2</sup> up to
+ * 10<sup>5</sup> assignments:
+ * <ul>
+ * <li><b>flat</b>: every assignment at the top level.</li>
+ * <li><b>wide</b>: many named groups with a few assignments each.</li>
+ * <li><b>deep</b>: a balanced tree of nested groups, several levels
+ * deep.</li>
+ * <li><b>imports</b>: a top-level document that only imports other
+ * documents, each holding one group of assignments.</li>
+ * </ul>
+ * For each one, the benchmark measures the time to parse the definitions
+ * (and, for the imports shape, to fetch the imported documents concurrently
+ * and load the imported groups from them), the rate at which a virtual tree
+ * viewer backed by {@link SubmissionTargetsContentProvider} fills in its
+ * rows while every row is expanded and scrolled into view, and the heap
+ * retained by the loaded tree per node.
+ * <p>
+ * The documents are fetched through a {@link DefinitionsCache} of the
+ * benchmark's own, which is emptied before each iteration, so that the
+ * imported documents are fetched from the server concurrently each time, as
+ * they are the first time the wizard is opened.
+ * <p>
+ * This is a plain Java application; run it from the workbench as a "Java
+ * Application" so that the required plug-ins are on the class path. The
+ * optional arguments are the largest number of assignments (default
+ * 100000), the number of timed iterations (default 5), and the file to
+ * which the results are written as JSON (default
+ * {@code target-tree-benchmark.json}), so that they can be compared from
+ * one release to the next.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class TargetTreeBenchmark
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	public static void main(String[] args) throws Exception
+	{
+		int maxAssignments =
+			(args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+		int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		File output = new File(
+				(args.length > 2) ? args[2] : "target-tree-benchmark.json");
+
+		Display display = new Display();
+		Shell shell = new Shell(display);
+		shell.setLayout(new FillLayout());
+		shell.setSize(400, 600);
+		shell.open();
+
+		DefinitionsCache cache = new DefinitionsCache(createTempDirectory());
+		cache.install();
+
+		LocalHttpServer server = new LocalHttpServer();
+		List<Map<String, Object>> results =
+			new ArrayList<Map<String, Object>>();
+
+		try
+		{
+			for (String shape : SHAPES)
+			{
+				for (int size = 100; size <= maxAssignments; size *= 10)
+				{
+					server.clear();
+					generate(server, shape, size);
+
+					Map<String, Object> result =
+						run(shell, cache, server, shape, size, iterations);
+					results.add(result);
+
+					System.out.println(shape + " x " + size + ": "
+							+ "parse " + result.get("parseMillis") + " ms, "
+							+ "imports " + result.get("importMillis") + " ms, "
+							+ result.get("providerNodesPerSecond")
+							+ " nodes/s, "
+							+ result.get("retainedBytesPerNode")
+							+ " bytes/node");
+				}
+			}
+		}
+		finally
+		{
+			server.close();
+			cache.uninstall();
+			display.dispose();
+		}
+
+		writeJSON(output, results);
+		System.out.println("Results written to " + output.getAbsolutePath());
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Runs the measurements for one generated document.
+	 */
+	private static Map<String, Object> run(Shell shell, DefinitionsCache cache,
+			LocalHttpServer server, String shape, int size, int iterations)
+		throws Exception
+	{
+		URL url = server.getURL(MAIN_DOCUMENT);
+
+		long[] parseTimes = new long[iterations];
+		long[] importTimes = new long[iterations];
+		long[] traversalTimes = new long[iterations];
+		int nodes = 0;
+		int requestsBefore = server.getRequestCount();
+
+		for (int i = -WARMUP_ITERATIONS; i < iterations; i++)
+		{
+			Submitter engine = new Submitter();
+			long start;
+			long parsed;
+			long imported;
+
+			cache.clear();
+			cache.beginCachedFetch();
+
+			try
+			{
+				start = System.nanoTime();
+				engine.readSubmissionTargets(url);
+				parsed = System.nanoTime();
+
+				new ImportGroupLoader(cache).loadImports(url,
+						engine.getRoot(), new NullProgressMonitor());
+				imported = System.nanoTime();
+			}
+			finally
+			{
+				cache.endCachedFetch();
+			}
+
+			TreeViewer viewer = createViewer(shell, url, engine);
+			long shown = System.nanoTime();
+			nodes = traverse(viewer, viewer.getTree().getItems());
+			long traversed = System.nanoTime();
+
+			viewer.getTree().dispose();
+
+			if (i >= 0)
+			{
+				parseTimes[i] = parsed - start;
+				importTimes[i] = imported - parsed;
+				traversalTimes[i] = traversed - shown;
+			}
+		}
+
+		int requests = (server.getRequestCount() - requestsBefore)
+			/ (iterations + WARMUP_ITERATIONS);
+
+		Map<String, Object> result = new HashMap<String, Object>();
+		result.put("shape", shape);
+		result.put("assignments", size);
+		result.put("nodes", nodes);
+		result.put("documents", requests);
+		result.put("iterations", iterations);
+		result.put("parseMillis", millis(median(parseTimes)));
+		result.put("importMillis", millis(median(importTimes)));
+		result.put("providerMillis", millis(median(traversalTimes)));
+		result.put("providerNodesPerSecond", Math.round(
+				nodes / (median(traversalTimes) / 1000000000.0)));
+		result.put("retainedBytesPerNode", measureRetained(url, nodes));
+		return result;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates a virtual tree viewer, with a content provider whose input is
+	 * the single definitions URL, as in the wizard. Every imported group must
+	 * already have been loaded, since the provider would otherwise start
+	 * loading it in the background.
+	 */
+	private static TreeViewer createViewer(Shell shell, URL url,
+			Submitter engine)
+	{
+		DefinitionsSourceNode node = new DefinitionsSourceNode(url);
+		node.setSource(new DefinitionsSource(url, engine,
+				new HashMap<String, String>()));
+
+		INPUT.clear();
+		INPUT.add(node);
+
+		TreeViewer viewer = new TreeViewer(shell, SWT.VIRTUAL);
+		viewer.setUseHashlookup(true);
+		viewer.setContentProvider(new SubmissionTargetsContentProvider());
+		viewer.setInput(INPUT);
+		shell.layout();
+		return viewer;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Scrolls each of the specified rows into view and expands it, then does
+	 * the same for its children. The tree asks the viewer to fill in a
+	 * virtual row the first time anything is read from it, and the viewer
+	 * asks the content provider for the element in the row
+	 * ({@code updateElement}) and, when the row is expanded, for its number
+	 * of children ({@code updateChildCount}), just as when the user scrolls
+	 * through the tree and opens each group.
+	 *
+	 * @return the number of rows visited
+	 */
+	private static int traverse(TreeViewer viewer, TreeItem[] items)
+	{
+		int count = 0;
+
+		for (TreeItem item : items)
+		{
+			viewer.getTree().showItem(item);
+
+			// Reading the text fills in the row if it is still virtual.
+
+			item.getText();
+			count++;
+
+			if (item.getItemCount() > 0)
+			{
+				viewer.setExpandedState(item.getData(), true);
+				count += traverse(viewer, item.getItems());
+			}
+		}
+
+		return count;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Estimates the heap retained by a fully loaded target tree, divided by
+	 * the number of nodes that are displayed.
+	 */
+	private static long measureRetained(URL url, int nodes) throws Exception
+	{
+		long before = usedMemory();
+
+		Submitter engine = new Submitter();
+		engine.readSubmissionTargets(url);
+		new ImportGroupLoader().loadImports(url, engine.getRoot(),
+				new NullProgressMonitor());
+
+		long after = usedMemory();
+
+		// Keep the tree reachable until it has been measured.
+
+		if (engine.getRoot() == null)
+		{
+			throw new IllegalStateException("The targets were not loaded.");
+		}
+
+		return Math.max(0, after - before) / Math.max(1, nodes);
+	}
+
+
+	// ----------------------------------------------------------
+	private static File createTempDirectory() throws IOException
+	{
+		File directory = File.createTempFile("target-tree-benchmark", "");
+		directory.delete();
+		directory.mkdirs();
+		return directory;
+	}
+
+
+	// ----------------------------------------------------------
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 4; i++)
+		{
+			System.gc();
+
+			try
+			{
+				Thread.sleep(50);
+			}
+			catch (InterruptedException e)
+			{
+				// Do nothing.
+			}
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Generates a definitions document of the specified shape, and any
+	 * documents that it imports, and puts them on the server.
+	 */
+	private static void generate(LocalHttpServer server, String shape,
+			int assignments) throws IOException
+	{
+		StringBuilder main = new StringBuilder();
+		main.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		main.append("<submission-targets>\n");
+
+		if (SHAPE_FLAT.equals(shape))
+		{
+			appendAssignments(main, 0, assignments, 1);
+		}
+		else if (SHAPE_WIDE.equals(shape))
+		{
+			for (int g = 0; g * WIDE_GROUP_SIZE < assignments; g++)
+			{
+				main.append("  <assignment-group name=\"Course " + g
+						+ "\">\n");
+				appendAssignments(main, g * WIDE_GROUP_SIZE,
+						Math.min(WIDE_GROUP_SIZE,
+								assignments - g * WIDE_GROUP_SIZE), 2);
+				main.append("  </assignment-group>\n");
+			}
+		}
+		else if (SHAPE_DEEP.equals(shape))
+		{
+			int depth = 0;
+
+			for (int capacity = DEEP_LEAF_SIZE; capacity < assignments;
+					capacity *= DEEP_FANOUT)
+			{
+				depth++;
+			}
+
+			appendDeepGroup(main, "Level", depth, new int[] { 0 },
+					assignments, 1);
+		}
+		else
+		{
+			for (int g = 0; g * IMPORT_SIZE < assignments; g++)
+			{
+				String path = "/imports/course-" + g + ".xml";
+
+				StringBuilder imported = new StringBuilder();
+				imported.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+				imported.append("<submission-targets>\n");
+				imported.append("  <assignment-group name=\"Course " + g
+						+ "\">\n");
+				appendAssignments(imported, g * IMPORT_SIZE,
+						Math.min(IMPORT_SIZE, assignments - g * IMPORT_SIZE), 2);
+				imported.append("  </assignment-group>\n");
+				imported.append("</submission-targets>\n");
+				server.put(path, imported.toString().getBytes("UTF-8"));
+
+				main.append("  <" + ELEMENT_IMPORT + " href=\""
+						+ server.getURL(path) + "\"/>\n");
+			}
+		}
+
+		main.append("</submission-targets>\n");
+		server.put(MAIN_DOCUMENT, main.toString().getBytes("UTF-8"));
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Appends a group, and the groups or assignments beneath it, to a
+	 * document of the deep shape, until the requested number of assignments
+	 * has been generated.
+	 */
+	private static void appendDeepGroup(StringBuilder buffer, String name,
+			int depth, int[] generated, int assignments, int indent)
+	{
+		indent(buffer, indent);
+		buffer.append("<assignment-group name=\"" + name + "\">\n");
+
+		if (depth == 0)
+		{
+			int count = Math.min(DEEP_LEAF_SIZE, assignments - generated[0]);
+			appendAssignments(buffer, generated[0], count, indent + 1);
+			generated[0] += count;
+		}
+		else
+		{
+			for (int i = 0; i < DEEP_FANOUT && generated[0] < assignments;
+					i++)
+			{
+				appendDeepGroup(buffer, name + " " + i, depth - 1, generated,
+						assignments, indent + 1);
+			}
+		}
+
+		indent(buffer, indent);
+		buffer.append("</assignment-group>\n");
+	}
+
+
+	// ----------------------------------------------------------
+	private static void appendAssignments(StringBuilder buffer, int first,
+			int count, int indent)
+	{
+		for (int a = first; a < first + count; a++)
+		{
+			indent(buffer, indent);
+			buffer.append("<assignment name=\"Assignment " + a + "\">\n");
+			indent(buffer, indent + 1);
+			buffer.append("<transport uri=\"http://example.org/Web-CAT/"
+					+ "WebObjects/Web-CAT.woa/wa/submit\">\n");
+			indent(buffer, indent + 2);
+			buffer.append("<param name=\"a\" value=\"Assignment " + a
+					+ "\"/>\n");
+			indent(buffer, indent + 2);
+			buffer.append("<file-param name=\"file1\" "
+					+ "value=\"${user}.jar\"/>\n");
+			indent(buffer, indent + 1);
+			buffer.append("</transport>\n");
+			indent(buffer, indent);
+			buffer.append("</assignment>\n");
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static void indent(StringBuilder buffer, int indent)
+	{
+		for (int i = 0; i < indent; i++)
+		{
+			buffer.append("  ");
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes the results as a JSON array of objects, one for each generated
+	 * document, with the keys in a fixed order.
+	 */
+	private static void writeJSON(File file, List<Map<String, Object>> results)
+	throws IOException
+	{
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+				new FileOutputStream(file), "UTF-8"));
+
+		try
+		{
+			writer.println("[");
+
+			for (int i = 0; i < results.size(); i++)
+			{
+				Map<String, Object> result = results.get(i);
+				writer.print("  {");
+
+				for (int k = 0; k < RESULT_KEYS.length; k++)
+				{
+					Object value = result.get(RESULT_KEYS[k]);
+
+					writer.print((k > 0 ? ", " : "") + "\"" + RESULT_KEYS[k]
+							+ "\": " + ((value instanceof String)
+									? "\"" + value + "\"" : value));
+				}
+
+				writer.println((i < results.size() - 1) ? "}," : "}");
+			}
+
+			writer.println("]");
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static long median(long[] times)
+	{
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+
+	// ----------------------------------------------------------
+	private static double millis(long nanos)
+	{
+		return Math.round(nanos / 10000.0) / 100.0;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	private static final String SHAPE_FLAT = "flat";
+	private static final String SHAPE_WIDE = "wide";
+	private static final String SHAPE_DEEP = "deep";
+	private static final String SHAPE_IMPORTS = "imports";
+
+	/* The shapes of the generated documents. */
+	private static final String[] SHAPES = {
+		SHAPE_FLAT, SHAPE_WIDE, SHAPE_DEEP, SHAPE_IMPORTS
+	};
+
+	/* The keys of each result, in the order in which they are written. */
+	private static final String[] RESULT_KEYS = {
+		"shape", "assignments", "nodes", "documents", "iterations",
+		"parseMillis", "importMillis", "providerMillis",
+		"providerNodesPerSecond", "retainedBytesPerNode"
+	};
+
+	/* The element that imports another definitions document. */
+	private static final String ELEMENT_IMPORT = "import-group";
+
+	/* The path of the top-level definitions document on the server. */
+	private static final String MAIN_DOCUMENT = "/definitions.xml";
+
+	/* The number of assignments in each group of the wide shape. */
+	private static final int WIDE_GROUP_SIZE = 5;
+
+	/* The number of groups in each group of the deep shape. */
+	private static final int DEEP_FANOUT = 4;
+
+	/* The number of assignments in each innermost group of the deep
+	   shape. */
+	private static final int DEEP_LEAF_SIZE = 8;
+
+	/* The number of assignments in each imported document. */
+	private static final int IMPORT_SIZE = 50;
+
+	/* The number of untimed iterations run first to warm up the JIT. */
+	private static final int WARMUP_ITERATIONS = 2;
+
+	/* The input to the content provider: the list of definitions URL
+	   nodes. */
+	private static final List<DefinitionsSourceNode> INPUT =
+		new ArrayList<DefinitionsSourceNode>();
+}
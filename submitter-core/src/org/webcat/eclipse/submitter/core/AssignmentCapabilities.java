@@ -0,0 +1,164 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.webcat.submitter.SubmissionTargetException;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * A summary of what an assignment needs from the user in order to be
+ * submitted to, such as whether it asks for the names of partners.
+ * <p>
+ * Finding this out means going through all of the assignment's packager and
+ * transport parameters, which the engine may have to resolve through the
+ * groups that contain it, so it is done once per assignment by
+ * {@link DefinitionsSource#getCapabilities(SubmissionTarget)} and the result
+ * is kept, rather than every time the wizard checks whether the user has
+ * filled in everything. Capabilities are immutable.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class AssignmentCapabilities
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	private AssignmentCapabilities(Set<String> variables)
+	{
+		this.variables = Collections.unmodifiableSet(variables);
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Works out the capabilities of an assignment from its parameters.
+	 *
+	 * @param target the assignment
+	 * @return the capabilities of the assignment; if its parameters could
+	 *     not be read, an assignment that needs nothing in particular
+	 */
+	public static AssignmentCapabilities compute(SubmissionTarget target)
+	{
+		Set<String> variables = new TreeSet<String>();
+
+		try
+		{
+			addVariables(target.getPackagerParameters(), variables);
+			addVariables(target.getTransportParameters(), variables);
+			addVariables(target.getTransport(), variables);
+		}
+		catch (SubmissionTargetException e)
+		{
+			return NONE;
+		}
+
+		return new AssignmentCapabilities(variables);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the assignment asks for the names of
+	 * the user's partners.
+	 *
+	 * @return true if the assignment's parameters refer to the partners
+	 *     variable
+	 */
+	public boolean usesPartners()
+	{
+		return variables.contains(VARIABLE_PARTNERS);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the names of the variables, such as {@code user} or
+	 * {@code partners}, that the assignment's parameters refer to.
+	 *
+	 * @return the names of the variables, in alphabetical order
+	 */
+	public Set<String> getVariables()
+	{
+		return variables;
+	}
+
+
+	// ----------------------------------------------------------
+	private static void addVariables(Map<String, String> parameters,
+			Set<String> variables)
+	{
+		if (parameters != null)
+		{
+			for (String value : parameters.values())
+			{
+				addVariables(value, variables);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static void addVariables(String value, Set<String> variables)
+	{
+		if (value != null && value.indexOf("${") != -1) //$NON-NLS-1$
+		{
+			Matcher matcher = VARIABLE_PATTERN.matcher(value);
+
+			while (matcher.find())
+			{
+				variables.add(matcher.group(1));
+			}
+		}
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The name of the variable that holds the names of the user's
+	   partners. */
+	private static final String VARIABLE_PARTNERS = "partners"; //$NON-NLS-1$
+
+	/* Matches a variable reference such as ${user}. */
+	private static final Pattern VARIABLE_PATTERN =
+		Pattern.compile("\\$\\{([^}]*)\\}"); //$NON-NLS-1$
+
+	/* The capabilities of an assignment that needs nothing in particular. */
+	private static final AssignmentCapabilities NONE =
+		new AssignmentCapabilities(new TreeSet<String>());
+
+	/* The names of the variables that the assignment's parameters refer
+	   to. */
+	private final Set<String> variables;
+}
@@ -0,0 +1,1333 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CacheRequest;
+import java.net.CacheResponse;
+import java.net.HttpURLConnection;
+import java.net.ResponseCache;
+import java.net.SecureCacheResponse;
+import java.net.URI;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.cert.Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+//--------------------------------------------------------------------------
+/**
+ * A persistent, on-disk cache for submission target definitions documents.
+ * <p>
+ * The submission engine fetches the definitions file, and any groups that it
+ * imports, through the standard {@code java.net} URL machinery, so this cache
+ * is implemented as a {@link ResponseCache}. It only takes part in HTTP(S)
+ * requests that are made while the calling thread is inside a
+ * {@link #beginCachedFetch()}/{@link #endCachedFetch()} block; all other
+ * traffic in the workbench is passed through to whatever response cache was
+ * installed before this one.
+ * <p>
+ * Each cached document is stored along with its {@code ETag} and
+ * {@code Last-Modified} headers. When a document is requested again, the
+ * cache sends a conditional request to revalidate its copy and only
+ * downloads the document again if the server reports that it has changed.
+ * If the server cannot be reached at all, the cached copy is used instead.
+ * <p>
+ * A document that is downloaded for a request (rather than served from the
+ * cache) is passed on to the requester as it arrives, and written to the
+ * cache at the same time, so that a streaming parser can start on it
+ * before the download has finished.
+ * <p>
+ * The cache also keeps track of which documents were served within each
+ * scope, so that anything derived from them (such as a
+ * {@link TargetTreeSnapshot}) can tell when it is out of date.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class DefinitionsCache extends ResponseCache
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code DefinitionsCache} that stores its documents in
+	 * the specified directory.
+	 *
+	 * @param directory the directory in which cached documents are stored;
+	 *     it will be created if it does not already exist
+	 */
+	public DefinitionsCache(File directory)
+	{
+		this.directory = directory;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Installs this cache as the system-wide response cache. Any response
+	 * cache that was previously installed will continue to receive all
+	 * requests made outside of a cached fetch.
+	 */
+	public synchronized void install()
+	{
+		previousCache = ResponseCache.getDefault();
+		ResponseCache.setDefault(this);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Uninstalls this cache, restoring the response cache that was installed
+	 * before it.
+	 */
+	public synchronized void uninstall()
+	{
+		if (ResponseCache.getDefault() == this)
+		{
+			ResponseCache.setDefault(previousCache);
+		}
+
+		previousCache = null;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Marks the beginning of a block of code on the calling thread during
+	 * which definitions documents should be served through this cache. Calls
+	 * may be nested, and every call must be balanced by a call to
+	 * {@link #endCachedFetch()} in a {@code finally} block.
+	 * <p>
+	 * The block only applies to the calling thread. Work that is handed off
+	 * to other threads inside it can take part in the same scope by passing
+	 * the result of {@link #getCurrentScope()} to
+	 * {@link #beginCachedFetch(FetchScope)}.
+	 */
+	public void beginCachedFetch()
+	{
+		beginCachedFetch(false);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Marks the beginning of a block of code on the calling thread during
+	 * which definitions documents should be served through this cache,
+	 * optionally serving cached copies without revalidating them.
+	 * <p>
+	 * When {@code preferCached} is true, a document that has been cached is
+	 * returned as-is, without contacting the server; only documents that
+	 * have never been cached are downloaded. This lets the submission
+	 * targets be shown immediately from the last good copy while a
+	 * background job checks for changes. The setting of the outermost block
+	 * applies to any blocks nested inside it.
+	 *
+	 * @param preferCached true to serve cached copies without revalidating
+	 *     them
+	 */
+	public void beginCachedFetch(boolean preferCached)
+	{
+		ThreadScope current = threadScope.get();
+
+		if (current.depth == 0)
+		{
+			current.fetchScope = new FetchScope(preferCached);
+		}
+
+		current.depth++;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Marks the beginning of a block of code on the calling thread that
+	 * takes part in a cached fetch started on another thread, so that the
+	 * documents it requests are served the same way and are included in
+	 * that thread's {@link #getFetchedDocuments()}. If the calling thread is
+	 * already inside a cached fetch, the block is simply nested inside it.
+	 *
+	 * @param sharedScope the scope obtained from {@link #getCurrentScope()}
+	 *     on the other thread, or null to start a new scope as
+	 *     {@link #beginCachedFetch()} does
+	 */
+	public void beginCachedFetch(FetchScope sharedScope)
+	{
+		if (sharedScope == null)
+		{
+			beginCachedFetch();
+			return;
+		}
+
+		ThreadScope current = threadScope.get();
+
+		if (current.depth == 0)
+		{
+			current.fetchScope = sharedScope;
+		}
+
+		current.depth++;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Marks the end of a block of code started by
+	 * {@link #beginCachedFetch()}.
+	 */
+	public void endCachedFetch()
+	{
+		ThreadScope current = threadScope.get();
+
+		if (current.depth > 0)
+		{
+			current.depth--;
+
+			if (current.depth == 0)
+			{
+				threadScope.remove();
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the cached fetch scope of the calling thread, so that it can be
+	 * passed to {@link #beginCachedFetch(FetchScope)} by tasks that run on
+	 * other threads on its behalf.
+	 *
+	 * @return the scope, or null if the calling thread is not inside a
+	 *     cached fetch
+	 */
+	public FetchScope getCurrentScope()
+	{
+		return threadScope.get().fetchScope;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the documents that have been served by this cache since the
+	 * outermost {@link #beginCachedFetch()} on the calling thread (including
+	 * those requested by threads that joined its scope). This must be called
+	 * before the final {@link #endCachedFetch()}.
+	 *
+	 * @return a map from the URI of each document to a hash of its contents,
+	 *     sorted by URI
+	 */
+	public Map<String, String> getFetchedDocuments()
+	{
+		FetchScope current = getCurrentScope();
+
+		return (current != null) ? current.getDocuments()
+				: new TreeMap<String, String>();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Revalidates the cached copy of the document at the specified URI
+	 * (downloading it if it has changed, or if it was not cached) and gets a
+	 * hash of its current contents.
+	 *
+	 * @param uri the URI of the document
+	 * @return a hash of the contents of the document, or null if the server
+	 *     could not provide it
+	 * @throws IOException if the document is not cached and the server could
+	 *     not be reached
+	 */
+	public String revalidate(URI uri) throws IOException
+	{
+		String scheme = uri.getScheme();
+
+		if ("http".equalsIgnoreCase(scheme) //$NON-NLS-1$
+				|| "https".equalsIgnoreCase(scheme)) //$NON-NLS-1$
+		{
+			CachedResponse response = fetch(uri, null, false, null);
+			return (response != null) ? response.hash : null;
+		}
+		else
+		{
+			// Local documents are not cached, but they can still be hashed.
+
+			return digest("SHA-1", readFully(uri.toURL().openStream())); //$NON-NLS-1$
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Fetches the document at the specified URI into the cache the same way
+	 * that a request for it inside the calling thread's cached fetch would
+	 * be, and records it in that fetch's documents. A later request for the
+	 * document in the same fetch is then served from the cache without
+	 * contacting the server again. Nothing happens outside of a cached fetch,
+	 * or if the URI is not an HTTP(S) URI.
+	 *
+	 * @param uri the URI of the document
+	 * @throws IOException if the document is not cached and the server could
+	 *     not provide it
+	 */
+	public void prefetch(URI uri) throws IOException
+	{
+		FetchScope current = getCurrentScope();
+
+		if (!isCacheable(uri, "GET") //$NON-NLS-1$
+				|| current.hasDocument(uri.toString()))
+		{
+			return;
+		}
+
+		CachedResponse response =
+			fetch(uri, null, current.isPreferCached(), null);
+
+		if (response == null)
+		{
+			throw new IOException("The server did not provide " + uri);
+		}
+
+		current.recordDocument(uri.toString(), response.hash);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the file in which a snapshot of the submission targets
+	 * loaded from the specified definitions URI is stored, alongside the
+	 * cached copy of the document itself.
+	 *
+	 * @param uri the URI of the definitions document
+	 * @return the snapshot file, which may not exist
+	 */
+	public File getSnapshotFile(URI uri)
+	{
+		return new File(directory, getKey(uri) + ".snapshot"); //$NON-NLS-1$
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a cached copy of the document at the
+	 * specified URI is available on disk.
+	 *
+	 * @param uri the URI of the document
+	 * @return true if the document has been cached, otherwise false
+	 */
+	public boolean isCached(URI uri)
+	{
+		return getBodyFile(uri).isFile();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Removes every document from the cache.
+	 */
+	public synchronized void clear()
+	{
+		File[] files = directory.listFiles();
+
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				file.delete();
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * @see ResponseCache#get(URI, String, Map)
+	 */
+	public CacheResponse get(URI uri, String method,
+			Map<String, List<String>> requestHeaders) throws IOException
+	{
+		if (!isCacheable(uri, method))
+		{
+			return (previousCache != null)
+				? previousCache.get(uri, method, requestHeaders) : null;
+		}
+
+		// A document that has already been served in this scope (for
+		// example, because it was prefetched) is not revalidated again.
+
+		FetchScope current = getCurrentScope();
+		CachedResponse response = fetch(uri, requestHeaders,
+				current.isPreferCached()
+				|| current.hasDocument(uri.toString()), current);
+
+		// A document that is being downloaded is recorded once it has been
+		// read to the end, when its hash is known.
+
+		if (response != null && response.hash != null)
+		{
+			current.recordDocument(uri.toString(), response.hash);
+		}
+
+		return response;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the document at the specified URI, revalidating the cached copy
+	 * if there is one.
+	 *
+	 * @param uri the URI of the document
+	 * @param requestHeaders the headers of the original request, or null
+	 * @param preferCached true to return the cached copy, if there is one,
+	 *     without revalidating it
+	 * @param streamTo if not null, a document that has to be downloaded is
+	 *     returned while it is still being read, and recorded in this scope
+	 *     once it has been read to the end; if null, it is read completely
+	 *     before it is returned
+	 * @return the document, or null if the original connection should handle
+	 *     the request itself
+	 * @throws IOException if the document is not cached and the server could
+	 *     not be reached
+	 */
+	private CachedResponse fetch(URI uri,
+			Map<String, List<String>> requestHeaders, boolean preferCached,
+			FetchScope streamTo)
+	throws IOException
+	{
+		CachedResponse cached = readEntry(uri);
+
+		if (preferCached && cached != null)
+		{
+			return cached;
+		}
+
+		HttpURLConnection connection = null;
+
+		try
+		{
+			// The connection used to revalidate the document must not use
+			// caches, or it would end up right back here.
+
+			connection = (HttpURLConnection) uri.toURL().openConnection();
+			connection.setUseCaches(false);
+			connection.setConnectTimeout(CONNECT_TIMEOUT);
+			connection.setReadTimeout(READ_TIMEOUT);
+			copyRequestHeaders(requestHeaders, connection);
+
+			if (cached != null)
+			{
+				if (cached.eTag != null)
+				{
+					connection.setRequestProperty(
+							"If-None-Match", cached.eTag); //$NON-NLS-1$
+				}
+
+				if (cached.lastModified != null)
+				{
+					connection.setRequestProperty(
+							"If-Modified-Since", //$NON-NLS-1$
+							cached.lastModified);
+				}
+			}
+
+			int status = connection.getResponseCode();
+
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED
+					&& cached != null)
+			{
+				return cached;
+			}
+			else if (status == HttpURLConnection.HTTP_OK)
+			{
+				if (streamTo != null)
+				{
+					// The stream disconnects the connection when it is
+					// closed.
+
+					CachedResponse response =
+						streamEntry(uri, connection, streamTo);
+					connection = null;
+					return response;
+				}
+
+				return writeEntry(uri, connection);
+			}
+			else if (status >= HttpURLConnection.HTTP_INTERNAL_ERROR
+					&& cached != null)
+			{
+				// The server is having trouble; fall back to the copy that
+				// we already have.
+
+				return cached;
+			}
+			else
+			{
+				// Let the original connection handle any other response
+				// (redirects, authentication challenges, missing documents)
+				// in the usual way.
+
+				return null;
+			}
+		}
+		catch (IOException e)
+		{
+			if (cached != null)
+			{
+				return cached;
+			}
+			else
+			{
+				throw e;
+			}
+		}
+		finally
+		{
+			if (connection != null)
+			{
+				connection.disconnect();
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * @see ResponseCache#put(URI, URLConnection)
+	 */
+	public CacheRequest put(URI uri, URLConnection connection)
+	throws IOException
+	{
+		// Documents inside a cached fetch are stored by get(), so put() is
+		// only responsible for forwarding everything else.
+
+		if (!isCacheable(uri, "GET") && previousCache != null) //$NON-NLS-1$
+		{
+			return previousCache.put(uri, connection);
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a request for the specified URI should
+	 * be handled by this cache.
+	 *
+	 * @param uri the URI being requested
+	 * @param method the HTTP request method
+	 * @return true if the request should be handled by this cache
+	 */
+	private boolean isCacheable(URI uri, String method)
+	{
+		String scheme = uri.getScheme();
+
+		return getCurrentScope() != null
+			&& "GET".equalsIgnoreCase(method) //$NON-NLS-1$
+			&& ("http".equalsIgnoreCase(scheme) //$NON-NLS-1$
+					|| "https".equalsIgnoreCase(scheme)); //$NON-NLS-1$
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Copies the headers of the original request onto the connection used to
+	 * revalidate the document, so that things like authentication and
+	 * cookies continue to work.
+	 */
+	private void copyRequestHeaders(Map<String, List<String>> headers,
+			URLConnection connection)
+	{
+		if (headers == null)
+		{
+			return;
+		}
+
+		for (Map.Entry<String, List<String>> header : headers.entrySet())
+		{
+			if (header.getKey() == null)
+			{
+				continue;
+			}
+
+			for (String value : header.getValue())
+			{
+				connection.addRequestProperty(header.getKey(), value);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the cached copy of the document at the specified URI from disk.
+	 *
+	 * @param uri the URI of the document
+	 * @return the cached response, or null if the document is not cached or
+	 *     the cache entry could not be read
+	 */
+	private synchronized CachedResponse readEntry(URI uri)
+	{
+		File bodyFile = getBodyFile(uri);
+		File infoFile = getInfoFile(uri);
+
+		if (!bodyFile.isFile() || !infoFile.isFile())
+		{
+			return null;
+		}
+
+		try
+		{
+			Properties info = new Properties();
+			InputStream infoStream = new FileInputStream(infoFile);
+
+			try
+			{
+				info.load(infoStream);
+			}
+			finally
+			{
+				infoStream.close();
+			}
+
+			if (!uri.toString().equals(info.getProperty(KEY_URI)))
+			{
+				return null;
+			}
+
+			return new CachedResponse(readFully(new FileInputStream(bodyFile)),
+					info.getProperty(KEY_ETAG),
+					info.getProperty(KEY_LAST_MODIFIED),
+					info.getProperty(KEY_CONTENT_TYPE),
+					info.getProperty(KEY_CIPHER_SUITE));
+		}
+		catch (IOException e)
+		{
+			SubmitterCore.log("Could not read the cached copy of " + uri, e);
+			return null;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Downloads the body of the document from the specified connection and
+	 * stores it, along with the headers needed to revalidate it later, in
+	 * the cache.
+	 *
+	 * @param uri the URI of the document
+	 * @param connection the connection from which the document is being read
+	 * @return the response that should be given to the engine
+	 * @throws IOException if the document could not be downloaded
+	 */
+	private CachedResponse writeEntry(URI uri, HttpURLConnection connection)
+	throws IOException
+	{
+		CachedResponse response = new CachedResponse(
+				readFully(connection.getInputStream()),
+				connection.getHeaderField("ETag"), //$NON-NLS-1$
+				connection.getHeaderField("Last-Modified"), //$NON-NLS-1$
+				connection.getContentType(),
+				getCipherSuite(connection));
+
+		try
+		{
+			File tempFile = createTempFile(uri);
+			OutputStream bodyStream = new FileOutputStream(tempFile);
+
+			try
+			{
+				bodyStream.write(response.body);
+			}
+			finally
+			{
+				bodyStream.close();
+			}
+
+			commitEntry(uri, tempFile, response);
+		}
+		catch (IOException e)
+		{
+			// Failing to update the cache should not prevent the document
+			// that we just downloaded from being used.
+
+			SubmitterCore.log("Could not cache " + uri, e);
+		}
+
+		return response;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates a response that passes the body of the document on to the
+	 * requester as it is downloaded from the specified connection, and
+	 * stores it in the cache once it has been read to the end.
+	 *
+	 * @param uri the URI of the document
+	 * @param connection the connection from which the document is being
+	 *     read, which is disconnected when the body is closed
+	 * @param scope the scope in which the document is recorded once it has
+	 *     been read
+	 * @return the response that should be given to the requester
+	 * @throws IOException if the download could not be started
+	 */
+	private CachedResponse streamEntry(URI uri, HttpURLConnection connection,
+			FetchScope scope) throws IOException
+	{
+		File tempFile = null;
+
+		try
+		{
+			tempFile = createTempFile(uri);
+
+			CachedResponse response = new CachedResponse(null,
+					connection.getHeaderField("ETag"), //$NON-NLS-1$
+					connection.getHeaderField("Last-Modified"), //$NON-NLS-1$
+					connection.getContentType(),
+					getCipherSuite(connection));
+
+			response.stream = new CachingInputStream(uri, connection,
+					tempFile, response, scope);
+
+			return response;
+		}
+		catch (IOException e)
+		{
+			if (tempFile != null)
+			{
+				tempFile.delete();
+			}
+
+			connection.disconnect();
+			throw e;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Moves a downloaded body into place as the cached copy of a document,
+	 * and writes the headers needed to revalidate it later.
+	 *
+	 * @param uri the URI of the document
+	 * @param tempFile the file that the body was downloaded to
+	 * @param response the response whose headers should be stored
+	 * @throws IOException if the entry could not be written
+	 */
+	private synchronized void commitEntry(URI uri, File tempFile,
+			CachedResponse response) throws IOException
+	{
+		Properties info = new Properties();
+		info.setProperty(KEY_URI, uri.toString());
+		setIfNotNull(info, KEY_ETAG, response.eTag);
+		setIfNotNull(info, KEY_LAST_MODIFIED, response.lastModified);
+		setIfNotNull(info, KEY_CONTENT_TYPE, response.contentType);
+		setIfNotNull(info, KEY_CIPHER_SUITE, response.cipherSuite);
+
+		// Write the body before the info file so that an entry is never
+		// considered valid unless both halves are present.
+
+		File bodyFile = getBodyFile(uri);
+		bodyFile.delete();
+
+		if (!tempFile.renameTo(bodyFile))
+		{
+			tempFile.delete();
+			throw new IOException("Could not move " + tempFile
+					+ " into place");
+		}
+
+		OutputStream infoStream = new FileOutputStream(getInfoFile(uri));
+
+		try
+		{
+			info.store(infoStream, uri.toString());
+		}
+		finally
+		{
+			infoStream.close();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates a file in the cache directory to download the body of a
+	 * document to before it is moved into place.
+	 */
+	private File createTempFile(URI uri) throws IOException
+	{
+		directory.mkdirs();
+		return File.createTempFile(getKey(uri), ".tmp", directory); //$NON-NLS-1$
+	}
+
+
+	// ----------------------------------------------------------
+	private static String getCipherSuite(HttpURLConnection connection)
+	{
+		if (connection instanceof HttpsURLConnection)
+		{
+			return ((HttpsURLConnection) connection).getCipherSuite();
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static void setIfNotNull(Properties properties, String key,
+			String value)
+	{
+		if (value != null)
+		{
+			properties.setProperty(key, value);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static byte[] readFully(InputStream stream) throws IOException
+	{
+		try
+		{
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			byte[] chunk = new byte[8192];
+			int count;
+
+			while ((count = stream.read(chunk)) != -1)
+			{
+				buffer.write(chunk, 0, count);
+			}
+
+			return buffer.toByteArray();
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private File getBodyFile(URI uri)
+	{
+		return new File(directory, getKey(uri) + ".xml"); //$NON-NLS-1$
+	}
+
+
+	// ----------------------------------------------------------
+	private File getInfoFile(URI uri)
+	{
+		return new File(directory, getKey(uri) + ".properties"); //$NON-NLS-1$
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Computes the name under which the document at the specified URI is
+	 * stored on disk.
+	 */
+	private static String getKey(URI uri)
+	{
+		try
+		{
+			return digest("MD5", uri.toString().getBytes("UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		catch (IOException e)
+		{
+			return Integer.toHexString(uri.toString().hashCode());
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Computes a hash of the specified bytes as a hexadecimal string.
+	 *
+	 * @param algorithm the name of the digest algorithm to use
+	 * @param bytes the bytes to hash
+	 * @return the hash, in hexadecimal
+	 */
+	static String digest(String algorithm, byte[] bytes)
+	{
+		byte[] hash;
+
+		try
+		{
+			hash = MessageDigest.getInstance(algorithm).digest(bytes);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			return Integer.toHexString(Arrays.hashCode(bytes));
+		}
+
+		return toHex(hash);
+	}
+
+
+	// ----------------------------------------------------------
+	private static String toHex(byte[] bytes)
+	{
+		StringBuffer buffer = new StringBuffer();
+
+		for (byte b : bytes)
+		{
+			buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+			buffer.append(Character.forDigit(b & 0xF, 16));
+		}
+
+		return buffer.toString();
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * The documents served within an outermost cached fetch, along with the
+	 * way they are served. It is shared explicitly with any threads that
+	 * join the fetch (see {@link DefinitionsCache#beginCachedFetch(FetchScope)}),
+	 * so its methods may be called from several threads at once.
+	 */
+	public static final class FetchScope
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		private FetchScope(boolean preferCached)
+		{
+			this.preferCached = preferCached;
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		private boolean isPreferCached()
+		{
+			return preferCached;
+		}
+
+
+		// ----------------------------------------------------------
+		private synchronized void recordDocument(String uri, String hash)
+		{
+			documents.put(uri, hash);
+		}
+
+
+		// ----------------------------------------------------------
+		private synchronized boolean hasDocument(String uri)
+		{
+			return documents.containsKey(uri);
+		}
+
+
+		// ----------------------------------------------------------
+		private synchronized Map<String, String> getDocuments()
+		{
+			return new TreeMap<String, String>(documents);
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* Whether cached copies are served without being revalidated. */
+		private final boolean preferCached;
+
+		/* The documents served in the scope, and hashes of their contents. */
+		private Map<String, String> documents = new HashMap<String, String>();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Tracks how deeply nested a single thread is in cached fetch blocks,
+	 * and the scope that its outermost block started or joined.
+	 */
+	private static class ThreadScope
+	{
+		/* How deeply nested the thread is. */
+		private int depth;
+
+		/* The scope of the outermost block, or null outside of one. */
+		private FetchScope fetchScope;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * A cached definitions document. This is always a
+	 * {@code SecureCacheResponse} because the JRE will not use a plain
+	 * {@code CacheResponse} to satisfy an HTTPS request.
+	 */
+	private static class CachedResponse extends SecureCacheResponse
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public CachedResponse(byte[] body, String eTag, String lastModified,
+				String contentType, String cipherSuite)
+		{
+			this.body = body;
+			this.hash = (body != null) ? digest("SHA-1", body) : null; //$NON-NLS-1$
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+			this.contentType = contentType;
+			this.cipherSuite = cipherSuite;
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public Map<String, List<String>> getHeaders()
+		{
+			Map<String, List<String>> headers =
+				new HashMap<String, List<String>>();
+
+			headers.put(null, Collections.singletonList(
+					"HTTP/1.1 200 OK")); //$NON-NLS-1$
+
+			if (body != null)
+			{
+				headers.put("Content-Length", Collections.singletonList( //$NON-NLS-1$
+						Integer.toString(body.length)));
+			}
+
+			if (contentType != null)
+			{
+				headers.put("Content-Type", //$NON-NLS-1$
+						Collections.singletonList(contentType));
+			}
+
+			if (eTag != null)
+			{
+				headers.put("ETag", //$NON-NLS-1$
+						Collections.singletonList(eTag));
+			}
+
+			if (lastModified != null)
+			{
+				headers.put("Last-Modified", //$NON-NLS-1$
+						Collections.singletonList(lastModified));
+			}
+
+			return headers;
+		}
+
+
+		// ----------------------------------------------------------
+		public InputStream getBody()
+		{
+			return (body != null) ? new ByteArrayInputStream(body) : stream;
+		}
+
+
+		// ----------------------------------------------------------
+		public String getCipherSuite()
+		{
+			return cipherSuite;
+		}
+
+
+		// ----------------------------------------------------------
+		public List<Certificate> getLocalCertificateChain()
+		{
+			return null;
+		}
+
+
+		// ----------------------------------------------------------
+		public List<Certificate> getServerCertificateChain()
+		throws SSLPeerUnverifiedException
+		{
+			// The certificates are not kept with the cached document; the
+			// connection that fetched it has already verified them.
+
+			throw new SSLPeerUnverifiedException(
+					"The server certificates are not cached"); //$NON-NLS-1$
+		}
+
+
+		// ----------------------------------------------------------
+		public Principal getPeerPrincipal() throws SSLPeerUnverifiedException
+		{
+			throw new SSLPeerUnverifiedException(
+					"The server certificates are not cached"); //$NON-NLS-1$
+		}
+
+
+		// ----------------------------------------------------------
+		public Principal getLocalPrincipal()
+		{
+			return null;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The body, or null while it is being downloaded through the
+		   stream. */
+		private byte[] body;
+		private InputStream stream;
+		private String hash;
+		private String eTag;
+		private String lastModified;
+		private String contentType;
+		private String cipherSuite;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Passes the body of a document on as it is downloaded, writing it to a
+	 * temporary file at the same time. Once the end of the body has been
+	 * read, the file is moved into place as the cached copy and the document
+	 * is recorded in its fetch scope. If the stream is closed before the end,
+	 * the partial download is thrown away.
+	 */
+	private class CachingInputStream extends FilterInputStream
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public CachingInputStream(URI uri, HttpURLConnection connection,
+				File tempFile, CachedResponse response, FetchScope scope)
+		throws IOException
+		{
+			super(connection.getInputStream());
+
+			this.uri = uri;
+			this.connection = connection;
+			this.tempFile = tempFile;
+			this.response = response;
+			this.scope = scope;
+			this.output = new FileOutputStream(tempFile);
+
+			try
+			{
+				this.digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+			}
+			catch (NoSuchAlgorithmException e)
+			{
+				// The hash is computed from the file instead.
+			}
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public int read() throws IOException
+		{
+			byte[] single = new byte[1];
+			int count = read(single, 0, 1);
+
+			return (count == -1) ? -1 : (single[0] & 0xFF);
+		}
+
+
+		// ----------------------------------------------------------
+		public int read(byte[] buffer, int offset, int length)
+		throws IOException
+		{
+			int count = super.read(buffer, offset, length);
+
+			if (count == -1)
+			{
+				finish();
+			}
+			else if (output != null)
+			{
+				output.write(buffer, offset, count);
+
+				if (digest != null)
+				{
+					digest.update(buffer, offset, count);
+				}
+			}
+
+			return count;
+		}
+
+
+		// ----------------------------------------------------------
+		public long skip(long count) throws IOException
+		{
+			// Skipped bytes still have to be cached.
+
+			byte[] buffer = new byte[(int) Math.min(count, 8192)];
+			int read = read(buffer, 0, buffer.length);
+
+			return Math.max(read, 0);
+		}
+
+
+		// ----------------------------------------------------------
+		public boolean markSupported()
+		{
+			return false;
+		}
+
+
+		// ----------------------------------------------------------
+		public void close() throws IOException
+		{
+			try
+			{
+				super.close();
+			}
+			finally
+			{
+				if (output != null)
+				{
+					// The body was not read to the end.
+
+					output.close();
+					output = null;
+					tempFile.delete();
+				}
+
+				connection.disconnect();
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Moves the downloaded body into place and records the document,
+		 * once the end of the body has been read.
+		 */
+		private void finish() throws IOException
+		{
+			if (output == null)
+			{
+				return;
+			}
+
+			output.close();
+			output = null;
+
+			String hash = (digest != null) ? toHex(digest.digest())
+				: digest("SHA-1", readFully(new FileInputStream(tempFile))); //$NON-NLS-1$
+
+			try
+			{
+				commitEntry(uri, tempFile, response);
+			}
+			catch (IOException e)
+			{
+				// Failing to update the cache should not prevent the
+				// document that we just downloaded from being used.
+
+				SubmitterCore.log("Could not cache " + uri, e);
+			}
+
+			response.hash = hash;
+			scope.recordDocument(uri.toString(), hash);
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The URI of the document. */
+		private URI uri;
+
+		/* The connection from which the document is being read. */
+		private HttpURLConnection connection;
+
+		/* The file that the body is downloaded to. */
+		private File tempFile;
+
+		/* The response whose body this is. */
+		private CachedResponse response;
+
+		/* The scope in which the document is recorded. */
+		private FetchScope scope;
+
+		/* The stream to the temporary file, or null once it is closed. */
+		private OutputStream output;
+
+		/* Computes the hash of the body as it is read, or null. */
+		private MessageDigest digest;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The keys used in the properties file stored with each document. */
+	private static final String KEY_URI = "uri"; //$NON-NLS-1$
+	private static final String KEY_ETAG = "etag"; //$NON-NLS-1$
+	private static final String KEY_LAST_MODIFIED = "lastModified"; //$NON-NLS-1$
+	private static final String KEY_CONTENT_TYPE = "contentType"; //$NON-NLS-1$
+	private static final String KEY_CIPHER_SUITE = "cipherSuite"; //$NON-NLS-1$
+
+	/* The timeouts used when revalidating a document, in milliseconds. */
+	private static final int CONNECT_TIMEOUT = 15000;
+	private static final int READ_TIMEOUT = 30000;
+
+	/* The directory in which the cached documents are stored. */
+	private File directory;
+
+	/* The response cache that was installed before this one. It is read on
+	   whichever thread makes a request, so it is volatile. */
+	private volatile ResponseCache previousCache;
+
+	/* The cached fetch scope of each thread. This is deliberately not
+	   inherited, so that pooled threads created inside a cached fetch do
+	   not keep its scope; tasks join it explicitly instead. */
+	private final ThreadLocal<ThreadScope> threadScope =
+		new ThreadLocal<ThreadScope>()
+	{
+		protected ThreadScope initialValue()
+		{
+			return new ThreadScope();
+		}
+	};
+}
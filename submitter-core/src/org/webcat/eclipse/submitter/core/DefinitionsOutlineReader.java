@@ -0,0 +1,219 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+//--------------------------------------------------------------------------
+/**
+ * Reads an outline of the groups and assignments in a submission target
+ * definitions document, reporting each top-level target to a listener as
+ * soon as its closing tag has been read.
+ * <p>
+ * The document is read with a streaming parser, so no tree is built for the
+ * document as a whole and the first targets can be displayed long before
+ * the end of a large document has arrived. Only the names and the shape of
+ * the tree are read; imported groups are not followed, since their contents
+ * are loaded by the engine when the full definitions are parsed.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class DefinitionsOutlineReader
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the outline of the definitions document at the specified URL.
+	 * The document is fetched through the {@link DefinitionsCache} if a
+	 * cached fetch is in progress on the calling thread.
+	 *
+	 * @param url the definitions URL
+	 * @param listener the listener to notify as each top-level target is read
+	 * @throws IOException if the document could not be read
+	 * @throws SAXException if the document is not well-formed
+	 */
+	public void read(URL url, ITargetOutlineListener listener)
+	throws IOException, SAXException
+	{
+		SAXParser parser;
+
+		try
+		{
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(false);
+			factory.setValidating(false);
+			parser = factory.newSAXParser();
+		}
+		catch (ParserConfigurationException e)
+		{
+			throw new SAXException(e);
+		}
+
+		InputStream stream = url.openStream();
+
+		try
+		{
+			InputSource source = new InputSource(stream);
+			source.setSystemId(url.toString());
+
+			parser.parse(source, new OutlineHandler(listener));
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Builds the outline from the parser's events.
+	 */
+	private static class OutlineHandler extends DefaultHandler
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public OutlineHandler(ITargetOutlineListener listener)
+		{
+			this.listener = listener;
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public void startElement(String uri, String localName, String qName,
+				Attributes attributes)
+		{
+			depth++;
+
+			// Ignore everything inside an element that is not a target, such
+			// as the parameters of a transport.
+
+			if (skipDepth != 0)
+			{
+				return;
+			}
+
+			boolean container;
+
+			if (ELEMENT_GROUP.equals(qName))
+			{
+				container = true;
+			}
+			else if (ELEMENT_ASSIGNMENT.equals(qName))
+			{
+				container = false;
+			}
+			else if (depth > 1)
+			{
+				skipDepth = depth;
+				return;
+			}
+			else
+			{
+				// The document element.
+
+				return;
+			}
+
+			current = new TargetOutline(current,
+					attributes.getValue(ATTRIBUTE_NAME), container,
+					"true".equals(attributes.getValue(ATTRIBUTE_HIDDEN))); //$NON-NLS-1$
+		}
+
+
+		// ----------------------------------------------------------
+		public void endElement(String uri, String localName, String qName)
+		{
+			if (skipDepth != 0)
+			{
+				if (skipDepth == depth)
+				{
+					skipDepth = 0;
+				}
+			}
+			else if (current != null)
+			{
+				TargetOutline finished = current;
+				current = current.getParent();
+
+				if (current == null && !finished.isHidden())
+				{
+					listener.outlineRead(finished);
+				}
+			}
+
+			depth--;
+		}
+
+
+		// ----------------------------------------------------------
+		public InputSource resolveEntity(String publicId, String systemId)
+		{
+			// Never fetch external DTDs; the outline does not need them.
+
+			return new InputSource(new StringReader("")); //$NON-NLS-1$
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The listener to notify as each top-level target is read. */
+		private ITargetOutlineListener listener;
+
+		/* The outline of the target currently being read. */
+		private TargetOutline current;
+
+		/* The depth of the element currently being read. */
+		private int depth;
+
+		/* The depth of the non-target element being skipped, or 0. */
+		private int skipDepth;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	private static final String ELEMENT_GROUP = "assignment-group"; //$NON-NLS-1$
+	private static final String ELEMENT_ASSIGNMENT = "assignment"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_NAME = "name"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_HIDDEN = "hidden"; //$NON-NLS-1$
+}
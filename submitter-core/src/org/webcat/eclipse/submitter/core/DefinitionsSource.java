@@ -0,0 +1,359 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.webcat.submitter.SubmissionTargetException;
+import org.webcat.submitter.Submitter;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * The submission targets that were loaded from a single definitions URL.
+ * <p>
+ * The targets are those of the engine that read the definitions, which is
+ * kept for the rest of the session so that it can also submit to them (see
+ * {@link #getSubmitter()}); the definitions do not have to be read again for
+ * each submission. The documents that the targets were loaded from are kept
+ * as well, so that they can be checked for changes in the background.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class DefinitionsSource
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code DefinitionsSource}.
+	 *
+	 * @param url the definitions URL
+	 * @param engine the engine that read the submission targets
+	 * @param documents a map from the URI of each document that the targets
+	 *     were loaded from to a hash of its contents
+	 */
+	public DefinitionsSource(URL url, Submitter engine,
+			Map<String, String> documents)
+	{
+		this.url = url;
+		this.engine = engine;
+		this.root = engine.getRoot();
+		this.documents = documents;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the definitions URL that the targets were loaded from.
+	 *
+	 * @return the definitions URL
+	 */
+	public URL getURL()
+	{
+		return url;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the engine that read the targets, which is the one that should
+	 * submit to any of them.
+	 *
+	 * @return the submission engine
+	 */
+	public Submitter getSubmitter()
+	{
+		return engine;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the root of the submission target tree.
+	 *
+	 * @return the root target
+	 */
+	public SubmissionTarget getRoot()
+	{
+		return root;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the lock that must be held while an imported group in these
+	 * targets is loaded. The engine's targets are not safe to load from more
+	 * than one thread at a time, and holding the lock also means that a load
+	 * that is already in progress (such as one started by the prefetch job)
+	 * is waited for rather than started again.
+	 *
+	 * @return the lock
+	 */
+	public Object getLoadLock()
+	{
+		return loadLock;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the documents that the targets were loaded from.
+	 *
+	 * @return a map from the URI of each document to a hash of its contents
+	 */
+	public Map<String, String> getDocuments()
+	{
+		return documents;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets an index of the names of the targets, which is built the first
+	 * time it is needed.
+	 *
+	 * @return the index of the targets
+	 */
+	public synchronized TargetIndex getIndex()
+	{
+		if (index == null)
+		{
+			index = new TargetIndex(root);
+		}
+
+		return index;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Rebuilds the index of the names of the targets, so that it includes
+	 * the targets in imported groups that have been loaded since it was
+	 * built. The old index is used until the new one is ready.
+	 */
+	public void rebuildIndex()
+	{
+		TargetIndex newIndex = new TargetIndex(root);
+
+		synchronized (this)
+		{
+			index = newIndex;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the capabilities of an assignment in the target tree, working
+	 * them out the first time they are asked for.
+	 *
+	 * @param target the assignment
+	 * @return the capabilities of the assignment
+	 */
+	public AssignmentCapabilities getCapabilities(SubmissionTarget target)
+	{
+		synchronized (capabilities)
+		{
+			AssignmentCapabilities result = capabilities.get(target);
+
+			if (result == null)
+			{
+				result = AssignmentCapabilities.compute(target);
+				capabilities.put(target, result);
+			}
+
+			return result;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the files that an assignment requires, reading them from the
+	 * definitions documents the first time they are asked for. The
+	 * documents are served from the definitions cache without contacting
+	 * the server, unless they have never been cached, but they are still
+	 * parsed, so this should not be called from the UI thread the first
+	 * time (see {@link #getReadRequiredFiles(SubmissionTarget)}).
+	 *
+	 * @param target the assignment
+	 * @return the files that the assignment requires; if they could not be
+	 *     read, none
+	 */
+	public RequiredFiles getRequiredFiles(SubmissionTarget target)
+	{
+		synchronized (requiredFiles)
+		{
+			RequiredFiles result = requiredFiles.get(target);
+
+			if (result != null)
+			{
+				return result;
+			}
+		}
+
+		RequiredFiles result = readRequiredFiles(target);
+
+		synchronized (requiredFiles)
+		{
+			requiredFiles.put(target, result);
+		}
+
+		return result;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the files that an assignment requires if they have already been
+	 * read. This never reads the definitions documents, so it can be called
+	 * from the UI thread.
+	 *
+	 * @param target the assignment
+	 * @return the files that the assignment requires, or null if they have
+	 *     not been read yet
+	 */
+	public RequiredFiles getReadRequiredFiles(SubmissionTarget target)
+	{
+		synchronized (requiredFiles)
+		{
+			return requiredFiles.get(target);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private RequiredFiles readRequiredFiles(SubmissionTarget target)
+	{
+		TargetPath path = TargetPath.of(this, target);
+
+		if (path == null)
+		{
+			return RequiredFiles.NONE;
+		}
+
+		DefinitionsCache cache =
+			SubmitterCore.getDefault().getDefinitionsCache();
+		cache.beginCachedFetch(true);
+
+		try
+		{
+			RequiredFiles result = new RequiredFilesReader().read(path);
+			return (result != null) ? result : RequiredFiles.NONE;
+		}
+		catch (Exception e)
+		{
+			// The engine still checks the required files when it submits.
+
+			return RequiredFiles.NONE;
+		}
+		finally
+		{
+			cache.endCachedFetch();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Works out the capabilities of all of the assignments in the target
+	 * tree, so that the wizard does not have to when the user selects one.
+	 * Imported groups that have not been loaded yet are skipped; the
+	 * capabilities of their assignments are worked out when they are first
+	 * asked for. This should be called from a background job.
+	 */
+	public void computeCapabilities()
+	{
+		computeCapabilities(root);
+	}
+
+
+	// ----------------------------------------------------------
+	private void computeCapabilities(SubmissionTarget container)
+	{
+		if (!container.isLoaded())
+		{
+			return;
+		}
+
+		SubmissionTarget[] children;
+
+		try
+		{
+			children = container.getLogicalChildren();
+		}
+		catch (SubmissionTargetException e)
+		{
+			return;
+		}
+
+		for (SubmissionTarget child : children)
+		{
+			if (child.isContainer())
+			{
+				computeCapabilities(child);
+			}
+			else if (child.isActionable())
+			{
+				getCapabilities(child);
+			}
+		}
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The definitions URL that the targets were loaded from. */
+	private URL url;
+
+	/* The engine that read the submission targets. */
+	private Submitter engine;
+
+	/* The root of the submission target tree. */
+	private SubmissionTarget root;
+
+	/* Held while an imported group in the tree is loaded. */
+	private final Object loadLock = new Object();
+
+	/* The documents that the targets were loaded from, and hashes of their
+	   contents. */
+	private Map<String, String> documents;
+
+	/* The index of the names of the targets. */
+	private TargetIndex index;
+
+	/* The capabilities of the assignments that have been worked out so
+	   far. */
+	private Map<SubmissionTarget, AssignmentCapabilities> capabilities =
+		new HashMap<SubmissionTarget, AssignmentCapabilities>();
+
+	/* The files required by the assignments that have been read so far. */
+	private Map<SubmissionTarget, RequiredFiles> requiredFiles =
+		new HashMap<SubmissionTarget, RequiredFiles>();
+}
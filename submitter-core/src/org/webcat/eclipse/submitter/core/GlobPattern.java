@@ -0,0 +1,297 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.regex.Pattern;
+
+//--------------------------------------------------------------------------
+/**
+ * A single rule in the style of a {@code .gitignore} file, compiled once so
+ * that it can be tested against many paths quickly.
+ * <p>
+ * The syntax is the same as that of {@code .gitignore}: {@code *} and
+ * {@code ?} match within a single path segment, {@code **} matches across
+ * segments, {@code [...]} matches a set of characters, a trailing slash
+ * makes the rule match only folders, a leading {@code !} makes it include
+ * what earlier rules excluded, and a rule that contains a slash anywhere
+ * but at its end is matched against the whole path rather than just the
+ * name. The most common kinds of rule, a plain name such as {@code bin/}
+ * and an extension such as {@code *.class}, are matched by comparing
+ * strings instead of by a regular expression.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class GlobPattern
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code GlobPattern} from a rule.
+	 *
+	 * @param rule the rule, which must not be blank or a comment (see
+	 *     {@link #isRule(String)})
+	 */
+	public GlobPattern(String rule)
+	{
+		String glob = rule.trim();
+
+		if (glob.startsWith("!")) //$NON-NLS-1$
+		{
+			negated = true;
+			glob = glob.substring(1);
+		}
+		else if (glob.startsWith("\\")) //$NON-NLS-1$
+		{
+			glob = glob.substring(1);
+		}
+
+		if (glob.endsWith("/")) //$NON-NLS-1$
+		{
+			folderOnly = true;
+			glob = glob.substring(0, glob.length() - 1);
+		}
+
+		anchored = glob.indexOf('/') >= 0;
+
+		if (glob.startsWith("/")) //$NON-NLS-1$
+		{
+			glob = glob.substring(1);
+		}
+
+		if (!anchored && !hasWildcards(glob))
+		{
+			literal = glob;
+		}
+		else if (!anchored && glob.startsWith("*") //$NON-NLS-1$
+				&& !hasWildcards(glob.substring(1)))
+		{
+			suffix = glob.substring(1);
+		}
+		else
+		{
+			pattern = Pattern.compile(toRegex(glob));
+		}
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a line from a {@code .gitignore} file
+	 * is a rule, rather than a blank line or a comment.
+	 *
+	 * @param line the line
+	 * @return true if the line is a rule
+	 */
+	public static boolean isRule(String line)
+	{
+		String trimmed = line.trim();
+		return trimmed.length() > 0 && !trimmed.startsWith("#") //$NON-NLS-1$
+			&& !trimmed.equals("!") && !trimmed.equals("/"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the rule includes what earlier rules
+	 * excluded.
+	 *
+	 * @return true if the rule began with {@code !}
+	 */
+	public boolean isNegated()
+	{
+		return negated;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the rule is matched against the whole
+	 * path of a resource rather than just its name.
+	 *
+	 * @return true if the rule contained a slash anywhere but at its end
+	 */
+	public boolean isAnchored()
+	{
+		return anchored;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the rule matches a resource.
+	 *
+	 * @param path the path of the resource, relative to the directory that
+	 *     the rule applies to, with segments separated by slashes; it is
+	 *     only used if the rule is anchored (see {@link #isAnchored()})
+	 * @param name the name of the resource (the last segment of the path)
+	 * @param folder true if the resource is a folder
+	 * @return true if the rule matches the resource
+	 */
+	public boolean matches(String path, String name, boolean folder)
+	{
+		if (folderOnly && !folder)
+		{
+			return false;
+		}
+		else if (literal != null)
+		{
+			return literal.equals(name);
+		}
+		else if (suffix != null)
+		{
+			return name.endsWith(suffix);
+		}
+		else
+		{
+			return pattern.matcher(anchored ? path : name).matches();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static boolean hasWildcards(String glob)
+	{
+		for (int i = 0; i < glob.length(); i++)
+		{
+			switch (glob.charAt(i))
+			{
+				case '*':
+				case '?':
+				case '[':
+				case '\\':
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Translates a glob into a regular expression.
+	 */
+	private static String toRegex(String glob)
+	{
+		StringBuffer regex = new StringBuffer();
+		int length = glob.length();
+		int i = 0;
+
+		while (i < length)
+		{
+			char ch = glob.charAt(i);
+
+			if (glob.startsWith("**", i)) //$NON-NLS-1$
+			{
+				boolean atStart = (i == 0 || glob.charAt(i - 1) == '/');
+				i += 2;
+
+				if (atStart && i < length && glob.charAt(i) == '/')
+				{
+					// "**/" matches any number of whole segments, even none.
+
+					regex.append("(?:.*/)?"); //$NON-NLS-1$
+					i++;
+				}
+				else
+				{
+					regex.append(".*"); //$NON-NLS-1$
+				}
+			}
+			else if (ch == '*')
+			{
+				regex.append("[^/]*"); //$NON-NLS-1$
+				i++;
+			}
+			else if (ch == '?')
+			{
+				regex.append("[^/]"); //$NON-NLS-1$
+				i++;
+			}
+			else if (ch == '[' && glob.indexOf(']', i + 2) > 0)
+			{
+				int end = glob.indexOf(']', i + 2);
+				String set = glob.substring(i + 1, end);
+
+				if (set.startsWith("!")) //$NON-NLS-1$
+				{
+					set = "^" + set.substring(1); //$NON-NLS-1$
+				}
+
+				regex.append('[').append(set.replace("\\", "\\\\")) //$NON-NLS-1$ //$NON-NLS-2$
+					.append(']');
+				i = end + 1;
+			}
+			else
+			{
+				if (ch == '\\' && i + 1 < length)
+				{
+					ch = glob.charAt(++i);
+				}
+
+				appendLiteral(regex, ch);
+				i++;
+			}
+		}
+
+		return regex.toString();
+	}
+
+
+	// ----------------------------------------------------------
+	private static void appendLiteral(StringBuffer regex, char ch)
+	{
+		if (!Character.isLetterOrDigit(ch))
+		{
+			regex.append('\\');
+		}
+
+		regex.append(ch);
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* Indicates whether the rule includes what earlier rules excluded. */
+	private boolean negated;
+
+	/* Indicates whether the rule only matches folders. */
+	private boolean folderOnly;
+
+	/* Indicates whether the rule is matched against the whole path. */
+	private boolean anchored;
+
+	/* The name that the rule matches, if it is a plain name. */
+	private String literal;
+
+	/* The ending that the rule matches, if it is "*" and a plain ending. */
+	private String suffix;
+
+	/* The rule as a regular expression, for all other rules. */
+	private Pattern pattern;
+}
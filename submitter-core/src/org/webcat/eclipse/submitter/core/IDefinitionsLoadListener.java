@@ -0,0 +1,78 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.net.URL;
+
+//--------------------------------------------------------------------------
+/**
+ * Receives progress from the loads of the submission targets started by
+ * {@link SubmissionTargetsManager#loadDefinitions(IDefinitionsLoadListener)}.
+ * <p>
+ * Each definitions URL is loaded separately. For each one, the outlines of
+ * its top-level targets are reported while the definitions are still being
+ * read, followed by exactly one call to either
+ * {@link #definitionsLoaded(DefinitionsSource)} or
+ * {@link #definitionsFailed(URL, Throwable)}. If there is a snapshot of the
+ * targets, the outlines of all of the top-level targets in it are reported
+ * at once, before the definitions are read. The methods may be called from
+ * any thread, including a background one.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public interface IDefinitionsLoadListener
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Called when a top-level target from one of the definitions URLs,
+	 * including all of its children, has been read.
+	 *
+	 * @param url the definitions URL that the target came from
+	 * @param outline the outline of the target
+	 */
+	void outlineRead(URL url, TargetOutline outline);
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called when the submission targets from one of the definitions URLs
+	 * have been loaded.
+	 *
+	 * @param source the loaded targets
+	 */
+	void definitionsLoaded(DefinitionsSource source);
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called when the submission targets from one of the definitions URLs
+	 * could not be loaded.
+	 *
+	 * @param url the definitions URL that could not be loaded
+	 * @param error the exception thrown while loading the targets
+	 */
+	void definitionsFailed(URL url, Throwable error);
+}
@@ -0,0 +1,51 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+//--------------------------------------------------------------------------
+/**
+ * Receives the submission targets that are loaded by the background refresh
+ * of {@link SubmissionTargetsManager} when the definitions that they came
+ * from change, so that a tree that is displaying the old targets can be
+ * updated. The method may be called from any thread, including a
+ * background one.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public interface IDefinitionsRefreshListener
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Called when the submission targets from one of the definitions URLs
+	 * have been replaced by ones loaded from changed definitions.
+	 *
+	 * @param oldSource the targets that were replaced
+	 * @param newSource the targets that replaced them
+	 */
+	void definitionsRefreshed(DefinitionsSource oldSource,
+			DefinitionsSource newSource);
+}
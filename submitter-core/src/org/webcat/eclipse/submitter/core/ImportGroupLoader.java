@@ -0,0 +1,572 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.webcat.submitter.SubmissionTargetException;
+import org.webcat.submitter.targets.ImportGroupTarget;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * Loads all of the imported groups at the top level of a submission target
+ * tree, fetching their documents concurrently instead of one after another
+ * as the engine would if they were expanded in order.
+ * <p>
+ * The "top level" is the set of targets that are displayed as siblings
+ * under the root: its children, plus the children of any non-nested
+ * containers among them. Those containers include non-nested imported
+ * groups, so the groups that their documents import in turn are at the top
+ * level too; they are found, fetched, and loaded in another round once the
+ * groups that import them have been loaded, and so on until there are no
+ * more.
+ * <p>
+ * The engine's targets are not safe to use from more than one thread at a
+ * time, so only the network traffic is done concurrently. In each round,
+ * the documents of the unloaded groups are fetched into the
+ * {@link DefinitionsCache} by a pool of threads that never touch the tree.
+ * Once they have all finished, the groups are loaded one at a time on the
+ * calling thread, each from the copy that was just fetched. A group whose
+ * document could not be fetched (matched up with it by URL) is not loaded,
+ * so a fetch that fails or times out leaves nothing behind in the tree and
+ * the engine does not wait on the same server again. Each fetch has its own
+ * timeout, which starts when the fetch starts rather than when it is
+ * queued.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class ImportGroupLoader
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ImportGroupLoader} with the default pool size
+	 * and timeout.
+	 */
+	public ImportGroupLoader()
+	{
+		this(DEFAULT_POOL_SIZE, DEFAULT_TIMEOUT);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ImportGroupLoader} with the default pool size
+	 * and timeout, which fetches documents into the specified cache instead
+	 * of the plug-in's. This is for use outside of the workbench (for
+	 * example, by the benchmarks), where the plug-in is not running.
+	 *
+	 * @param cache the cache to fetch the documents into; it must be
+	 *     installed, and the loader must be used inside one of its cached
+	 *     fetches
+	 */
+	public ImportGroupLoader(DefinitionsCache cache)
+	{
+		this(DEFAULT_POOL_SIZE, DEFAULT_TIMEOUT);
+
+		this.cache = cache;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ImportGroupLoader}.
+	 *
+	 * @param poolSize the maximum number of imported groups that will be
+	 *     fetched at the same time
+	 * @param timeout the maximum amount of time that the fetch of any one
+	 *     imported group can take once it has started, in milliseconds
+	 */
+	public ImportGroupLoader(int poolSize, long timeout)
+	{
+		this.poolSize = poolSize;
+		this.timeout = timeout;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the imported groups at the level below the specified container
+	 * that have not been loaded yet, along with the URL of the document that
+	 * each one imports.
+	 *
+	 * @param url the URL of the document that the container was read from
+	 * @param container the container whose level should be searched
+	 * @return a map from each unloaded imported group to the URL of its
+	 *     document, in the order in which the groups were declared
+	 */
+	public Map<SubmissionTarget, URL> findUnloadedImports(URL url,
+			SubmissionTarget container)
+	{
+		Map<SubmissionTarget, URL> imports =
+			new LinkedHashMap<SubmissionTarget, URL>();
+		collectUnloadedImports(url, container, imports);
+		return imports;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Loads every imported group at the top level of a target tree. Groups
+	 * that fail to load, or whose documents take longer than the timeout to
+	 * fetch, are left unloaded so that they can be tried again later; the
+	 * errors are returned rather than thrown so that one bad import does not
+	 * prevent the others from being used.
+	 * <p>
+	 * The documents are only fetched ahead of time if this is called inside
+	 * a cached fetch (see {@link DefinitionsCache#beginCachedFetch()}).
+	 * The tree is only used on the calling thread, which must be the only
+	 * thread using it while this runs (for example, because the tree has not
+	 * been handed out yet).
+	 *
+	 * @param url the URL of the definitions document that the tree was read
+	 *     from
+	 * @param root the root of the tree
+	 * @param monitor the progress monitor used to report progress and check
+	 *     for cancellation
+	 * @return a map from each imported group that could not be loaded to the
+	 *     error that occurred, in declaration order; empty if all of them
+	 *     loaded successfully
+	 */
+	public Map<SubmissionTarget, Throwable> loadImports(URL url,
+			SubmissionTarget root, IProgressMonitor monitor)
+	{
+		Map<SubmissionTarget, Throwable> errors =
+			new LinkedHashMap<SubmissionTarget, Throwable>();
+
+		monitor.beginTask("Loading imported submission targets",
+				IProgressMonitor.UNKNOWN);
+
+		try
+		{
+			while (!monitor.isCanceled())
+			{
+				// Groups that failed in an earlier round are still unloaded,
+				// but they are not tried again.
+
+				Map<SubmissionTarget, URL> imports =
+					findUnloadedImports(url, root);
+				imports.keySet().removeAll(errors.keySet());
+
+				if (imports.isEmpty())
+				{
+					break;
+				}
+
+				Map<String, Throwable> fetchErrors =
+					fetchImports(imports.values(), monitor);
+
+				for (Map.Entry<SubmissionTarget, URL> entry
+						: imports.entrySet())
+				{
+					if (monitor.isCanceled())
+					{
+						break;
+					}
+
+					SubmissionTarget group = entry.getKey();
+					Throwable error =
+						fetchErrors.get(entry.getValue().toString());
+
+					if (error == null)
+					{
+						try
+						{
+							group.getLogicalChildren();
+
+							if (!group.isLoaded())
+							{
+								error = new IOException("The imported group "
+										+ entry.getValue()
+										+ " could not be loaded");
+							}
+						}
+						catch (Throwable e)
+						{
+							error = e;
+						}
+					}
+
+					if (error != null)
+					{
+						errors.put(group, error);
+					}
+
+					monitor.worked(1);
+				}
+			}
+		}
+		finally
+		{
+			monitor.done();
+		}
+
+		return errors;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Fetches the specified documents into the cache, concurrently.
+	 *
+	 * @param urls the URLs of the documents
+	 * @param monitor the progress monitor
+	 * @return a map from the URL of each document that could not be fetched
+	 *     to the error that occurred; empty if they were all fetched, or if
+	 *     they could not be fetched ahead of time at all (in which case the
+	 *     engine fetches them itself)
+	 */
+	private Map<String, Throwable> fetchImports(Collection<URL> urls,
+			IProgressMonitor monitor)
+	{
+		Map<String, Throwable> fetchErrors = new HashMap<String, Throwable>();
+
+		// The plug-in is not running when the loader is used outside of the
+		// workbench without a cache of its own, in which case there is no
+		// cache to fetch the documents into.
+
+		DefinitionsCache cache = this.cache;
+
+		if (cache == null)
+		{
+			SubmitterCore plugin = SubmitterCore.getDefault();
+			cache = (plugin != null) ? plugin.getDefinitionsCache() : null;
+		}
+
+		DefinitionsCache.FetchScope scope =
+			(cache != null) ? cache.getCurrentScope() : null;
+
+		// The same document may be imported more than once.
+
+		Set<URL> hrefs = new LinkedHashSet<URL>(urls);
+
+		if (scope == null || hrefs.isEmpty())
+		{
+			return fetchErrors;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(
+				Math.min(poolSize, hrefs.size()), threadFactory);
+
+		try
+		{
+			List<FetchTask> tasks = new ArrayList<FetchTask>();
+			List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+			for (URL href : hrefs)
+			{
+				FetchTask task = new FetchTask(cache, scope, href);
+				tasks.add(task);
+				futures.add(pool.submit(task));
+			}
+
+			for (int i = 0; i < tasks.size(); i++)
+			{
+				Throwable error = null;
+
+				try
+				{
+					waitFor(tasks.get(i), futures.get(i), monitor);
+				}
+				catch (ExecutionException e)
+				{
+					error = e.getCause();
+				}
+				catch (TimeoutException e)
+				{
+					error = e;
+				}
+				catch (InterruptedException e)
+				{
+					error = e;
+				}
+
+				if (error != null)
+				{
+					// The task only writes to the cache, so it can safely
+					// be abandoned if it does not stop right away.
+
+					futures.get(i).cancel(true);
+					fetchErrors.put(tasks.get(i).getURL().toString(), error);
+				}
+			}
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+
+		return fetchErrors;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Waits for a fetch to finish, for no longer than the timeout measured
+	 * from when the fetch started.
+	 *
+	 * @param task the fetch
+	 * @param future the future of the fetch
+	 * @param monitor the progress monitor, checked for cancellation
+	 * @throws ExecutionException if the fetch failed
+	 * @throws TimeoutException if the fetch took longer than the timeout
+	 * @throws InterruptedException if the calling thread was interrupted, or
+	 *     the monitor was canceled
+	 */
+	private void waitFor(FetchTask task, Future<Object> future,
+			IProgressMonitor monitor)
+	throws ExecutionException, TimeoutException, InterruptedException
+	{
+		while (true)
+		{
+			if (monitor.isCanceled())
+			{
+				throw new InterruptedException();
+			}
+
+			long wait = POLL_INTERVAL;
+			long started = task.getStartTime();
+
+			if (started != 0)
+			{
+				long remaining =
+					started + timeout - System.currentTimeMillis();
+
+				if (remaining <= 0)
+				{
+					throw new TimeoutException();
+				}
+
+				wait = Math.min(wait, remaining);
+			}
+
+			try
+			{
+				future.get(wait, TimeUnit.MILLISECONDS);
+				return;
+			}
+			catch (TimeoutException e)
+			{
+				// Check the monitor and the timeout again.
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private void collectUnloadedImports(URL url, SubmissionTarget container,
+			Map<SubmissionTarget, URL> imports)
+	{
+		if (!container.isLoaded())
+		{
+			return;
+		}
+
+		try
+		{
+			for (SubmissionTarget child : container.getLogicalChildren())
+			{
+				if (child instanceof ImportGroupTarget)
+				{
+					// The engine resolves the URL of an imported group
+					// against the document that it was declared in.
+
+					URL href;
+
+					try
+					{
+						href = new URL(url,
+								((ImportGroupTarget) child).getHref());
+					}
+					catch (MalformedURLException e)
+					{
+						// The engine will report the bad URL when the group
+						// is expanded.
+
+						continue;
+					}
+
+					if (!child.isLoaded())
+					{
+						imports.put(child, href);
+					}
+					else if (!child.isNested())
+					{
+						collectUnloadedImports(href, child, imports);
+					}
+				}
+				else if (child.isContainer() && !child.isNested())
+				{
+					collectUnloadedImports(url, child, imports);
+				}
+			}
+		}
+		catch (SubmissionTargetException e)
+		{
+			// The container itself is broken; there is nothing to load.
+		}
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Fetches the document of a single imported group into the definitions
+	 * cache, as part of the calling thread's cached fetch. It never touches
+	 * the target tree.
+	 */
+	private static class FetchTask implements Callable<Object>
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public FetchTask(DefinitionsCache cache,
+				DefinitionsCache.FetchScope scope, URL url)
+		{
+			this.cache = cache;
+			this.scope = scope;
+			this.url = url;
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public Object call() throws Exception
+		{
+			startTime = System.currentTimeMillis();
+
+			cache.beginCachedFetch(scope);
+
+			try
+			{
+				cache.prefetch(url.toURI());
+				return null;
+			}
+			finally
+			{
+				cache.endCachedFetch();
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Gets the URL of the document being fetched.
+		 *
+		 * @return the URL of the document
+		 */
+		public URL getURL()
+		{
+			return url;
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Gets the time at which the fetch started.
+		 *
+		 * @return the time, in milliseconds, or 0 if it has not started
+		 */
+		public long getStartTime()
+		{
+			return startTime;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The cache to fetch the document into. */
+		private DefinitionsCache cache;
+
+		/* The cached fetch that the task takes part in. */
+		private DefinitionsCache.FetchScope scope;
+
+		/* The URL of the document. */
+		private URL url;
+
+		/* The time at which the fetch started, or 0. */
+		private volatile long startTime;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The default maximum number of concurrent fetches. */
+	private static final int DEFAULT_POOL_SIZE = 4;
+
+	/* The default time that a fetch can take, in milliseconds. */
+	private static final long DEFAULT_TIMEOUT = 30000;
+
+	/* How often the monitor is checked for cancellation while waiting for a
+	   fetch, in milliseconds. */
+	private static final long POLL_INTERVAL = 250;
+
+	/* The cache to fetch the documents into, or null to use the
+	   plug-in's. */
+	private DefinitionsCache cache;
+
+	/* The maximum number of concurrent fetches. */
+	private int poolSize;
+
+	/* The time that a fetch can take once it has started, in
+	   milliseconds. */
+	private long timeout;
+
+	/* Creates daemon threads, so that a hung server cannot keep the
+	   workbench from exiting. */
+	private ThreadFactory threadFactory = new ThreadFactory() {
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable,
+					"Web-CAT imported group loader"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+}
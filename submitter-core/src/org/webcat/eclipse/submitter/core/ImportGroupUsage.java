@@ -0,0 +1,554 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.webcat.submitter.targets.ImportGroupTarget;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * Keeps track of the imported groups that the user opens in the submission
+ * wizard and submits to, so that the ones they are likely to need again can
+ * be loaded in the background before they ask for them.
+ * <p>
+ * Each group is identified by its {@link TargetPath} and given a score that
+ * goes up each time the group is opened, and more when an assignment in it
+ * is submitted to. All of the scores decay a little each time one is
+ * recorded, so groups that the user has stopped using (such as last term's
+ * course) fade away. The scores are kept in a small file under the
+ * plug-in's state location, so they carry over from one session to the
+ * next. Uses are recorded on the UI thread, so the file is written a little
+ * later by a background job (and when the plug-in stops), not each time a
+ * use is recorded.
+ * <p>
+ * Prefetching is deliberately conservative: only the few groups with the
+ * highest scores, and only groups that have been used more than once, are
+ * loaded, and there is a cap on the number of documents that are fetched
+ * for each definitions URL, so branches that the user does not use are never
+ * downloaded.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class ImportGroupUsage
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ImportGroupUsage} that keeps its scores in the
+	 * specified file.
+	 *
+	 * @param file the file in which the scores are kept
+	 */
+	public ImportGroupUsage(File file)
+	{
+		this.file = file;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Records that the user opened an imported group in the wizard.
+	 *
+	 * @param source the targets that the group belongs to
+	 * @param group the group
+	 */
+	public void recordOpened(DefinitionsSource source, SubmissionTarget group)
+	{
+		record(source, group, OPEN_WEIGHT);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Records that the user submitted to an assignment, which counts as a
+	 * use of each of the imported groups that contain it.
+	 *
+	 * @param source the targets that the assignment belongs to
+	 * @param assignment the assignment
+	 */
+	public void recordSubmitted(DefinitionsSource source,
+			SubmissionTarget assignment)
+	{
+		for (SubmissionTarget t = assignment.parent(); t != null;
+				t = t.parent())
+		{
+			record(source, t, SUBMIT_WEIGHT);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Loads the imported groups from a set of targets that the user is most
+	 * likely to open, if they have not been loaded already. This may take a
+	 * while, so it should be called from a background job.
+	 *
+	 * @param source the targets
+	 * @param monitor the progress monitor
+	 * @return the number of groups that were loaded
+	 */
+	public int prefetch(DefinitionsSource source, IProgressMonitor monitor)
+	{
+		int budget = MAX_PREFETCHED_GROUPS;
+		int loaded = 0;
+
+		DefinitionsCache cache =
+			SubmitterCore.getDefault().getDefinitionsCache();
+
+		cache.beginCachedFetch();
+
+		try
+		{
+			for (TargetPath path : getLikelyGroups(
+					source.getURL().toString(), MAX_PREFETCHED_PATHS))
+			{
+				// Load the groups on the way to this one, one level at a time,
+				// until it is reached or the budget runs out.
+
+				while (budget > 0 && !monitor.isCanceled())
+				{
+					List<SubmissionTarget> unloaded =
+						new ArrayList<SubmissionTarget>();
+					SubmissionTarget group =
+						path.resolve(source.getRoot(), unloaded);
+
+					if (group != null)
+					{
+						if (!group.isLoaded())
+						{
+							unloaded.add(group);
+						}
+						else
+						{
+							break;
+						}
+					}
+
+					if (unloaded.isEmpty())
+					{
+						// The group is gone from the definitions.
+
+						break;
+					}
+
+					for (SubmissionTarget target : unloaded)
+					{
+						if (budget > 0 && load(source, target))
+						{
+							loaded++;
+						}
+
+						budget--;
+					}
+
+					if (group != null)
+					{
+						break;
+					}
+				}
+			}
+		}
+		finally
+		{
+			cache.endCachedFetch();
+		}
+
+		return loaded;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Loads an imported group while holding the load lock of its targets, so
+	 * that the wizard, if it asks for the same group at the same time, waits
+	 * for this load instead of starting a second one.
+	 *
+	 * @param source the targets that the group belongs to
+	 * @param group the group
+	 * @return true if the group was loaded successfully
+	 */
+	private static boolean load(DefinitionsSource source,
+			SubmissionTarget group)
+	{
+		try
+		{
+			synchronized (source.getLoadLock())
+			{
+				group.getLogicalChildren();
+			}
+
+			return true;
+		}
+		catch (Exception e)
+		{
+			// The wizard will report the problem if the user opens the
+			// group.
+
+			return false;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the paths of the imported groups from a definitions URL that have
+	 * been used the most.
+	 *
+	 * @param url the definitions URL
+	 * @param limit the maximum number of paths to return
+	 * @return the paths, best first
+	 */
+	private synchronized List<TargetPath> getLikelyGroups(String url,
+			int limit)
+	{
+		final Map<String, Double> scores = getScores();
+		List<String> keys = new ArrayList<String>();
+
+		for (Map.Entry<String, Double> entry : scores.entrySet())
+		{
+			if (entry.getValue() >= MIN_PREFETCH_SCORE)
+			{
+				keys.add(entry.getKey());
+			}
+		}
+
+		Collections.sort(keys, new Comparator<String>() {
+			public int compare(String key1, String key2)
+			{
+				return scores.get(key2).compareTo(scores.get(key1));
+			}
+		});
+
+		List<TargetPath> paths = new ArrayList<TargetPath>();
+
+		for (String key : keys)
+		{
+			TargetPath path = TargetPath.parse(key);
+
+			if (path != null && path.getDefinitionsURL().equals(url))
+			{
+				paths.add(path);
+
+				if (paths.size() == limit)
+				{
+					break;
+				}
+			}
+		}
+
+		return paths;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds to the score of an imported group, if the target is one that can
+	 * be found again by its path, and schedules the scores to be saved.
+	 */
+	private synchronized void record(DefinitionsSource source,
+			SubmissionTarget target, double weight)
+	{
+		if (!(target instanceof ImportGroupTarget) || !target.isNested())
+		{
+			return;
+		}
+
+		TargetPath path = TargetPath.of(source, target);
+
+		if (path == null)
+		{
+			return;
+		}
+
+		Map<String, Double> scores = getScores();
+
+		for (Map.Entry<String, Double> entry : scores.entrySet())
+		{
+			entry.setValue(entry.getValue() * DECAY);
+		}
+
+		String key = path.toString();
+		Double score = scores.get(key);
+		scores.put(key, ((score != null) ? score : 0) + weight);
+
+		prune(scores);
+
+		dirty = true;
+		saveJob.schedule(SAVE_DELAY);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Saves the scores right away if they have changed since they were last
+	 * saved. This is called when the plug-in stops.
+	 */
+	public void flush()
+	{
+		saveJob.cancel();
+		saveIfDirty();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Saves the scores if they have changed since they were last saved. The
+	 * scores are copied under the lock, but written without it, so that
+	 * recording a use never waits on the disk.
+	 */
+	private void saveIfDirty()
+	{
+		Map<String, Double> scoresToSave;
+
+		synchronized (this)
+		{
+			if (!dirty)
+			{
+				return;
+			}
+
+			dirty = false;
+			scoresToSave = new HashMap<String, Double>(scores);
+		}
+
+		synchronized (file)
+		{
+			save(scoresToSave);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Drops the scores that have decayed to almost nothing, and the lowest
+	 * ones if there are too many, so that the file stays small.
+	 */
+	private static void prune(final Map<String, Double> scores)
+	{
+		List<String> keys = new ArrayList<String>(scores.keySet());
+
+		Collections.sort(keys, new Comparator<String>() {
+			public int compare(String key1, String key2)
+			{
+				return scores.get(key2).compareTo(scores.get(key1));
+			}
+		});
+
+		for (int i = 0; i < keys.size(); i++)
+		{
+			String key = keys.get(i);
+
+			if (i >= MAX_ENTRIES || scores.get(key) < MIN_SCORE)
+			{
+				scores.remove(key);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the scores, reading them from the file the first time.
+	 */
+	private Map<String, Double> getScores()
+	{
+		if (scores == null)
+		{
+			scores = new HashMap<String, Double>();
+			Properties properties = new Properties();
+
+			try
+			{
+				InputStream stream = new FileInputStream(file);
+
+				try
+				{
+					properties.load(stream);
+				}
+				finally
+				{
+					stream.close();
+				}
+			}
+			catch (IOException e)
+			{
+				// Start over with no scores.
+			}
+
+			for (Map.Entry<Object, Object> entry : properties.entrySet())
+			{
+				try
+				{
+					scores.put((String) entry.getKey(),
+							Double.valueOf((String) entry.getValue()));
+				}
+				catch (NumberFormatException e)
+				{
+					// Skip the damaged entry.
+				}
+			}
+		}
+
+		return scores;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes the scores to the file.
+	 */
+	private void save(Map<String, Double> scores)
+	{
+		Properties properties = new Properties();
+
+		for (Map.Entry<String, Double> entry : scores.entrySet())
+		{
+			properties.setProperty(entry.getKey(),
+					entry.getValue().toString());
+		}
+
+		try
+		{
+			OutputStream stream = new FileOutputStream(file);
+
+			try
+			{
+				properties.store(stream, null);
+			}
+			finally
+			{
+				stream.close();
+			}
+		}
+		catch (IOException e)
+		{
+			SubmitterCore.log("Could not save the imported group usage", e);
+		}
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * The job that saves the scores after uses have been recorded.
+	 */
+	private class SaveJob extends Job
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public SaveJob()
+		{
+			super("Saving imported group usage");
+
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		protected IStatus run(IProgressMonitor monitor)
+		{
+			saveIfDirty();
+			return Status.OK_STATUS;
+		}
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The amount added to a group's score when it is opened. */
+	private static final double OPEN_WEIGHT = 1.0;
+
+	/* The amount added to a group's score when an assignment in it is
+	   submitted to. */
+	private static final double SUBMIT_WEIGHT = 2.0;
+
+	/* The factor by which every score is multiplied when a use is
+	   recorded. */
+	private static final double DECAY = 0.95;
+
+	/* The score below which a group is forgotten. */
+	private static final double MIN_SCORE = 0.1;
+
+	/* The score that a group needs before it is prefetched; a group that
+	   has only been opened once is not worth downloading speculatively. */
+	private static final double MIN_PREFETCH_SCORE = 1.5;
+
+	/* The largest number of groups whose scores are kept. */
+	private static final int MAX_ENTRIES = 100;
+
+	/* The largest number of groups that are prefetched for each definitions
+	   URL. */
+	private static final int MAX_PREFETCHED_PATHS = 3;
+
+	/* The largest number of imported documents that are fetched for each
+	   definitions URL, including the groups on the way to the ones being
+	   prefetched. */
+	private static final int MAX_PREFETCHED_GROUPS = 5;
+
+	/* How long to wait after a use is recorded before saving the scores,
+	   so that several uses in a row are saved together, in
+	   milliseconds. */
+	private static final long SAVE_DELAY = 5000;
+
+	/* The file in which the scores are kept. Writes to it are serialized
+	   on the file object itself. */
+	private final File file;
+
+	/* Set when the scores have changed since they were last saved. */
+	private boolean dirty;
+
+	/* Saves the scores in the background. */
+	private final Job saveJob = new SaveJob();
+
+	/* The score of each group, keyed by the string form of its path, or
+	   null if they have not been read from the file yet. */
+	private Map<String, Double> scores;
+}
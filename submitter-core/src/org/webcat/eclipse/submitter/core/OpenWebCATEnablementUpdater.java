@@ -8,5 +8,10 @@ public class OpenWebCATEnablementUpdater implements IStartup
 	public void earlyStartup()
 	{
 		SubmitterCore.getDefault().updateOpenWebCATEnablement();
+
+		// Start loading the submission targets now, so that the wizard does
+		// not have to wait for them the first time it is opened.
+
+		SubmitterCore.getDefault().getSubmissionTargetsManager().prefetch();
 	}
 }
@@ -0,0 +1,1350 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.webcat.submitter.ISubmittableItem;
+
+//--------------------------------------------------------------------------
+/**
+ * Keeps an index of the files in each project that has been submitted, so
+ * that the next submission of the project does not have to walk the whole
+ * project again to find out what to package.
+ * <p>
+ * The index of a project is a trie of path segments: each folder holds its
+ * children in an array sorted by name, and each file records its size and
+ * modification stamp. It is built the first time the project is submitted,
+ * or ahead of time by an {@link IndexJob} (see {@link #schedule(IProject)}),
+ * and from then on it is kept up to date by a resource change listener,
+ * which applies each delta to the part of the trie that it touches. The
+ * {@link SubmittableEclipseResource}s that are handed to the packager are
+ * kept in the trie as well, so a later submission only creates items for
+ * the files that have been added since, and only rebuilds the lists of
+ * children of the folders that contain a change; everything else is reused
+ * as is. The resources that the project's {@link ResourceFilter} excludes
+ * are never put in the trie.
+ * <p>
+ * A project is indexed without holding the index's lock, so that the
+ * resource deltas for other projects are applied in the meantime. If
+ * anything that the index holds changes in the project while it is being
+ * indexed, it is indexed again; changes that the filter excludes, such as
+ * the build output written during an auto-build, are ignored. For the same
+ * reason, a folder that is added to an indexed project (for example, by
+ * importing or copying a tree of files) is not traversed by the resource
+ * change listener. Its node is marked as stale instead, and an
+ * {@link IndexJob} traverses it later, before the project's items are
+ * used again.
+ * <p>
+ * The indexes are saved in the plug-in's state location whenever the
+ * workspace is saved. When the workspace is opened again, the changes made
+ * in the meantime are replayed from the saved state, so the indexes do not
+ * have to be rebuilt; if there is no saved state, such as after a crash,
+ * they are thrown away and built again when they are next needed.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class ProjectManifestIndex
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ProjectManifestIndex} that is saved in the
+	 * specified file. The index does nothing until {@link #start()} is
+	 * called.
+	 *
+	 * @param file the file in which the index is saved
+	 */
+	public ProjectManifestIndex(File file)
+	{
+		this.file = file;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts keeping the index up to date: reads the index that was saved
+	 * with the workspace, catches up with the changes made since then, and
+	 * starts listening for changes.
+	 *
+	 * @throws CoreException if the index could not take part in workspace
+	 *     saves
+	 */
+	public void start() throws CoreException
+	{
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+
+		ISavedState savedState = workspace.addSaveParticipant(
+				SubmitterCore.getDefault(), saveParticipant);
+
+		if (savedState != null)
+		{
+			read();
+			savedState.processResourceChangeEvents(changeListener);
+		}
+		else
+		{
+			// Without the saved state, the changes made since the index was
+			// saved cannot be known.
+
+			file.delete();
+		}
+
+		workspace.addResourceChangeListener(changeListener,
+				IResourceChangeEvent.POST_CHANGE);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Stops keeping the index up to date.
+	 */
+	public void stop()
+	{
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+
+		workspace.removeResourceChangeListener(changeListener);
+		workspace.removeSaveParticipant(SubmitterCore.getDefault());
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the submittable items for the members of a project, with the
+	 * whole tree beneath them. The project is indexed first if it has not
+	 * been already, which can take a while for a large project, so this
+	 * should not be called from the UI thread.
+	 *
+	 * @param project the project
+	 * @param monitor the progress monitor for indexing the project
+	 * @return the items for the members of the project
+	 * @throws CoreException if the project could not be indexed
+	 * @throws OperationCanceledException if the monitor was canceled
+	 */
+	public ISubmittableItem[] getItems(IProject project,
+			IProgressMonitor monitor) throws CoreException
+	{
+		String name = project.getName();
+
+		while (true)
+		{
+			ResourceFilter filter;
+			long changeCount;
+			Node root;
+			List<String> stalePaths;
+
+			synchronized (this)
+			{
+				root = projects.get(name);
+				stalePaths = staleFolders.get(name);
+
+				if (root != null && stalePaths == null)
+				{
+					return getChildItems(project, root, null);
+				}
+
+				filter = getFilter(project);
+				changeCount = getChangeCount(name);
+
+				// Start counting the project's changes, if nobody else is.
+
+				changeCounts.put(name, changeCount);
+
+				if (stalePaths != null)
+				{
+					stalePaths = new ArrayList<String>(stalePaths);
+				}
+			}
+
+			Map<String, Node> folders = null;
+
+			if (root == null)
+			{
+				root = build(project, filter, monitor);
+			}
+			else
+			{
+				folders = buildStaleFolders(project, stalePaths, filter,
+						monitor);
+			}
+
+			synchronized (this)
+			{
+				// If the project changed while it was being traversed, the
+				// trie may have missed the change, so traverse it again.
+
+				if (getChangeCount(name) == changeCount)
+				{
+					if (folders == null)
+					{
+						if (!projects.containsKey(name))
+						{
+							projects.put(name, root);
+						}
+					}
+					else if (projects.get(name) == root)
+					{
+						for (Map.Entry<String, Node> folder
+								: folders.entrySet())
+						{
+							replaceStaleFolder(root, folder.getKey(),
+									folder.getValue());
+						}
+
+						staleFolders.remove(name);
+					}
+
+					if (projects.containsKey(name)
+							&& !staleFolders.containsKey(name))
+					{
+						return getChildItems(project, projects.get(name),
+								null);
+					}
+				}
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the submittable items for the members of a project if the
+	 * project has already been indexed. This never traverses the project,
+	 * so it can be called from the UI thread.
+	 *
+	 * @param project the project
+	 * @return the items for the members of the project, or null if it has
+	 *     not been indexed
+	 */
+	public synchronized ISubmittableItem[] getIndexedItems(IProject project)
+	{
+		Node root = projects.get(project.getName());
+
+		if (root == null || staleFolders.containsKey(project.getName()))
+		{
+			return null;
+		}
+
+		return getChildItems(project, root, null);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts indexing a project in the background, unless it is already
+	 * being indexed. The job shows its progress in the workbench's progress
+	 * view, and finishes at once if the project has already been indexed.
+	 *
+	 * @param project the project
+	 * @return the job that is indexing the project
+	 */
+	public synchronized Job schedule(IProject project)
+	{
+		IndexJob job = indexJobs.get(project.getName());
+
+		if (job == null)
+		{
+			job = new IndexJob(project);
+			indexJobs.put(project.getName(), job);
+			job.schedule();
+		}
+
+		return job;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called by an index job when it has finished.
+	 */
+	private synchronized void indexJobFinished(IndexJob job)
+	{
+		if (indexJobs.get(job.project.getName()) == job)
+		{
+			indexJobs.remove(job.project.getName());
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private long getChangeCount(String name)
+	{
+		Long count = changeCounts.get(name);
+		return (count != null) ? count : 0;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Traverses the folders of a project that have been marked as stale.
+	 *
+	 * @param project the project
+	 * @param paths the paths of the stale folders, relative to the project
+	 * @param filter the filter for the project
+	 * @param monitor the progress monitor
+	 * @return a map from the path of each stale folder to its new node, or
+	 *     to null if the folder no longer exists
+	 * @throws CoreException if a folder could not be traversed
+	 * @throws OperationCanceledException if the monitor was canceled
+	 */
+	private static Map<String, Node> buildStaleFolders(IProject project,
+			List<String> paths, ResourceFilter filter,
+			IProgressMonitor monitor) throws CoreException
+	{
+		Map<String, Node> folders = new HashMap<String, Node>();
+
+		monitor.beginTask("Indexing " + project.getName(), paths.size());
+
+		try
+		{
+			for (String path : paths)
+			{
+				IResource folder = project.getFolder(path);
+
+				folders.put(path, folder.exists()
+						? build(folder, filter,
+								new SubProgressMonitor(monitor, 1))
+						: null);
+			}
+		}
+		finally
+		{
+			monitor.done();
+		}
+
+		return folders;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Puts the new node for a stale folder in place of the folder's stale
+	 * node, unless the folder has been removed or replaced again since it
+	 * was traversed. The lists of items of the folders that contain it are
+	 * thrown away.
+	 *
+	 * @param root the root of the project's trie
+	 * @param path the path of the folder, relative to the project
+	 * @param folder the new node, or null if the folder no longer exists
+	 */
+	private static void replaceStaleFolder(Node root, String path,
+			Node folder)
+	{
+		String[] segments = path.split("/"); //$NON-NLS-1$
+		Node parent = root;
+		parent.childItems = null;
+
+		for (int i = 0; i < segments.length - 1; i++)
+		{
+			parent = parent.find(segments[i]);
+
+			if (parent == null || !parent.isFolder())
+			{
+				return;
+			}
+
+			parent.childItems = null;
+		}
+
+		String name = segments[segments.length - 1];
+		Node current = parent.find(name);
+
+		if (current != null && current.stale)
+		{
+			if (folder != null)
+			{
+				parent.put(folder);
+			}
+			else
+			{
+				parent.remove(name);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the items for the children of a folder in the trie, creating
+	 * them if the folder has changed since they were last created.
+	 *
+	 * @param container the folder
+	 * @param node the folder's node
+	 * @param path the path of the folder relative to the project, or null
+	 *     for the project itself
+	 * @return the items for the children
+	 */
+	private static ISubmittableItem[] getChildItems(IContainer container,
+			Node node, String path)
+	{
+		if (node.childItems == null)
+		{
+			ISubmittableItem[] items =
+				new ISubmittableItem[node.children.length];
+
+			for (int i = 0; i < items.length; i++)
+			{
+				items[i] = getItem(container, node.children[i], path);
+			}
+
+			node.childItems = items;
+		}
+
+		return node.childItems;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the item for a node in the trie, creating it if it is new, and
+	 * updating its children if it is a folder that has changed.
+	 *
+	 * @param parent the folder that contains the node's resource
+	 * @param node the node
+	 * @param parentPath the path of the parent relative to the project, or
+	 *     null if the parent is the project itself
+	 * @return the item
+	 */
+	private static SubmittableEclipseResource getItem(IContainer parent,
+			Node node, String parentPath)
+	{
+		if (node.item == null)
+		{
+			IPath segment = new Path(null, node.name);
+			IResource resource = node.isFolder()
+				? parent.getFolder(segment) : parent.getFile(segment);
+			String path = (parentPath != null)
+				? parentPath + "/" + node.name : node.name; //$NON-NLS-1$
+
+			node.item = new SubmittableEclipseResource(resource, path);
+		}
+
+		if (node.isFolder() && node.childItems == null)
+		{
+			node.item.setChildren(getChildItems(
+					(IContainer) node.item.getResource(), node,
+					node.item.getFilename()));
+		}
+
+		return node.item;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the filter for a project, creating it if it has not been already.
+	 *
+	 * @param project the project
+	 * @return the filter
+	 */
+	private ResourceFilter getFilter(IProject project)
+	{
+		ResourceFilter filter = filters.get(project.getName());
+
+		if (filter == null)
+		{
+			filter = ResourceFilter.forProject(project);
+			filters.put(project.getName(), filter);
+		}
+
+		return filter;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Builds the trie beneath a resource, leaving out the resources that
+	 * the filter excludes.
+	 *
+	 * @param resource the resource
+	 * @param filter the filter for the resource's project
+	 * @return the node for the resource
+	 * @throws CoreException if the resource could not be traversed
+	 */
+	private static Node build(IResource resource, ResourceFilter filter)
+	throws CoreException
+	{
+		return build(resource, filter, new NullProgressMonitor());
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Builds the trie beneath a resource, leaving out the resources that
+	 * the filter excludes, and reports each resource that is visited to a
+	 * progress monitor.
+	 *
+	 * @param resource the resource
+	 * @param filter the filter for the resource's project
+	 * @param monitor the progress monitor
+	 * @return the node for the resource
+	 * @throws CoreException if the resource could not be traversed
+	 * @throws OperationCanceledException if the monitor was canceled
+	 */
+	private static Node build(IResource resource, ResourceFilter filter,
+			IProgressMonitor monitor) throws CoreException
+	{
+		monitor.beginTask("Indexing " + resource.getName(),
+				IProgressMonitor.UNKNOWN);
+
+		try
+		{
+			BuildVisitor visitor = new BuildVisitor(
+					resource.getFullPath().segmentCount(),
+					resource.getProjectRelativePath().toString(), filter,
+					monitor);
+			resource.accept(visitor, IResource.NONE);
+			return visitor.getRoot();
+		}
+		finally
+		{
+			monitor.done();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Applies a resource delta to the index of a project.
+	 *
+	 * @param delta the delta for the project
+	 */
+	private synchronized void projectChanged(IResourceDelta delta)
+	{
+		String name = delta.getResource().getName();
+		Node root = projects.get(name);
+
+		if (root == null && !changeCounts.containsKey(name))
+		{
+			// The project has not been submitted, so it is not indexed, and
+			// it is not being indexed either.
+
+			filters.remove(name);
+			return;
+		}
+
+		if (delta.getKind() == IResourceDelta.REMOVED
+				|| (delta.getFlags() & IResourceDelta.OPEN) != 0
+				|| definesFilter(delta))
+		{
+			// The project was deleted, renamed, closed, or reopened, or the
+			// rules for what is left out of it have changed; index it again
+			// if it is submitted.
+
+			changeCounts.put(name, getChangeCount(name) + 1);
+			projects.remove(name);
+			staleFolders.remove(name);
+			filters.remove(name);
+			return;
+		}
+
+		IProject project = (IProject) delta.getResource();
+		ResourceFilter filter = getFilter(project);
+
+		if (!affectsIndex(delta, filter))
+		{
+			return;
+		}
+
+		changeCounts.put(name, getChangeCount(name) + 1);
+
+		if (root == null)
+		{
+			return;
+		}
+
+		List<String> stalePaths = staleFolders.get(name);
+
+		if (stalePaths == null)
+		{
+			stalePaths = new ArrayList<String>();
+		}
+
+		try
+		{
+			apply(root, delta, filter, stalePaths);
+		}
+		catch (CoreException e)
+		{
+			projects.remove(name);
+			staleFolders.remove(name);
+			return;
+		}
+
+		if (!stalePaths.isEmpty())
+		{
+			staleFolders.put(name, stalePaths);
+			schedule(project);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a delta changes anything that the
+	 * index holds: a resource that the filter does not exclude that was
+	 * added, removed, or replaced, or whose contents or type changed.
+	 * Changes to markers alone, and changes beneath excluded folders such
+	 * as the build output, are ignored.
+	 *
+	 * @param delta the delta for a folder or project
+	 * @param filter the filter for the project
+	 * @return true if the delta changes the index
+	 */
+	private static boolean affectsIndex(IResourceDelta delta,
+			ResourceFilter filter)
+	{
+		for (IResourceDelta childDelta : delta.getAffectedChildren())
+		{
+			if (filter.isExcluded(childDelta.getResource()))
+			{
+				continue;
+			}
+
+			if (childDelta.getKind() != IResourceDelta.CHANGED
+					|| (childDelta.getFlags() & (IResourceDelta.CONTENT
+							| IResourceDelta.TYPE
+							| IResourceDelta.REPLACED)) != 0
+					|| affectsIndex(childDelta, filter))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Applies the changes beneath a folder to its node. The lists of items
+	 * are thrown away for every folder that contains a change, so that they
+	 * are created again on the next submission. A folder that was added or
+	 * replaced is not traversed here; it is given a stale node, and its path
+	 * is added to a list so that it can be traversed later.
+	 *
+	 * @param node the folder's node
+	 * @param delta the delta for the folder
+	 * @param filter the filter for the project
+	 * @param stalePaths the list to add the paths of new stale folders to
+	 * @return true if anything beneath the folder changed
+	 * @throws CoreException if a new file could not be read
+	 */
+	private static boolean apply(Node node, IResourceDelta delta,
+			ResourceFilter filter, List<String> stalePaths)
+	throws CoreException
+	{
+		boolean changed = false;
+
+		for (IResourceDelta childDelta : delta.getAffectedChildren())
+		{
+			IResource resource = childDelta.getResource();
+			Node child = node.find(resource.getName());
+
+			if (childDelta.getKind() == IResourceDelta.REMOVED
+					|| filter.isExcluded(resource))
+			{
+				changed |= node.remove(resource.getName());
+			}
+			else if (child == null
+					|| childDelta.getKind() == IResourceDelta.ADDED
+					|| (childDelta.getFlags() & (IResourceDelta.TYPE
+							| IResourceDelta.REPLACED)) != 0)
+			{
+				if (resource.getType() == IResource.FILE)
+				{
+					node.put(build(resource, filter));
+				}
+				else
+				{
+					Node folder = new Node(resource.getName(), true);
+					folder.stale = true;
+					node.put(folder);
+
+					stalePaths.add(
+							resource.getProjectRelativePath().toString());
+				}
+
+				changed = true;
+			}
+			else if (child.isFolder())
+			{
+				// The contents of a stale folder are read when it is
+				// traversed, so the changes inside it do not matter.
+
+				if (!child.stale)
+				{
+					changed |= apply(child, childDelta, filter, stalePaths);
+				}
+			}
+			else if ((childDelta.getFlags() & IResourceDelta.CONTENT) != 0)
+			{
+				child.stamp = resource.getModificationStamp();
+				child.size = getSize(resource);
+			}
+		}
+
+		if (changed)
+		{
+			node.childItems = null;
+		}
+
+		return changed;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a project delta changes any of the
+	 * files that its filter is read from.
+	 */
+	private static boolean definesFilter(IResourceDelta delta)
+	{
+		for (IResourceDelta childDelta : delta.getAffectedChildren())
+		{
+			if (ResourceFilter.isFilterDefinition(childDelta.getResource()))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	// ----------------------------------------------------------
+	private static long getSize(IResource resource)
+	{
+		IPath location = resource.getLocation();
+		return (location != null) ? location.toFile().length() : 0;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes the index to its file.
+	 */
+	private synchronized void write() throws IOException
+	{
+		File temp = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp)));
+
+		try
+		{
+			// A project with stale folders is left out, so that it is
+			// indexed again in the next session.
+
+			List<Node> roots = new ArrayList<Node>();
+
+			for (Map.Entry<String, Node> project : projects.entrySet())
+			{
+				if (!staleFolders.containsKey(project.getKey()))
+				{
+					roots.add(project.getValue());
+				}
+			}
+
+			output.writeInt(FORMAT_VERSION);
+			output.writeInt(roots.size());
+
+			for (Node root : roots)
+			{
+				writeNode(output, root);
+			}
+		}
+		finally
+		{
+			output.close();
+		}
+
+		file.delete();
+
+		if (!temp.renameTo(file))
+		{
+			throw new IOException("Could not replace " + file);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static void writeNode(DataOutputStream output, Node node)
+	throws IOException
+	{
+		output.writeUTF(node.name);
+		output.writeBoolean(node.isFolder());
+		output.writeLong(node.size);
+		output.writeLong(node.stamp);
+
+		if (node.isFolder())
+		{
+			output.writeInt(node.children.length);
+
+			for (Node child : node.children)
+			{
+				writeNode(output, child);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the index from its file. If the file is missing or damaged, the
+	 * index is left empty.
+	 */
+	private synchronized void read()
+	{
+		if (!file.exists())
+		{
+			return;
+		}
+
+		try
+		{
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file)));
+
+			try
+			{
+				if (input.readInt() != FORMAT_VERSION)
+				{
+					return;
+				}
+
+				int count = input.readInt();
+
+				for (int i = 0; i < count; i++)
+				{
+					Node root = readNode(input);
+					projects.put(root.name, root);
+				}
+			}
+			finally
+			{
+				input.close();
+			}
+		}
+		catch (IOException e)
+		{
+			projects.clear();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static Node readNode(DataInputStream input) throws IOException
+	{
+		String name = input.readUTF();
+		boolean folder = input.readBoolean();
+
+		Node node = new Node(name, folder);
+		node.size = input.readLong();
+		node.stamp = input.readLong();
+
+		if (folder)
+		{
+			Node[] children = new Node[input.readInt()];
+
+			for (int i = 0; i < children.length; i++)
+			{
+				children[i] = readNode(input);
+			}
+
+			node.children = children;
+		}
+
+		return node;
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * A file or folder in the trie.
+	 */
+	private static class Node
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public Node(String name, boolean folder)
+		{
+			this.name = name;
+			this.children = folder ? NO_CHILDREN : null;
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public boolean isFolder()
+		{
+			return children != null;
+		}
+
+
+		// ----------------------------------------------------------
+		public Node find(String childName)
+		{
+			int index = indexOf(childName);
+			return (index >= 0) ? children[index] : null;
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Adds a child, replacing any child with the same name.
+		 */
+		public void put(Node child)
+		{
+			int index = indexOf(child.name);
+
+			if (index >= 0)
+			{
+				children[index] = child;
+			}
+			else
+			{
+				index = -index - 1;
+
+				Node[] newChildren = new Node[children.length + 1];
+				System.arraycopy(children, 0, newChildren, 0, index);
+				newChildren[index] = child;
+				System.arraycopy(children, index, newChildren, index + 1,
+						children.length - index);
+				children = newChildren;
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Removes a child.
+		 *
+		 * @return true if there was a child with the name
+		 */
+		public boolean remove(String childName)
+		{
+			int index = indexOf(childName);
+
+			if (index < 0)
+			{
+				return false;
+			}
+
+			Node[] newChildren = new Node[children.length - 1];
+			System.arraycopy(children, 0, newChildren, 0, index);
+			System.arraycopy(children, index + 1, newChildren, index,
+					children.length - index - 1);
+			children = newChildren;
+			return true;
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Finds a child by binary search.
+		 *
+		 * @return the index of the child, or (-(insertion point) - 1) if
+		 *     there is none
+		 */
+		private int indexOf(String childName)
+		{
+			int low = 0;
+			int high = children.length - 1;
+
+			while (low <= high)
+			{
+				int mid = (low + high) >>> 1;
+				int comparison = children[mid].name.compareTo(childName);
+
+				if (comparison < 0)
+				{
+					low = mid + 1;
+				}
+				else if (comparison > 0)
+				{
+					high = mid - 1;
+				}
+				else
+				{
+					return mid;
+				}
+			}
+
+			return -(low + 1);
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The children of an empty folder. */
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		/* The name of the resource. */
+		private String name;
+
+		/* The size of the file, in bytes. */
+		private long size;
+
+		/* The modification stamp of the resource. */
+		private long stamp;
+
+		/* The children of the folder, sorted by name, or null if this is a
+		   file. */
+		private Node[] children;
+
+		/* Set for a folder that was added since the project was indexed,
+		   and has not been traversed yet. */
+		private boolean stale;
+
+		/* The item for the resource, created when it is first submitted. */
+		private SubmittableEclipseResource item;
+
+		/* The items for the children of the folder, or null if they have
+		   not been created since the folder last changed. */
+		private ISubmittableItem[] childItems;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * The job that indexes a project in the background.
+	 */
+	private class IndexJob extends Job
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public IndexJob(IProject project)
+		{
+			super("Indexing " + project.getName());
+
+			this.project = project;
+
+			setPriority(Job.LONG);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		protected IStatus run(IProgressMonitor monitor)
+		{
+			try
+			{
+				getItems(project, monitor);
+				return Status.OK_STATUS;
+			}
+			catch (OperationCanceledException e)
+			{
+				return Status.CANCEL_STATUS;
+			}
+			catch (CoreException e)
+			{
+				return e.getStatus();
+			}
+			finally
+			{
+				indexJobFinished(this);
+			}
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The project to index. */
+		private final IProject project;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Builds the trie beneath a resource. The visitor sees the resources in
+	 * depth-first order, so the folder that contains each one is the
+	 * innermost open folder at the depth above it.
+	 */
+	private static class BuildVisitor implements IResourceProxyVisitor
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public BuildVisitor(int rootDepth, String rootPath,
+				ResourceFilter filter, IProgressMonitor monitor)
+		{
+			this.rootDepth = rootDepth;
+			this.rootPath = rootPath;
+			this.filter = filter;
+			this.monitor = monitor;
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public boolean visit(IResourceProxy proxy)
+		{
+			if (monitor.isCanceled())
+			{
+				throw new OperationCanceledException();
+			}
+
+			monitor.worked(1);
+
+			int depth = proxy.requestFullPath().segmentCount() - rootDepth;
+
+			while (openFolders.size() > depth)
+			{
+				openFolders.remove(openFolders.size() - 1);
+				openPaths.remove(openPaths.size() - 1);
+			}
+
+			String parentPath = (depth > 0) ? openPaths.get(depth - 1) : null;
+
+			if (depth > 0 && filter.isExcluded(proxy, parentPath))
+			{
+				return false;
+			}
+
+			boolean folder = proxy.getType() != IResource.FILE;
+
+			Node node = new Node(proxy.getName(), folder);
+			node.stamp = proxy.getModificationStamp();
+
+			if (!folder)
+			{
+				node.size = getSize(proxy.requestResource());
+			}
+
+			if (depth == 0)
+			{
+				root = node;
+			}
+			else
+			{
+				pendingChildren.get(openFolders.get(depth - 1)).add(node);
+			}
+
+			if (folder)
+			{
+				openFolders.add(node);
+				openPaths.add((depth > 0)
+						? ResourceFilter.getPath(parentPath, node.name)
+						: rootPath);
+				pendingChildren.put(node, new ArrayList<Node>());
+			}
+
+			return folder;
+		}
+
+
+		// ----------------------------------------------------------
+		public Node getRoot()
+		{
+			for (Map.Entry<Node, List<Node>> entry : pendingChildren.entrySet())
+			{
+				Node[] children = entry.getValue().toArray(
+						new Node[entry.getValue().size()]);
+				Arrays.sort(children, NAME_ORDER);
+				entry.getKey().children = children;
+			}
+
+			pendingChildren.clear();
+			return root;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The number of segments in the root's full path. */
+		private int rootDepth;
+
+		/* The root's path relative to its project. */
+		private String rootPath;
+
+		/* Decides which resources are left out. */
+		private ResourceFilter filter;
+
+		/* Reports the resources that are visited. */
+		private IProgressMonitor monitor;
+
+		/* The node for the resource being traversed. */
+		private Node root;
+
+		/* The folders that contain the resource being visited, outermost
+		   first. */
+		private List<Node> openFolders = new ArrayList<Node>();
+
+		/* The project-relative paths of the open folders, which the filter
+		   matches against. */
+		private List<String> openPaths = new ArrayList<String>();
+
+		/* The children found so far in each folder. */
+		private Map<Node, List<Node>> pendingChildren =
+			new HashMap<Node, List<Node>>();
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The version of the format of the saved index. */
+	private static final int FORMAT_VERSION = 2;
+
+	/* Orders the children of a folder by name. */
+	private static final Comparator<Node> NAME_ORDER = new Comparator<Node>() {
+		public int compare(Node node1, Node node2)
+		{
+			return node1.name.compareTo(node2.name);
+		}
+	};
+
+	/* The file in which the index is saved. */
+	private File file;
+
+	/* The root of the trie for each project that is indexed, keyed by
+	   project name. */
+	private Map<String, Node> projects = new HashMap<String, Node>();
+
+	/* The filter for each project that is indexed, keyed by project name,
+	   created when it is first needed. */
+	private Map<String, ResourceFilter> filters =
+		new HashMap<String, ResourceFilter>();
+
+	/* The number of resource deltas that changed each project's index,
+	   keyed by project name, so that a project that changes while it is
+	   being indexed can be indexed again. Deltas are only counted for
+	   projects that have been, or are being, indexed. */
+	private Map<String, Long> changeCounts = new HashMap<String, Long>();
+
+	/* The project-relative paths of the stale folders in each project,
+	   keyed by project name, which are traversed by the next index job. */
+	private Map<String, List<String>> staleFolders =
+		new HashMap<String, List<String>>();
+
+	/* The jobs that are indexing projects, keyed by project name. */
+	private Map<String, IndexJob> indexJobs = new HashMap<String, IndexJob>();
+
+	/* Applies resource deltas to the index. */
+	private IResourceChangeListener changeListener =
+		new IResourceChangeListener() {
+		public void resourceChanged(IResourceChangeEvent event)
+		{
+			IResourceDelta delta = event.getDelta();
+
+			if (delta == null)
+			{
+				return;
+			}
+
+			for (IResourceDelta projectDelta : delta.getAffectedChildren())
+			{
+				projectChanged(projectDelta);
+			}
+		}
+	};
+
+	/* Saves the index with the workspace. */
+	private ISaveParticipant saveParticipant = new ISaveParticipant() {
+		public void prepareToSave(ISaveContext context)
+		{
+			// Do nothing.
+		}
+
+		public void saving(ISaveContext context) throws CoreException
+		{
+			if (context.getKind() != ISaveContext.FULL_SAVE)
+			{
+				return;
+			}
+
+			try
+			{
+				write();
+			}
+			catch (IOException e)
+			{
+				SubmitterCore.log("Could not save the project manifest index",
+						e);
+				file.delete();
+			}
+
+			// Ask for the changes made after this save to be kept, so that
+			// they can be replayed into the index in the next session.
+
+			context.needDelta();
+		}
+
+		public void doneSaving(ISaveContext context)
+		{
+			// Do nothing.
+		}
+
+		public void rollback(ISaveContext context)
+		{
+			// Do nothing.
+		}
+	};
+}
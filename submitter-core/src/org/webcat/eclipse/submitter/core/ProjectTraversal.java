@@ -0,0 +1,419 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.webcat.submitter.ISubmittableItem;
+
+//--------------------------------------------------------------------------
+/**
+ * Builds the tree of {@link SubmittableEclipseResource}s for a project (or
+ * any other container) in a single pass over the workspace, so that the
+ * packager can walk it without going back to the workspace for each folder.
+ * <p>
+ * The resources are visited with an {@link IResourceProxyVisitor}, which
+ * reads the workspace tree without creating a handle for every resource
+ * that it passes over. Each item is created once, with its path relative to
+ * the container already worked out from its parent's, and each folder's
+ * children are stored in it as they are found; so the work done for an item
+ * does not depend on how deep in the project it is.
+ * <p>
+ * Each folder at the top level of the container is traversed by its own
+ * task, and the tasks run concurrently, so a project with several large
+ * folders (such as source, tests, and libraries) is traversed in about the
+ * time of its largest one.
+ * <p>
+ * The resources that the project's {@link ResourceFilter} excludes are left
+ * out, and excluded folders are not traversed.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class ProjectTraversal
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ProjectTraversal} with the default pool size.
+	 */
+	public ProjectTraversal()
+	{
+		this(DEFAULT_POOL_SIZE);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ProjectTraversal}.
+	 *
+	 * @param poolSize the maximum number of folders that will be traversed
+	 *     at the same time
+	 */
+	public ProjectTraversal(int poolSize)
+	{
+		this.poolSize = poolSize;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the submittable items for the members of a container, with the
+	 * whole tree beneath them already built. The paths of the items are
+	 * relative to the container.
+	 *
+	 * @param container the container, usually a project
+	 * @return the items for the members of the container
+	 * @throws CoreException if the container could not be traversed
+	 */
+	public ISubmittableItem[] getItems(IContainer container)
+	throws CoreException
+	{
+		Node root = new Node(null,
+				container.getProjectRelativePath().toString());
+		List<Node> folders = new ArrayList<Node>();
+		ResourceFilter filter =
+			ResourceFilter.forProject(container.getProject());
+
+		// Visit the top level of the container, leaving its folders to be
+		// traversed separately.
+
+		TraversalVisitor visitor = new TraversalVisitor(root,
+				container.getFullPath().segmentCount(), filter, folders);
+		container.accept(visitor, IResource.NONE);
+		visitor.finishAll();
+
+		if (folders.size() > 1 && poolSize > 1)
+		{
+			traverseInParallel(folders, filter);
+		}
+		else
+		{
+			for (Node folder : folders)
+			{
+				traverse(folder, filter);
+			}
+		}
+
+		return root.toArray();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Traverses the tree beneath a top-level folder.
+	 *
+	 * @param folder the node for the folder
+	 * @param filter the filter for the project
+	 * @throws CoreException if the folder could not be traversed
+	 */
+	private static void traverse(Node folder, ResourceFilter filter)
+	throws CoreException
+	{
+		IResource resource = folder.item.getResource();
+
+		TraversalVisitor visitor = new TraversalVisitor(folder,
+				resource.getFullPath().segmentCount(), filter, null);
+		resource.accept(visitor, IResource.NONE);
+		visitor.finishAll();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Traverses the trees beneath the top-level folders concurrently.
+	 *
+	 * @param folders the nodes for the folders
+	 * @param filter the filter for the project
+	 * @throws CoreException if any of the folders could not be traversed
+	 */
+	private void traverseInParallel(List<Node> folders,
+			final ResourceFilter filter) throws CoreException
+	{
+		ExecutorService pool = Executors.newFixedThreadPool(
+				Math.min(poolSize, folders.size()), threadFactory);
+
+		try
+		{
+			List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+			for (final Node folder : folders)
+			{
+				futures.add(pool.submit(new Callable<Object>() {
+					public Object call() throws CoreException
+					{
+						traverse(folder, filter);
+						return null;
+					}
+				}));
+			}
+
+			for (Future<Object> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof CoreException)
+			{
+				throw (CoreException) e.getCause();
+			}
+
+			throw new CoreException(new Status(IStatus.ERROR,
+					SubmitterCore.PLUGIN_ID, "Could not traverse the project",
+					e.getCause()));
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			throw new CoreException(new Status(IStatus.CANCEL,
+					SubmitterCore.PLUGIN_ID, "The traversal was interrupted",
+					e));
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * A folder whose children are being collected.
+	 */
+	private static class Node
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public Node(SubmittableEclipseResource item, String projectPath)
+		{
+			this.item = item;
+			this.projectPath = projectPath;
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public String getChildPath(String name)
+		{
+			return (item == null) ? name : item.getFilename() + "/" + name; //$NON-NLS-1$
+		}
+
+
+		// ----------------------------------------------------------
+		public ISubmittableItem[] toArray()
+		{
+			return children.toArray(new ISubmittableItem[children.size()]);
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The item for the folder, or null for the container itself. */
+		private SubmittableEclipseResource item;
+
+		/* The path of the folder relative to its project, which the filter
+		   matches against. */
+		private String projectPath;
+
+		/* The items for the folder's children, in the order in which they
+		   were found. */
+		private List<ISubmittableItem> children =
+			new ArrayList<ISubmittableItem>();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Collects the items beneath a folder. The visitor sees the resources
+	 * in depth-first order, so the folder that contains each one is the
+	 * innermost open folder at the depth above it.
+	 */
+	private static class TraversalVisitor implements IResourceProxyVisitor
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		/**
+		 * @param root the node for the folder being traversed
+		 * @param rootDepth the number of segments in the folder's full path
+		 * @param filter the filter that decides which resources are left
+		 *     out
+		 * @param deferredFolders if not null, receives the folders directly
+		 *     inside the root instead of traversing them
+		 */
+		public TraversalVisitor(Node root, int rootDepth,
+				ResourceFilter filter, List<Node> deferredFolders)
+		{
+			this.rootDepth = rootDepth;
+			this.filter = filter;
+			this.deferredFolders = deferredFolders;
+
+			openFolders.add(root);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public boolean visit(IResourceProxy proxy)
+		{
+			int depth = proxy.requestFullPath().segmentCount() - rootDepth;
+
+			if (depth == 0)
+			{
+				// The root itself.
+
+				return true;
+			}
+
+			// Close the folders that the depth-first order has left.
+
+			while (openFolders.size() > depth)
+			{
+				finish(openFolders.remove(openFolders.size() - 1));
+			}
+
+			// Leave out excluded resources, and do not go into excluded
+			// folders at all.
+
+			Node parent = openFolders.get(depth - 1);
+
+			if (filter.isExcluded(proxy, parent.projectPath))
+			{
+				return false;
+			}
+
+			SubmittableEclipseResource item = new SubmittableEclipseResource(
+					proxy.requestResource(),
+					parent.getChildPath(proxy.getName()));
+			parent.children.add(item);
+
+			if (proxy.getType() == IResource.FILE)
+			{
+				return false;
+			}
+
+			Node folder = new Node(item, ResourceFilter.getPath(
+					parent.projectPath, proxy.getName()));
+
+			if (deferredFolders != null)
+			{
+				deferredFolders.add(folder);
+				return false;
+			}
+
+			openFolders.add(folder);
+			return true;
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Finishes the folders that are still open when the traversal is
+		 * done.
+		 */
+		public void finishAll()
+		{
+			while (!openFolders.isEmpty())
+			{
+				finish(openFolders.remove(openFolders.size() - 1));
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Stores the children that were collected for a folder in its item.
+		 */
+		private void finish(Node folder)
+		{
+			if (folder.item != null)
+			{
+				folder.item.setChildren(folder.toArray());
+			}
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The number of segments in the root's full path. */
+		private int rootDepth;
+
+		/* Decides which resources are left out. */
+		private ResourceFilter filter;
+
+		/* Receives the top-level folders, if they are deferred. */
+		private List<Node> deferredFolders;
+
+		/* The folders that contain the resource being visited, outermost
+		   first. */
+		private List<Node> openFolders = new ArrayList<Node>();
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The default maximum number of folders traversed at the same time. */
+	private static final int DEFAULT_POOL_SIZE =
+		Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	/* The maximum number of folders traversed at the same time. */
+	private int poolSize;
+
+	/* Creates daemon threads, so that a traversal cannot keep the workbench
+	   from exiting. */
+	private ThreadFactory threadFactory = new ThreadFactory() {
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable,
+					"Web-CAT project traversal"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+}
@@ -0,0 +1,181 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.webcat.submitter.ISubmittableItem;
+import org.webcat.submitter.SubmittableItemKind;
+
+//--------------------------------------------------------------------------
+/**
+ * The files that an assignment requires, compiled so that a project can be
+ * checked for them before it is packaged. The engine makes the same check,
+ * but only after it has packaged the whole project; checking first lets the
+ * wizard tell the user straight away that a file is missing.
+ * <p>
+ * The patterns are read from the definitions documents by a
+ * {@link RequiredFilesReader}, and each is compiled once into a
+ * {@link GlobPattern}. Required files are immutable.
+ * <p>
+ * Like the engine, every pattern is matched against the whole path of a
+ * file relative to the project, so {@code Main.java} only matches a file
+ * of that name at the top of the project; a pattern has to say
+ * {@code **}{@code /Main.java} to match one at any depth. This differs from
+ * a {@code .gitignore} file, where a pattern without a slash matches a name
+ * at any depth.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class RequiredFiles
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code RequiredFiles}.
+	 *
+	 * @param patterns the patterns of the required files
+	 */
+	public RequiredFiles(List<String> patterns)
+	{
+		this.patterns = patterns.toArray(new String[patterns.size()]);
+		this.globs = new GlobPattern[this.patterns.length];
+
+		for (int i = 0; i < globs.length; i++)
+		{
+			String pattern = this.patterns[i].trim();
+
+			// Anchor the pattern to the top of the project, as the engine
+			// does; a leading slash makes a GlobPattern match the whole path.
+
+			globs[i] = new GlobPattern(pattern.startsWith("/") //$NON-NLS-1$
+					? pattern : "/" + pattern); //$NON-NLS-1$
+		}
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the assignment requires any files.
+	 *
+	 * @return true if there are no required files
+	 */
+	public boolean isEmpty()
+	{
+		return patterns.length == 0;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the required files that are missing from the items to be
+	 * submitted. The tree of items is walked only until every pattern has
+	 * been matched.
+	 *
+	 * @param items the items to be submitted
+	 * @return the patterns that no file matched, in the order in which they
+	 *     were declared
+	 */
+	public List<String> findMissing(ISubmittableItem[] items)
+	{
+		if (patterns.length == 0)
+		{
+			return Collections.emptyList();
+		}
+
+		boolean[] found = new boolean[patterns.length];
+		int remaining = find(items, found, patterns.length);
+
+		List<String> missing = new ArrayList<String>(remaining);
+
+		for (int i = 0; i < patterns.length; i++)
+		{
+			if (!found[i])
+			{
+				missing.add(patterns[i]);
+			}
+		}
+
+		return missing;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Marks the patterns that match a file beneath the items.
+	 *
+	 * @return the number of patterns that are still unmatched
+	 */
+	private int find(ISubmittableItem[] items, boolean[] found,
+			int remaining)
+	{
+		for (ISubmittableItem item : items)
+		{
+			if (remaining == 0)
+			{
+				break;
+			}
+
+			if (item.getKind() == SubmittableItemKind.FOLDER)
+			{
+				remaining = find(item.getChildren(), found, remaining);
+				continue;
+			}
+
+			String path = item.getFilename();
+			String name = path.substring(path.lastIndexOf('/') + 1);
+
+			for (int i = 0; i < globs.length; i++)
+			{
+				if (!found[i] && globs[i].matches(path, name, false))
+				{
+					found[i] = true;
+					remaining--;
+				}
+			}
+		}
+
+		return remaining;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The required files of an assignment that does not require any, or
+	   whose requirements could not be read. */
+	public static final RequiredFiles NONE =
+		new RequiredFiles(new ArrayList<String>());
+
+	/* The patterns of the required files, as they were declared. */
+	private final String[] patterns;
+
+	/* The compiled patterns. */
+	private final GlobPattern[] globs;
+}
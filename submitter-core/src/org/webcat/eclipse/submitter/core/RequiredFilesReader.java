@@ -0,0 +1,403 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+//--------------------------------------------------------------------------
+/**
+ * Reads the patterns of the files that an assignment requires from the
+ * submission target definitions documents. An assignment requires the
+ * files named by its own {@code required} elements and by those of every
+ * group that contains it.
+ * <p>
+ * The documents are read with a streaming parser, like the outline of the
+ * targets. An imported group's document is only read if the assignment is
+ * inside that group.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class RequiredFilesReader
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the files required by an assignment. The documents are fetched
+	 * through the {@link DefinitionsCache} if a cached fetch is in progress
+	 * on the calling thread.
+	 *
+	 * @param path the path of the assignment
+	 * @return the files that the assignment requires, or null if it was not
+	 *     found
+	 * @throws IOException if a document could not be read
+	 * @throws SAXException if a document is not well-formed
+	 */
+	public RequiredFiles read(TargetPath path)
+	throws IOException, SAXException
+	{
+		List<String> patterns = read(new URL(path.getDefinitionsURL()),
+				path.getNames(), 0, new ArrayList<String>());
+
+		return (patterns != null) ? new RequiredFiles(patterns) : null;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads the patterns that apply to an assignment from a document,
+	 * following the imported groups that may contain it.
+	 *
+	 * @param url the URL of the document
+	 * @param names the names in the path of the assignment
+	 * @param start the number of names that are matched by the groups that
+	 *     contain the document
+	 * @param inherited the patterns required by those groups
+	 * @return the patterns, or null if the assignment is not in the document
+	 */
+	private List<String> read(URL url, List<String> names, int start,
+			List<String> inherited) throws IOException, SAXException
+	{
+		SAXParser parser;
+
+		try
+		{
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(false);
+			factory.setValidating(false);
+			parser = factory.newSAXParser();
+		}
+		catch (ParserConfigurationException e)
+		{
+			throw new SAXException(e);
+		}
+
+		RequiredHandler handler =
+			new RequiredHandler(url, names, start, inherited);
+		InputStream stream = url.openStream();
+
+		try
+		{
+			InputSource source = new InputSource(stream);
+			source.setSystemId(url.toString());
+
+			parser.parse(source, handler);
+		}
+		finally
+		{
+			stream.close();
+		}
+
+		if (handler.patterns != null)
+		{
+			return handler.patterns;
+		}
+
+		for (Import imported : handler.imports)
+		{
+			List<String> patterns = read(imported.url, names,
+					imported.start, imported.patterns);
+
+			if (patterns != null)
+			{
+				return patterns;
+			}
+		}
+
+		return null;
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * An imported group that may contain the assignment.
+	 */
+	private static class Import
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public Import(URL url, int start, List<String> patterns)
+		{
+			this.url = url;
+			this.start = start;
+			this.patterns = patterns;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The URL of the group's document. */
+		private URL url;
+
+		/* The number of names matched by the groups that contain it. */
+		private int start;
+
+		/* The patterns required by the groups that contain it. */
+		private List<String> patterns;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Collects the patterns from the parser's events.
+	 */
+	private static class RequiredHandler extends DefaultHandler
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public RequiredHandler(URL url, List<String> names, int start,
+				List<String> inherited)
+		{
+			this.url = url;
+			this.names = names;
+			this.matched = start;
+
+			frames.add(new Frame(false, new ArrayList<String>(inherited)));
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		public void startElement(String uri, String localName, String qName,
+				Attributes attributes) throws SAXException
+		{
+			depth++;
+
+			if (skipDepth != 0)
+			{
+				return;
+			}
+
+			Frame current = frames.get(frames.size() - 1);
+
+			if (ELEMENT_REQUIRED.equals(qName))
+			{
+				String pattern = attributes.getValue(ATTRIBUTE_PATTERN);
+
+				if (pattern != null && GlobPattern.isRule(pattern)
+						&& current.onPath)
+				{
+					current.patterns.add(pattern);
+				}
+
+				skipDepth = depth;
+			}
+			else if (ELEMENT_GROUP.equals(qName)
+					|| ELEMENT_ASSIGNMENT.equals(qName)
+					|| ELEMENT_IMPORT.equals(qName) || depth == 1)
+			{
+				String name = null;
+
+				if (ELEMENT_GROUP.equals(qName)
+						|| ELEMENT_ASSIGNMENT.equals(qName))
+				{
+					name = attributes.getValue(ATTRIBUTE_NAME);
+				}
+
+				// A target is on the assignment's path if every named
+				// target around it, and the target itself, matches the
+				// next name in the path.
+
+				boolean onPath = current.onPath;
+
+				if (onPath && name != null)
+				{
+					onPath = matched < names.size()
+						&& name.equals(names.get(matched));
+				}
+
+				// Only the targets on the path can add patterns, so the
+				// others share their parent's list.
+
+				Frame frame = new Frame(name != null, onPath
+						? new ArrayList<String>(current.patterns)
+						: current.patterns);
+				frame.onPath = onPath;
+
+				if (onPath && name != null)
+				{
+					matched++;
+				}
+
+				frames.add(frame);
+
+				if (onPath && ELEMENT_IMPORT.equals(qName))
+				{
+					addImport(attributes.getValue(ATTRIBUTE_HREF), frame);
+				}
+			}
+			else
+			{
+				// Parameters, transports, and the like.
+
+				skipDepth = depth;
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		public void endElement(String uri, String localName, String qName)
+		{
+			if (skipDepth != 0)
+			{
+				if (skipDepth == depth)
+				{
+					skipDepth = 0;
+				}
+			}
+			else if (frames.size() > 1)
+			{
+				Frame frame = frames.remove(frames.size() - 1);
+
+				if (frame.onPath && frame.named)
+				{
+					if (ELEMENT_ASSIGNMENT.equals(qName)
+							&& matched == names.size() && patterns == null)
+					{
+						patterns = frame.patterns;
+					}
+
+					matched--;
+				}
+			}
+
+			depth--;
+		}
+
+
+		// ----------------------------------------------------------
+		public InputSource resolveEntity(String publicId, String systemId)
+		{
+			return new InputSource(new StringReader("")); //$NON-NLS-1$
+		}
+
+
+		// ----------------------------------------------------------
+		private void addImport(String href, Frame frame) throws SAXException
+		{
+			if (href == null)
+			{
+				return;
+			}
+
+			try
+			{
+				imports.add(new Import(new URL(url, href), matched,
+						frame.patterns));
+			}
+			catch (IOException e)
+			{
+				throw new SAXException(e);
+			}
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The URL of the document. */
+		private URL url;
+
+		/* The names in the path of the assignment. */
+		private List<String> names;
+
+		/* The number of names matched by the open targets. */
+		private int matched;
+
+		/* The open targets, outermost first. */
+		private List<Frame> frames = new ArrayList<Frame>();
+
+		/* The imported groups that may contain the assignment. */
+		private List<Import> imports = new ArrayList<Import>();
+
+		/* The patterns that apply to the assignment, once it is found. */
+		private List<String> patterns;
+
+		/* The depth of the element currently being read. */
+		private int depth;
+
+		/* The depth of the element being skipped, or 0. */
+		private int skipDepth;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * A target whose element is open.
+	 */
+	private static class Frame
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public Frame(boolean named, List<String> patterns)
+		{
+			this.named = named;
+			this.patterns = patterns;
+			this.onPath = true;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* Indicates whether the target has a name. */
+		private boolean named;
+
+		/* Indicates whether the target is on the assignment's path. */
+		private boolean onPath;
+
+		/* The patterns required by the target and the groups around it. */
+		private List<String> patterns;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	private static final String ELEMENT_GROUP = "assignment-group"; //$NON-NLS-1$
+	private static final String ELEMENT_ASSIGNMENT = "assignment"; //$NON-NLS-1$
+	private static final String ELEMENT_IMPORT = "import-group"; //$NON-NLS-1$
+	private static final String ELEMENT_REQUIRED = "required"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_NAME = "name"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_HREF = "href"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_PATTERN = "pattern"; //$NON-NLS-1$
+}
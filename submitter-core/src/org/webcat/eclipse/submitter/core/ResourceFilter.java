@@ -0,0 +1,400 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+//--------------------------------------------------------------------------
+/**
+ * Decides which resources in a project are left out of a submission:
+ * derived and team-private resources, the output folders of a Java project,
+ * the metadata folders of the common version control systems, and anything
+ * matched by the project's top-level {@code .gitignore} file.
+ * <p>
+ * Only the {@code .gitignore} file at the root of the project is read, and
+ * its rules are matched against paths relative to the project, as git
+ * would. Unlike git, the filter does not read the {@code .gitignore} files
+ * in subfolders, nor {@code .git/info/exclude} or the user's global
+ * excludes file, so a resource that only those leave out is still
+ * submitted.
+ * <p>
+ * The rules are read and compiled once, when the filter is created, and the
+ * filter is not changed after that, so it can be shared by the threads of a
+ * {@link ProjectTraversal}. Traversals stop at an excluded folder, so
+ * nothing beneath it is visited.
+ * <p>
+ * The output folders are read from the project's {@code .classpath} file
+ * rather than through JDT, so that the submitter does not depend on the
+ * Java tools being installed.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class ResourceFilter
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code ResourceFilter}.
+	 *
+	 * @param rules the rules, in the order in which they are applied
+	 * @param outputPaths the project-relative paths of the output folders
+	 */
+	private ResourceFilter(List<GlobPattern> rules, Set<String> outputPaths)
+	{
+		this.rules = rules.toArray(new GlobPattern[rules.size()]);
+		this.outputPaths = outputPaths;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates the filter for a project.
+	 *
+	 * @param project the project
+	 * @return the filter
+	 */
+	public static ResourceFilter forProject(IProject project)
+	{
+		List<GlobPattern> rules = new ArrayList<GlobPattern>();
+
+		for (String rule : DEFAULT_RULES)
+		{
+			rules.add(new GlobPattern(rule));
+		}
+
+		IFile gitignore = project.getFile(GITIGNORE_FILE);
+
+		if (gitignore.exists())
+		{
+			try
+			{
+				readRules(gitignore, rules);
+			}
+			catch (Exception e)
+			{
+				SubmitterCore.log("Could not read " + gitignore.getFullPath(),
+						e);
+			}
+		}
+
+		Set<String> outputPaths = new HashSet<String>();
+		IFile classpath = project.getFile(CLASSPATH_FILE);
+
+		if (classpath.exists())
+		{
+			try
+			{
+				readOutputPaths(project, classpath, outputPaths);
+			}
+			catch (Exception e)
+			{
+				SubmitterCore.log("Could not read " + classpath.getFullPath(),
+						e);
+			}
+		}
+
+		return new ResourceFilter(rules, outputPaths);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a change to a resource could change
+	 * the filter for its project, so that the filter must be created again.
+	 *
+	 * @param resource the resource
+	 * @return true if the resource is one of the files that the filter is
+	 *     read from
+	 */
+	public static boolean isFilterDefinition(IResource resource)
+	{
+		IPath path = resource.getProjectRelativePath();
+
+		return path.segmentCount() == 1
+			&& (GITIGNORE_FILE.equals(path.segment(0))
+					|| CLASSPATH_FILE.equals(path.segment(0)));
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a resource that is being visited is
+	 * left out of the submission. The caller passes the path of the folder
+	 * that contains the resource, which a visitor already has, so that the
+	 * resource's own path is only worked out if a rule needs it.
+	 *
+	 * @param proxy the proxy for the resource, which must not be the project
+	 *     itself
+	 * @param parentPath the project-relative path of the folder that
+	 *     contains the resource, or an empty string if the resource is a
+	 *     member of the project
+	 * @return true if the resource is excluded
+	 */
+	public boolean isExcluded(IResourceProxy proxy, String parentPath)
+	{
+		return isExcluded(parentPath, proxy.getName(),
+				proxy.getType() != IResource.FILE, proxy.isDerived(),
+				proxy.isTeamPrivateMember());
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether a resource is left out of the
+	 * submission.
+	 *
+	 * @param resource the resource
+	 * @return true if the resource is excluded
+	 */
+	public boolean isExcluded(IResource resource)
+	{
+		IPath path = resource.getProjectRelativePath();
+
+		if (path.segmentCount() == 0)
+		{
+			// The project itself.
+
+			return false;
+		}
+
+		return isExcluded(path.removeLastSegments(1).toString(),
+				path.lastSegment(), resource.getType() != IResource.FILE,
+				resource.isDerived(), resource.isTeamPrivateMember());
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the project-relative path of a resource, given the path of the
+	 * folder that contains it.
+	 *
+	 * @param parentPath the path of the folder, or an empty string for the
+	 *     project
+	 * @param name the name of the resource
+	 * @return the path of the resource
+	 */
+	public static String getPath(String parentPath, String name)
+	{
+		return (parentPath.length() == 0)
+			? name : parentPath + "/" + name; //$NON-NLS-1$
+	}
+
+
+	// ----------------------------------------------------------
+	private boolean isExcluded(String parentPath, String name,
+			boolean folder, boolean derived, boolean teamPrivate)
+	{
+		if (derived || teamPrivate)
+		{
+			return true;
+		}
+
+		// The path is only built if an output folder or an anchored rule
+		// needs it; most rules match the name alone.
+
+		String path = null;
+
+		if (folder && !outputPaths.isEmpty())
+		{
+			path = getPath(parentPath, name);
+
+			if (outputPaths.contains(path))
+			{
+				return true;
+			}
+		}
+
+		// The last rule that matches decides.
+
+		for (int i = rules.length - 1; i >= 0; i--)
+		{
+			GlobPattern rule = rules[i];
+
+			if (path == null && rule.isAnchored())
+			{
+				path = getPath(parentPath, name);
+			}
+
+			if (rule.matches(path, name, folder))
+			{
+				return !rule.isNegated();
+			}
+		}
+
+		return false;
+	}
+
+
+	// ----------------------------------------------------------
+	private static void readRules(IFile file, List<GlobPattern> rules)
+	throws CoreException, IOException
+	{
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				file.getContents(true), file.getCharset()));
+
+		try
+		{
+			String line;
+
+			while ((line = reader.readLine()) != null)
+			{
+				if (GlobPattern.isRule(line))
+				{
+					rules.add(new GlobPattern(line));
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private static void readOutputPaths(final IProject project, IFile file,
+			final Set<String> outputPaths) throws Exception
+	{
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+		factory.setNamespaceAware(false);
+		factory.setValidating(false);
+
+		InputStream stream = file.getContents(true);
+
+		try
+		{
+			factory.newSAXParser().parse(stream, new DefaultHandler() {
+				public void startElement(String uri, String localName,
+						String qName, Attributes attributes)
+				{
+					if (!ELEMENT_CLASSPATHENTRY.equals(qName))
+					{
+						return;
+					}
+
+					// The default output folder, and the output folders of
+					// source folders that have their own.
+
+					if (KIND_OUTPUT.equals(attributes.getValue(
+							ATTRIBUTE_KIND)))
+					{
+						addOutputPath(attributes.getValue(ATTRIBUTE_PATH));
+					}
+
+					addOutputPath(attributes.getValue(ATTRIBUTE_OUTPUT));
+				}
+
+				public InputSource resolveEntity(String publicId,
+						String systemId)
+				{
+					return new InputSource(new StringReader("")); //$NON-NLS-1$
+				}
+
+				private void addOutputPath(String path)
+				{
+					if (path != null && path.length() > 0)
+					{
+						// Output folders outside the project are given as
+						// workspace paths starting with "/".
+
+						String projectPrefix = "/" + project.getName() + "/"; //$NON-NLS-1$ //$NON-NLS-2$
+
+						if (path.startsWith(projectPrefix))
+						{
+							path = path.substring(projectPrefix.length());
+						}
+						else if (path.startsWith("/")) //$NON-NLS-1$
+						{
+							return;
+						}
+
+						if (path.endsWith("/")) //$NON-NLS-1$
+						{
+							path = path.substring(0, path.length() - 1);
+						}
+
+						outputPaths.add(path);
+					}
+				}
+			});
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The rules that apply to every project, before those of its
+	   .gitignore file. */
+	private static final String[] DEFAULT_RULES = {
+		".git/", //$NON-NLS-1$
+		".svn/", //$NON-NLS-1$
+		".hg/", //$NON-NLS-1$
+		".bzr/", //$NON-NLS-1$
+		"CVS/", //$NON-NLS-1$
+		".metadata/", //$NON-NLS-1$
+		".DS_Store" //$NON-NLS-1$
+	};
+
+	private static final String GITIGNORE_FILE = ".gitignore"; //$NON-NLS-1$
+	private static final String CLASSPATH_FILE = ".classpath"; //$NON-NLS-1$
+	private static final String ELEMENT_CLASSPATHENTRY = "classpathentry"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_KIND = "kind"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_PATH = "path"; //$NON-NLS-1$
+	private static final String ATTRIBUTE_OUTPUT = "output"; //$NON-NLS-1$
+	private static final String KIND_OUTPUT = "output"; //$NON-NLS-1$
+
+	/* The rules, in the order in which they are applied. */
+	private GlobPattern[] rules;
+
+	/* The project-relative paths of the output folders. */
+	private Set<String> outputPaths;
+}
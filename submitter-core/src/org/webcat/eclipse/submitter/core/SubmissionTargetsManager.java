@@ -0,0 +1,1144 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.Job;
+import org.webcat.submitter.Submitter;
+
+//--------------------------------------------------------------------------
+/**
+ * Loads the submission targets for the definitions URLs in the user's
+ * preferences off of the UI thread, so that the submission wizard can be
+ * opened without waiting for the definitions to be downloaded and parsed.
+ * <p>
+ * Each definitions URL is loaded by its own job, so the URLs are fetched
+ * concurrently, and a server that is slow or unreachable only holds up the
+ * targets that come from it.
+ * <p>
+ * A load is normally started in the background when the workbench starts
+ * (see {@link #prefetch()}). When the wizard is opened, it takes the targets
+ * that were loaded by those jobs, attaching itself to a job if it is still
+ * running rather than starting a second download. While the definitions are
+ * being read, outlines of the top-level targets are passed along so that
+ * the wizard can display them before the engine has finished.
+ * <p>
+ * The engine and targets are kept for the rest of the session, so opening
+ * the wizard again does not load anything, until the definitions URLs in the
+ * preferences change (see {@link #invalidate()}). They are only held
+ * through a soft reference, though, so that they can be reclaimed on a
+ * machine that is short on memory.
+ * <p>
+ * Loads never wait on the network for documents that have been downloaded
+ * before: the outline of the last good target tree is restored from its
+ * {@link TargetTreeSnapshot}, so that the wizard can display it at once, and
+ * the engine then parses the cached copies of the documents, without
+ * contacting the server. The targets may therefore be out
+ * of date, so once they have been loaded a low-priority refresh job checks
+ * the documents for changes (which costs only a conditional request each)
+ * and, if any have changed, loads the new targets in the background and
+ * swaps them in, all at once, for the next time the wizard is opened. The
+ * refresh then repeats at the interval set in the preferences (see
+ * {@link SubmitterCore#REFRESH_INTERVAL}). If a refresh fails, the last good
+ * targets are kept. A wizard that is open when new targets are swapped in
+ * hears about them through an {@link IDefinitionsRefreshListener}.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class SubmissionTargetsManager
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the definitions URLs currently stored in the user's preferences.
+	 *
+	 * @return the definitions URLs, in the order in which they were entered
+	 * @throws MalformedURLException if there are no URLs, or one of them is
+	 *     malformed
+	 */
+	public List<URL> getDefinitionsURLs() throws MalformedURLException
+	{
+		String[] values = SubmitterCore.parseURLList(
+				SubmitterCore.getDefault().getOption(
+						SubmitterCore.DEFINITIONS_URL));
+
+		if (values.length == 0)
+		{
+			throw new MalformedURLException(
+					"No definitions URL has been entered");
+		}
+
+		List<URL> urls = new ArrayList<URL>();
+
+		for (String value : values)
+		{
+			urls.add(new URL(value));
+		}
+
+		return urls;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts loading the submission targets in low-priority background jobs,
+	 * one for each definitions URL, unless they have already been loaded in
+	 * this session or are being loaded now. Nothing happens if there is no
+	 * valid definitions URL in the preferences.
+	 */
+	public synchronized void prefetch()
+	{
+		if (disposed)
+		{
+			return;
+		}
+
+		try
+		{
+			for (URL url : getDefinitionsURLs())
+			{
+				if (getSessionSource(url) == null)
+				{
+					startLoad(url);
+				}
+			}
+		}
+		catch (MalformedURLException e)
+		{
+			// Do nothing; the user will be told about the missing URL when
+			// they try to submit.
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts loading the submission targets for each of the current
+	 * definitions URLs on behalf of the specified listener. Each URL is
+	 * loaded by its own job, so the listener hears about each one as soon as
+	 * it is ready, no matter how long the others take.
+	 * <p>
+	 * If a background load for a URL is already in progress, the listener is
+	 * attached to it (and told about any outlines that have already been
+	 * read) rather than starting a second download. If the targets for a URL
+	 * have already been loaded in this session, the listener is notified
+	 * immediately on the calling thread.
+	 *
+	 * @param listener the listener to notify as the targets are loaded
+	 * @throws MalformedURLException if there are no definitions URLs, or one
+	 *     of them is malformed
+	 */
+	public synchronized void loadDefinitions(IDefinitionsLoadListener listener)
+	throws MalformedURLException
+	{
+		for (URL url : getDefinitionsURLs())
+		{
+			loadDefinitions(url, listener);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts loading the submission targets for a single definitions URL on
+	 * behalf of the specified listener, in the same way as
+	 * {@link #loadDefinitions(IDefinitionsLoadListener)}. This is used to try
+	 * again to load a URL that failed, without reloading the others.
+	 *
+	 * @param url the definitions URL
+	 * @param listener the listener to notify as the targets are loaded
+	 */
+	public synchronized void loadDefinitions(URL url,
+			IDefinitionsLoadListener listener)
+	{
+		DefinitionsSource source = getSessionSource(url);
+
+		if (source != null)
+		{
+			listener.definitionsLoaded(source);
+			return;
+		}
+
+		LoadJob job = startLoad(url);
+
+		// Someone is waiting on this job now, so it should run ahead of
+		// other background work if it has not started yet.
+
+		job.setPriority(Job.INTERACTIVE);
+		job.addListener(listener);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Stops notifying a listener that was passed to
+	 * {@link #loadDefinitions(IDefinitionsLoadListener)}, such as when the
+	 * wizard is closed before the targets have finished loading. The loads
+	 * themselves continue, so that the targets are ready the next time they
+	 * are needed.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public synchronized void removeLoadListener(
+			IDefinitionsLoadListener listener)
+	{
+		for (LoadJob job : loadJobs.values())
+		{
+			job.removeListener(listener);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds a listener that is notified when the background refresh replaces
+	 * the submission targets for a definitions URL.
+	 *
+	 * @param listener the listener to add
+	 */
+	public synchronized void addRefreshListener(
+			IDefinitionsRefreshListener listener)
+	{
+		refreshListeners.add(listener);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Removes a listener that was added by
+	 * {@link #addRefreshListener(IDefinitionsRefreshListener)}.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public synchronized void removeRefreshListener(
+			IDefinitionsRefreshListener listener)
+	{
+		refreshListeners.remove(listener);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Discards the submission targets that have been loaded in this session,
+	 * and any loads that are in progress, so that they are loaded again the
+	 * next time they are needed. This is called when the definitions URLs in
+	 * the preferences change.
+	 */
+	public synchronized void invalidate()
+	{
+		sessionSources.clear();
+
+		for (LoadJob job : loadJobs.values())
+		{
+			job.cancel();
+		}
+
+		loadJobs.clear();
+
+		if (refreshJob != null)
+		{
+			refreshJob.cancel();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Stops all of the manager's background work when the plug-in is
+	 * stopped: the load, refresh, and prefetch jobs are canceled, and this
+	 * waits a short time for any that are running to finish. No jobs are
+	 * scheduled after this has been called.
+	 * <p>
+	 * The jobs stop as soon as they next check for cancellation, but a job
+	 * that is waiting on the network inside the engine cannot be interrupted
+	 * and may not check again until its connection times out. Such a job is
+	 * not waited for beyond {@link #DISPOSE_TIMEOUT}, so that it cannot hold
+	 * up the shutdown of the workbench; it finishes on its own, without
+	 * scheduling anything.
+	 */
+	public void dispose()
+	{
+		synchronized (this)
+		{
+			disposed = true;
+		}
+
+		// The jobs may need the manager's lock to finish, so they are
+		// waited for without holding it.
+
+		IJobManager jobManager = Job.getJobManager();
+		jobManager.cancel(this);
+
+		final long deadline = System.currentTimeMillis() + DISPOSE_TIMEOUT;
+
+		try
+		{
+			jobManager.join(this, new NullProgressMonitor()
+			{
+				public boolean isCanceled()
+				{
+					return System.currentTimeMillis() >= deadline;
+				}
+			});
+		}
+		catch (OperationCanceledException e)
+		{
+			// Give up waiting; the jobs have already been canceled.
+		}
+		catch (InterruptedException e)
+		{
+			// Give up waiting; the jobs have already been canceled.
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Schedules the next background check for changes to the definitions
+	 * after the interval set in the preferences, or cancels it if the
+	 * interval is 0. This is called when the interval changes.
+	 */
+	public synchronized void scheduleRefresh()
+	{
+		scheduleRefresh(getRefreshInterval());
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Schedules the background check for changes to the definitions, unless
+	 * checking has been turned off in the preferences. If the check is
+	 * already scheduled, it is moved to the new time.
+	 *
+	 * @param delay the number of milliseconds to wait before checking
+	 */
+	private synchronized void scheduleRefresh(long delay)
+	{
+		if (disposed)
+		{
+			return;
+		}
+
+		if (refreshJob == null)
+		{
+			refreshJob = new RefreshJob(this);
+		}
+
+		if (getRefreshInterval() <= 0)
+		{
+			refreshJob.cancel();
+		}
+		else if (refreshJob.getState() == Job.RUNNING)
+		{
+			// The job schedules its next run itself when it finishes.
+
+			refreshRequested |= (delay == 0);
+		}
+		else
+		{
+			refreshJob.schedule(delay);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called by the refresh job when it finishes, to schedule its next run:
+	 * right away if a check was asked for while it was running, otherwise
+	 * after the interval set in the preferences. The regular check is not
+	 * scheduled if the job was canceled, and nothing is scheduled once the
+	 * manager has been disposed.
+	 *
+	 * @param canceled true if the job was canceled
+	 */
+	private synchronized void refreshDone(boolean canceled)
+	{
+		long interval = getRefreshInterval();
+		boolean requested = refreshRequested;
+		refreshRequested = false;
+
+		if (disposed || interval <= 0)
+		{
+			return;
+		}
+
+		if (requested)
+		{
+			refreshJob.schedule(0);
+		}
+		else if (!canceled)
+		{
+			refreshJob.schedule(interval);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the interval between background checks for changes to the
+	 * definitions.
+	 *
+	 * @return the interval in milliseconds, or 0 if the definitions should
+	 *     not be checked
+	 */
+	private long getRefreshInterval()
+	{
+		int minutes = SubmitterCore.getDefault().getPreferenceStore().getInt(
+				SubmitterCore.REFRESH_INTERVAL);
+
+		return Math.max(minutes, 0) * 60L * 1000L;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the submission targets for the specified URL that were loaded
+	 * earlier in this session, if they have not been reclaimed by the
+	 * garbage collector.
+	 *
+	 * @param url the definitions URL
+	 * @return the loaded targets, or null if they need to be loaded again
+	 */
+	private synchronized DefinitionsSource getSessionSource(URL url)
+	{
+		SoftReference<DefinitionsSource> ref =
+			sessionSources.get(url.toString());
+
+		return (ref != null) ? ref.get() : null;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called by a load job when it has finished, to keep its targets for the
+	 * rest of the session (if it succeeded) and mark it as done. Both happen
+	 * under the manager's lock, so a caller can never see the job as done
+	 * before its targets have been published, which would start a second
+	 * download for the same URL. If the job was canceled, the listeners
+	 * waiting on it are handed on to a new load instead of being notified.
+	 *
+	 * @param job the job that finished
+	 * @param source the targets that were loaded, or null if the load failed
+	 * @param error the error that occurred, or null if the load succeeded
+	 * @return the listeners that were waiting on the job, which should be
+	 *     notified once the caller has released any locks
+	 */
+	private synchronized List<IDefinitionsLoadListener> loadFinished(
+			LoadJob job, DefinitionsSource source, Throwable error)
+	{
+		// A job that was discarded by invalidate() may still finish; its
+		// targets are for a URL that is no longer wanted.
+
+		String key = job.url.toString();
+		boolean current = (loadJobs.get(key) == job);
+
+		if (current)
+		{
+			loadJobs.remove(key);
+
+			if (error == null)
+			{
+				sessionSources.put(key,
+						new SoftReference<DefinitionsSource>(source));
+			}
+		}
+
+		List<IDefinitionsLoadListener> listenersToNotify =
+			job.finish(source, error);
+
+		if (error instanceof OperationCanceledException)
+		{
+			// The job was canceled by invalidate() or dispose(). Anyone who
+			// was waiting on it is handed on to a new load, unless the
+			// plug-in is stopping and nobody will be waiting any more.
+
+			if (!disposed)
+			{
+				for (IDefinitionsLoadListener listener : listenersToNotify)
+				{
+					loadDefinitions(job.url, listener);
+				}
+			}
+
+			return new ArrayList<IDefinitionsLoadListener>();
+		}
+
+		if (current && error == null && !disposed)
+		{
+			// The targets may have come from cached copies of the
+			// documents, so check them for changes right away.
+
+			scheduleRefresh(0);
+
+			new PrefetchJob(this, source).schedule();
+		}
+
+		return listenersToNotify;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called by the refresh job when it has loaded new targets for a URL
+	 * whose documents have changed, to replace the ones kept for the session
+	 * and tell the refresh listeners about them. Nothing is replaced if the
+	 * targets have been discarded in the meantime.
+	 *
+	 * @param oldSource the targets that were checked for changes
+	 * @param newSource the targets that were loaded from the changed
+	 *     documents
+	 */
+	private void refreshFinished(DefinitionsSource oldSource,
+			DefinitionsSource newSource)
+	{
+		List<IDefinitionsRefreshListener> listenersToNotify;
+
+		synchronized (this)
+		{
+			if (getSessionSource(oldSource.getURL()) != oldSource)
+			{
+				return;
+			}
+
+			sessionSources.put(oldSource.getURL().toString(),
+					new SoftReference<DefinitionsSource>(newSource));
+
+			listenersToNotify =
+				new ArrayList<IDefinitionsRefreshListener>(refreshListeners);
+
+			if (!disposed)
+			{
+				new PrefetchJob(this, newSource).schedule();
+			}
+		}
+
+
+		for (IDefinitionsRefreshListener listener : listenersToNotify)
+		{
+			listener.definitionsRefreshed(oldSource, newSource);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Loads the submission targets from the specified URL into a new engine.
+	 * If a listener is given, it is first passed the outlines of the
+	 * top-level targets: all of them at once, from the last snapshot of the
+	 * tree, if there is one; otherwise each one as it is read from the
+	 * definitions document. A new snapshot is written once the engine has
+	 * loaded the targets, unless the last one was built from the same
+	 * documents.
+	 *
+	 * @param url the definitions URL
+	 * @param preferCached true to use the snapshot and cached documents
+	 *     without checking them for changes; false to make sure that the
+	 *     targets are up to date
+	 * @param listener the listener to notify as the outline of each top-level
+	 *     target is read, or null
+	 * @param monitor the progress monitor, which is checked for cancellation
+	 *     between the stages of the load
+	 * @return the targets that were loaded
+	 * @throws OperationCanceledException if the monitor was canceled
+	 * @throws Exception if the targets could not be loaded
+	 */
+	private static DefinitionsSource load(URL url, boolean preferCached,
+			ITargetOutlineListener listener, IProgressMonitor monitor)
+	throws Exception
+	{
+		DefinitionsCache cache =
+			SubmitterCore.getDefault().getDefinitionsCache();
+
+		cache.beginCachedFetch(preferCached);
+
+		try
+		{
+			URI uri = url.toURI();
+			File snapshotFile = cache.getSnapshotFile(uri);
+			TargetTreeSnapshot snapshot = null;
+
+			if (listener != null)
+			{
+				snapshot = TargetTreeSnapshot.read(
+						snapshotFile, cache, !preferCached);
+
+				if (snapshot != null)
+				{
+					for (TargetOutline outline
+							: snapshot.getTopLevelOutlines())
+					{
+						listener.outlineRead(outline);
+					}
+				}
+				else
+				{
+					readOutline(url, listener);
+				}
+			}
+
+			checkCanceled(monitor);
+
+			Submitter engine = new Submitter();
+			engine.readSubmissionTargets(url);
+
+			checkCanceled(monitor);
+
+			// Fetch the groups imported at the top level all at once, so
+			// that the user does not wait for them one at a time when the
+			// tree is displayed. Any that fail are loaded again (and
+			// reported) when they are expanded.
+
+			new ImportGroupLoader().loadImports(url, engine.getRoot(),
+					monitor);
+
+			checkCanceled(monitor);
+
+			// Only documents fetched over HTTP are recorded by the cache, so
+			// make sure that a local root document is included as well.
+
+			Map<String, String> documents = cache.getFetchedDocuments();
+
+			if (!documents.containsKey(uri.toString()))
+			{
+				documents.put(uri.toString(), cache.revalidate(uri));
+			}
+
+			if (snapshot == null
+					|| !snapshot.getDocuments().equals(documents))
+			{
+				TargetTreeSnapshot.write(snapshotFile, engine.getRoot(),
+						documents);
+			}
+
+			return new DefinitionsSource(url, engine, documents);
+		}
+		finally
+		{
+			cache.endCachedFetch();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Stops a load or refresh if its job has been canceled.
+	 *
+	 * @param monitor the job's progress monitor
+	 * @throws OperationCanceledException if the monitor was canceled
+	 */
+	private static void checkCanceled(IProgressMonitor monitor)
+	{
+		if (monitor.isCanceled())
+		{
+			throw new OperationCanceledException();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads an outline of the definitions and passes each top-level target
+	 * on to a listener as it is read, so that the user can see them while
+	 * the engine is still parsing. The outline starts as soon as the first
+	 * part of the document arrives, since the cache passes a download on as
+	 * it is read. This also leaves the document in the definitions cache,
+	 * so the engine's own request for it is served from there.
+	 *
+	 * @param url the definitions URL
+	 * @param listener the listener to notify as each top-level target is read
+	 */
+	private static void readOutline(URL url, ITargetOutlineListener listener)
+	{
+		try
+		{
+			new DefinitionsOutlineReader().read(url, listener);
+		}
+		catch (Exception e)
+		{
+			// The engine will report the same problem, with more detail,
+			// when it parses the document.
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Schedules a job to load the submission targets from the specified URL,
+	 * unless there is already one for that URL that is running.
+	 *
+	 * @param url the definitions URL
+	 * @return the job that is loading the submission targets
+	 */
+	private LoadJob startLoad(URL url)
+	{
+		String key = url.toString();
+		LoadJob job = loadJobs.get(key);
+
+		if ((job == null || job.isDone()) && !disposed)
+		{
+			job = new LoadJob(this, url);
+			loadJobs.put(key, job);
+			job.schedule();
+		}
+		else if (job == null)
+		{
+			// The plug-in is stopping; the listener will never be told
+			// anything, but nobody is waiting for it either.
+
+			job = new LoadJob(this, url);
+		}
+
+		return job;
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * The job that reads the submission targets into a new engine, passing
+	 * along the outline of the last snapshot first, without waiting on the
+	 * network for documents that have been downloaded before.
+	 */
+	private static class LoadJob extends Job implements ITargetOutlineListener
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public LoadJob(SubmissionTargetsManager owner, URL url)
+		{
+			super("Loading submission targets");
+
+			this.owner = owner;
+			this.url = url;
+
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		protected IStatus run(IProgressMonitor monitor)
+		{
+			DefinitionsSource newSource = null;
+			Throwable loadError = null;
+
+			try
+			{
+				newSource = load(url, true, this, monitor);
+
+				// Build the search index and the assignments' capabilities
+				// now, while nobody is waiting, so that they are ready when
+				// the user starts typing.
+
+				checkCanceled(monitor);
+				newSource.getIndex();
+
+				checkCanceled(monitor);
+				newSource.computeCapabilities();
+			}
+			catch (Throwable e)
+			{
+				loadError = e;
+			}
+
+			List<IDefinitionsLoadListener> listenersToNotify =
+				owner.loadFinished(this, newSource, loadError);
+
+			for (IDefinitionsLoadListener listener : listenersToNotify)
+			{
+				notifyFinished(listener);
+			}
+
+			// Any error other than cancellation is reported to the user
+			// when they open the wizard, so the job itself succeeds.
+
+			return (loadError instanceof OperationCanceledException)
+				? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+
+
+		// ----------------------------------------------------------
+		public boolean belongsTo(Object family)
+		{
+			return family == owner;
+		}
+
+
+		// ----------------------------------------------------------
+		public void outlineRead(TargetOutline outline)
+		{
+			List<IDefinitionsLoadListener> listenersToNotify;
+
+			synchronized (this)
+			{
+				outlines.add(outline);
+				listenersToNotify =
+					new ArrayList<IDefinitionsLoadListener>(listeners);
+			}
+
+			for (IDefinitionsLoadListener listener : listenersToNotify)
+			{
+				listener.outlineRead(url, outline);
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Adds a listener to the job. If the job has already finished, the
+		 * listener is notified immediately; otherwise, it is told about the
+		 * outlines that have been read so far, and will be notified of the
+		 * rest as they are read.
+		 *
+		 * @param listener the listener
+		 */
+		public void addListener(IDefinitionsLoadListener listener)
+		{
+			List<TargetOutline> outlinesSoFar;
+
+			synchronized (this)
+			{
+				if (done)
+				{
+					outlinesSoFar = null;
+				}
+				else
+				{
+					listeners.add(listener);
+					outlinesSoFar = new ArrayList<TargetOutline>(outlines);
+				}
+			}
+
+			if (outlinesSoFar == null)
+			{
+				notifyFinished(listener);
+			}
+			else
+			{
+				for (TargetOutline outline : outlinesSoFar)
+				{
+					listener.outlineRead(url, outline);
+				}
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		/**
+		 * Records the result of the job and marks it as done. This is called
+		 * by the manager while it holds its own lock.
+		 *
+		 * @param newSource the targets that were loaded, or null
+		 * @param loadError the error that occurred, or null
+		 * @return the listeners that were waiting on the job
+		 */
+		private synchronized List<IDefinitionsLoadListener> finish(
+				DefinitionsSource newSource, Throwable loadError)
+		{
+			source = newSource;
+			error = loadError;
+			done = true;
+
+			List<IDefinitionsLoadListener> listenersToNotify =
+				new ArrayList<IDefinitionsLoadListener>(listeners);
+			listeners.clear();
+			outlines.clear();
+
+			return listenersToNotify;
+		}
+
+
+		// ----------------------------------------------------------
+		public synchronized void removeListener(
+				IDefinitionsLoadListener listener)
+		{
+			listeners.remove(listener);
+		}
+
+
+		// ----------------------------------------------------------
+		private void notifyFinished(IDefinitionsLoadListener listener)
+		{
+			if (error != null)
+			{
+				listener.definitionsFailed(url, error);
+			}
+			else
+			{
+				listener.definitionsLoaded(source);
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		public synchronized boolean isDone()
+		{
+			return done;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The manager that started the job. */
+		private final SubmissionTargetsManager owner;
+
+		/* The definitions URL being loaded. */
+		private final URL url;
+
+		/* The targets that were loaded. */
+		private DefinitionsSource source;
+
+		/* The error that occurred while loading the targets, if any. */
+		private Throwable error;
+
+		/* Set to true when the job has finished. */
+		private boolean done;
+
+		/* The listeners waiting for the job to finish. */
+		private List<IDefinitionsLoadListener> listeners =
+			new ArrayList<IDefinitionsLoadListener>();
+
+		/* The outlines read so far, for listeners that are added late. */
+		private List<TargetOutline> outlines = new ArrayList<TargetOutline>();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * The job that checks the documents behind each set of targets kept for
+	 * the session for changes, and loads new targets from any that have
+	 * changed.
+	 */
+	private static class RefreshJob extends Job
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public RefreshJob(SubmissionTargetsManager owner)
+		{
+			super("Checking for changes to submission targets");
+
+			this.owner = owner;
+
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		protected IStatus run(IProgressMonitor monitor)
+		{
+			try
+			{
+				return checkForChanges(monitor);
+			}
+			finally
+			{
+				owner.refreshDone(monitor.isCanceled());
+			}
+		}
+
+
+		// ----------------------------------------------------------
+		public boolean belongsTo(Object family)
+		{
+			return family == owner;
+		}
+
+
+		// ----------------------------------------------------------
+		private IStatus checkForChanges(IProgressMonitor monitor)
+		{
+			DefinitionsCache cache =
+				SubmitterCore.getDefault().getDefinitionsCache();
+
+			try
+			{
+				for (URL url : owner.getDefinitionsURLs())
+				{
+					if (monitor.isCanceled())
+					{
+						return Status.CANCEL_STATUS;
+					}
+
+					DefinitionsSource oldSource = owner.getSessionSource(url);
+
+					if (oldSource == null)
+					{
+						continue;
+					}
+
+					try
+					{
+						if (!TargetTreeSnapshot.isCurrent(
+								oldSource.getDocuments(), cache))
+						{
+							DefinitionsSource newSource =
+								load(url, false, null, monitor);
+							checkCanceled(monitor);
+							newSource.getIndex();
+							newSource.computeCapabilities();
+
+							owner.refreshFinished(oldSource, newSource);
+						}
+					}
+					catch (Throwable e)
+					{
+						// Keep the last good targets; the server may just be
+						// unreachable right now.
+					}
+				}
+			}
+			catch (MalformedURLException e)
+			{
+				// Do nothing; there is nothing to refresh.
+			}
+
+			return Status.OK_STATUS;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The manager that owns the job. */
+		private final SubmissionTargetsManager owner;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * The job that loads the imported groups that the user is likely to open
+	 * from a newly loaded set of targets, so that they are ready before they
+	 * are asked for.
+	 */
+	private static class PrefetchJob extends Job
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public PrefetchJob(SubmissionTargetsManager owner,
+				DefinitionsSource source)
+		{
+			super("Loading frequently used submission targets");
+
+			this.owner = owner;
+			this.source = source;
+
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		protected IStatus run(IProgressMonitor monitor)
+		{
+			ImportGroupUsage usage =
+				SubmitterCore.getDefault().getImportGroupUsage();
+
+			if (usage.prefetch(source, monitor) > 0)
+			{
+				// Make the targets in the new groups visible to the filter,
+				// and ready to be selected.
+
+				source.rebuildIndex();
+				source.computeCapabilities();
+			}
+
+			return monitor.isCanceled() ? Status.CANCEL_STATUS
+					: Status.OK_STATUS;
+		}
+
+
+		// ----------------------------------------------------------
+		public boolean belongsTo(Object family)
+		{
+			return family == owner;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The manager that started the job. */
+		private final SubmissionTargetsManager owner;
+
+		/* The targets whose imported groups should be loaded. */
+		private final DefinitionsSource source;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The longest time, in milliseconds, that dispose() waits for the jobs
+	   to finish once they have been canceled. */
+	private static final long DISPOSE_TIMEOUT = 2000;
+
+	/* The job that periodically checks the definitions for changes, created
+	   when it is first needed. */
+	private RefreshJob refreshJob;
+
+	/* Set when a check for changes is asked for while the refresh job is
+	   running, so that it runs again as soon as it finishes. */
+	private boolean refreshRequested;
+
+	/* Set once the plug-in is stopping, after which no jobs are
+	   scheduled. */
+	private boolean disposed;
+
+	/* The listeners to notify when the refresh job replaces targets. */
+	private List<IDefinitionsRefreshListener> refreshListeners =
+		new ArrayList<IDefinitionsRefreshListener>();
+
+	/* The jobs that are loading submission targets, keyed by definitions
+	   URL. */
+	private Map<String, LoadJob> loadJobs = new HashMap<String, LoadJob>();
+
+	/* The targets loaded in this session, keyed by definitions URL. They are
+	   held softly so that they can be reclaimed if memory runs low, in
+	   which case they are simply loaded again. */
+	private Map<String, SoftReference<DefinitionsSource>> sessionSources =
+		new HashMap<String, SoftReference<DefinitionsSource>>();
+}
@@ -24,6 +24,8 @@ package org.webcat.eclipse.submitter.core;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -78,6 +80,22 @@ public class SubmittableEclipseResource implements ISubmittableItem
 	}
 
 
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code SubmittableEclipseResource} whose path has
+	 * already been worked out, as by a {@link ProjectTraversal}.
+	 *
+	 * @param resource the Eclipse resource
+	 * @param filename the path of the resource relative to the root of the
+	 *     submission
+	 */
+	SubmittableEclipseResource(IResource resource, String filename)
+	{
+		this.resource = resource;
+		this.filename = filename;
+	}
+
+
 	//~ Methods ..............................................................
 
 	// ----------------------------------------------------------
@@ -86,7 +104,11 @@ public class SubmittableEclipseResource implements ISubmittableItem
      */
 	public ISubmittableItem[] getChildren()
 	{
-		if (getKind() == SubmittableItemKind.FILE)
+		if (children != null)
+		{
+			return children;
+		}
+		else if (getKind() == SubmittableItemKind.FILE)
 		{
 			return new ISubmittableItem[0];
 		}
@@ -94,22 +116,27 @@ public class SubmittableEclipseResource implements ISubmittableItem
 		{
 			IContainer container = (IContainer) resource;
 
-			IResource[] children;
 			try
 			{
-				children = container.members();
+				IResource[] members = container.members();
+				ResourceFilter filter = getFilter();
 
-				ISubmittableItem[] items =
-					new ISubmittableItem[children.length];
+				List<ISubmittableItem> items =
+					new ArrayList<ISubmittableItem>(members.length);
 
-				int i = 0;
-				for (IResource child : children)
+				for (IResource child : members)
 				{
-					items[i] = new SubmittableEclipseResource(this, child);
-					i++;
+					if (!filter.isExcluded(child))
+					{
+						SubmittableEclipseResource item =
+							new SubmittableEclipseResource(this, child);
+						item.filter = filter;
+						items.add(item);
+					}
 				}
 
-				return items;
+				children = items.toArray(new ISubmittableItem[items.size()]);
+				return children;
 			}
 			catch (CoreException e)
 			{
@@ -125,9 +152,13 @@ public class SubmittableEclipseResource implements ISubmittableItem
      */
 	public String getFilename()
 	{
-		if (parent == null)
+		if (filename != null)
 		{
-			return resource.getName();
+			return filename;
+		}
+		else if (parent == null)
+		{
+			filename = resource.getName();
 		}
         else
         {
@@ -138,8 +169,10 @@ public class SubmittableEclipseResource implements ISubmittableItem
                 parentName += "/";
             }
 
-            return parentName + resource.getName();
+            filename = parentName + resource.getName();
         }
+
+		return filename;
 	}
 
 
@@ -180,6 +213,50 @@ public class SubmittableEclipseResource implements ISubmittableItem
 	}
 
 
+	// ----------------------------------------------------------
+	/**
+	 * Gets the Eclipse resource represented by this item.
+	 *
+	 * @return the resource
+	 */
+	public IResource getResource()
+	{
+		return resource;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Sets the items for the children of this folder, when they have been
+	 * collected by a {@link ProjectTraversal}.
+	 *
+	 * @param children the items for the children
+	 */
+	void setChildren(ISubmittableItem[] children)
+	{
+		this.children = children;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the filter that decides which of the resource's children are
+	 * left out, creating it for the resource's project if this is the
+	 * first item to need it.
+	 *
+	 * @return the filter
+	 */
+	private ResourceFilter getFilter()
+	{
+		if (filter == null)
+		{
+			filter = ResourceFilter.forProject(resource.getProject());
+		}
+
+		return filter;
+	}
+
+
     // ----------------------------------------------------------
     /**
      * Gets a human-readable string representation of this item.
@@ -200,4 +277,16 @@ public class SubmittableEclipseResource implements ISubmittableItem
 
 	/* The resource represented by this submittable item. */
 	private IResource resource;
+
+	/* The path of the resource relative to the root of the submission,
+	   worked out when it is first needed. */
+	private String filename;
+
+	/* The items for the children of the resource, created when they are
+	   first needed. */
+	private ISubmittableItem[] children;
+
+	/* Decides which of the children are left out, shared by all the items
+	   beneath the first one that needed it. */
+	private ResourceFilter filter;
 }
@@ -25,6 +25,7 @@ import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.regex.Pattern;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.preference.IPreferenceStore;
@@ -116,27 +117,166 @@ public class SubmitterCore extends AbstractUIPlugin
 				if (DEFINITIONS_URL.equals(event.getProperty()))
 				{
 					updateOpenWebCATEnablement();
+
+					if (submissionTargetsManager != null)
+					{
+						submissionTargetsManager.invalidate();
+					}
+				}
+				else if (REFRESH_INTERVAL.equals(event.getProperty()))
+				{
+					if (submissionTargetsManager != null)
+					{
+						submissionTargetsManager.scheduleRefresh();
+					}
 				}
 			}			
 		});
 		
 		updateOpenWebCATEnablement();
+
+		definitionsCache = new DefinitionsCache(getStateLocation().append(
+				DEFINITIONS_CACHE_DIRECTORY).toFile());
+		definitionsCache.install();
+
+		importGroupUsage = new ImportGroupUsage(getStateLocation().append(
+				IMPORT_GROUP_USAGE_FILE).toFile());
+
+		projectManifestIndex = new ProjectManifestIndex(getStateLocation()
+				.append(PROJECT_MANIFEST_INDEX_FILE).toFile());
+
+		try
+		{
+			projectManifestIndex.start();
+		}
+		catch (CoreException e)
+		{
+			log("Could not start the project manifest index", e);
+		}
+
+		submissionTargetsManager = new SubmissionTargetsManager();
+	}
+
+
+	// ----------------------------------------------------------
+	public void stop(BundleContext context) throws Exception
+	{
+		if (submissionTargetsManager != null)
+		{
+			submissionTargetsManager.dispose();
+			submissionTargetsManager = null;
+		}
+
+		if (importGroupUsage != null)
+		{
+			importGroupUsage.flush();
+		}
+
+		if (projectManifestIndex != null)
+		{
+			projectManifestIndex.stop();
+			projectManifestIndex = null;
+		}
+
+		if (definitionsCache != null)
+		{
+			definitionsCache.uninstall();
+			definitionsCache = null;
+		}
+
+		super.stop(context);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the on-disk cache that holds the submission target definitions
+	 * documents.
+	 *
+	 * @return the definitions cache
+	 */
+	public DefinitionsCache getDefinitionsCache()
+	{
+		return definitionsCache;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the record of the imported groups that the user has used, which
+	 * decides which groups are loaded ahead of time.
+	 *
+	 * @return the imported group usage
+	 */
+	public ImportGroupUsage getImportGroupUsage()
+	{
+		return importGroupUsage;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the index of the files in the projects that have been submitted.
+	 *
+	 * @return the project manifest index
+	 */
+	public ProjectManifestIndex getProjectManifestIndex()
+	{
+		return projectManifestIndex;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the object that loads the submission targets in the background.
+	 *
+	 * @return the submission targets manager
+	 */
+	public SubmissionTargetsManager getSubmissionTargetsManager()
+	{
+		return submissionTargetsManager;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Splits a preference value that holds a list of URLs, such as
+	 * {@link #DEFINITIONS_URL}, into the individual URLs. The URLs are
+	 * separated by whitespace.
+	 *
+	 * @param value the preference value
+	 * @return the URLs in the list, which is empty if the value is null or
+	 *     blank
+	 */
+	public static String[] parseURLList(String value)
+	{
+		if (value == null || value.trim().length() == 0)
+		{
+			return new String[0];
+		}
+
+		return value.trim().split("\\s+");
 	}
 
 
 	// ----------------------------------------------------------
 	public void updateOpenWebCATEnablement()
 	{
-		String url = getPreferenceStore().getString(DEFINITIONS_URL);
+		String[] urls = parseURLList(
+				getPreferenceStore().getString(DEFINITIONS_URL));
 		boolean isWebCAT = false;
 
-		if (url != null && url.length() > 0)
+		Pattern wcPattern = Pattern.compile(
+				"https?://.+/Web-CAT.woa/.*",
+				Pattern.CASE_INSENSITIVE);
+
+		for (String url : urls)
 		{
-			Pattern wcPattern = Pattern.compile(
-					"https?://.+/Web-CAT.woa/.*",
-					Pattern.CASE_INSENSITIVE);
-			
-			isWebCAT = wcPattern.matcher(url).matches();
+			if (wcPattern.matcher(url).matches())
+			{
+				isWebCAT = true;
+				break;
+			}
 		}
 		
 		System.setProperty(PROP_SUBMISSION_URL_IS_WEBCAT,
@@ -201,10 +341,16 @@ public class SubmitterCore extends AbstractUIPlugin
 	/* The plug-in identifier of the submitter's core support. */
 	public static final String PLUGIN_ID = "net.sf.webcat.eclipse.submitter";
 
-	/* The preference key that stores the URL to the submission targets
-	   file. */
+	/* The preference key that stores the URLs to the submission targets
+	   files, separated by whitespace (see parseURLList). */
 	public static final String DEFINITIONS_URL = PLUGIN_ID + ".definitions.URL";
 
+	/* The preference key that stores the number of minutes between
+	   background checks for changes to the submission target definitions,
+	   or 0 to never check. */
+	public static final String REFRESH_INTERVAL = PLUGIN_ID
+			+ ".definitions.refreshInterval";
+
 	/* The preference key that stores the outgoing mail server hostname. */
 	public static final String IDENTIFICATION_SMTPSERVER = PLUGIN_ID
 	        + ".identification.smtpServer";
@@ -220,6 +366,32 @@ public class SubmitterCore extends AbstractUIPlugin
 	private static final String PROP_SUBMISSION_URL_IS_WEBCAT =
 			PLUGIN_ID + ".SubmissionURLIsWebCAT";
 
+	/* The name of the directory, under the plug-in's state location, in
+	   which the definitions documents are cached. */
+	private static final String DEFINITIONS_CACHE_DIRECTORY = "definitions";
+
+	/* The name of the file, under the plug-in's state location, in which
+	   the usage of imported groups is recorded. */
+	private static final String IMPORT_GROUP_USAGE_FILE =
+		"import-usage.properties";
+
+	/* The name of the file, under the plug-in's state location, in which
+	   the project manifest index is saved. */
+	private static final String PROJECT_MANIFEST_INDEX_FILE =
+		"manifest-index.dat";
+
+	/* The on-disk cache of definitions documents. */
+	private DefinitionsCache definitionsCache;
+
+	/* The usage of imported groups. */
+	private ImportGroupUsage importGroupUsage;
+
+	/* The index of the files in submitted projects. */
+	private ProjectManifestIndex projectManifestIndex;
+
+	/* Loads the submission targets in the background. */
+	private SubmissionTargetsManager submissionTargetsManager;
+
 	/* The plug-in's resource bundle. */
 	private ResourceBundle resourceBundle;
 }
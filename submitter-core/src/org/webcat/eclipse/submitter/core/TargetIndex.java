@@ -0,0 +1,404 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.webcat.submitter.SubmissionTargetException;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * An in-memory index of the names of the submission targets in a target
+ * tree, used to find targets as the user types in the submission wizard.
+ * <p>
+ * Each target that is displayed in the tree is indexed under its path: its
+ * own name and the names of the groups that contain it. The index keeps,
+ * for each character that occurs in any path, the set of targets whose
+ * paths contain it. A query is matched fuzzily: a target matches if the
+ * characters of the query appear in its path in order, although not
+ * necessarily next to each other, so "hw3" finds "Homework 3". The
+ * candidates are found by intersecting the sets for the characters in the
+ * query, so only targets that contain all of them are examined, and the
+ * matches are ranked so that exact substrings, matches at the start of
+ * words, and matches in the target's own name come first.
+ * <p>
+ * The index is built once, from the targets that have been loaded; imported
+ * groups that have not been loaded yet are not loaded to index them.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class TargetIndex
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Builds an index of the targets in the specified tree.
+	 *
+	 * @param root the root of the target tree
+	 */
+	public TargetIndex(SubmissionTarget root)
+	{
+		targets = new ArrayList<SubmissionTarget>();
+		paths = new ArrayList<String>();
+		nameStarts = new ArrayList<Integer>();
+
+		addChildren(root, ""); //$NON-NLS-1$
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the number of targets in the index.
+	 *
+	 * @return the number of targets
+	 */
+	public int size()
+	{
+		return targets.size();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the targets whose paths match the specified query, best matches
+	 * first. Case is ignored, as is whitespace in the query.
+	 *
+	 * @param query the text typed by the user
+	 * @param limit the maximum number of targets to return
+	 * @return the matching targets, which is empty if the query is blank
+	 */
+	public List<SubmissionTarget> find(String query, int limit)
+	{
+		String normalized = normalizeQuery(query);
+
+		if (normalized.length() == 0)
+		{
+			return Collections.emptyList();
+		}
+
+		BitSet candidates = null;
+
+		for (int i = 0; i < normalized.length(); i++)
+		{
+			BitSet entries = characterIndex.get(normalized.charAt(i));
+
+			if (entries == null)
+			{
+				return Collections.emptyList();
+			}
+
+			if (candidates == null)
+			{
+				candidates = (BitSet) entries.clone();
+			}
+			else
+			{
+				candidates.and(entries);
+			}
+		}
+
+		final int[] scores = new int[targets.size()];
+		List<Integer> matches = new ArrayList<Integer>();
+
+		for (int i = candidates.nextSetBit(0); i >= 0;
+				i = candidates.nextSetBit(i + 1))
+		{
+			int score = score(normalized, paths.get(i), nameStarts.get(i));
+
+			if (score > 0)
+			{
+				scores[i] = score;
+				matches.add(i);
+			}
+		}
+
+		Collections.sort(matches, new Comparator<Integer>() {
+			public int compare(Integer entry1, Integer entry2)
+			{
+				return scores[entry2] - scores[entry1];
+			}
+		});
+
+		List<SubmissionTarget> result = new ArrayList<SubmissionTarget>();
+
+		for (int i = 0; i < matches.size() && i < limit; i++)
+		{
+			result.add(targets.get(matches.get(i)));
+		}
+
+		return result;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds the visible children of a container to the index, flattening
+	 * groups without names the same way as the tree in the wizard.
+	 *
+	 * @param container the container
+	 * @param parentPath the path of the nearest named group that contains
+	 *     the children, or the empty string
+	 */
+	private void addChildren(SubmissionTarget container, String parentPath)
+	{
+		if (!container.isLoaded())
+		{
+			return;
+		}
+
+		SubmissionTarget[] children;
+
+		try
+		{
+			children = container.getLogicalChildren();
+		}
+		catch (SubmissionTargetException e)
+		{
+			return;
+		}
+
+		for (SubmissionTarget child : children)
+		{
+			if (child.isHidden())
+			{
+				continue;
+			}
+
+			if (child.isContainer() && !child.isNested())
+			{
+				addChildren(child, parentPath);
+			}
+			else if (child.getName() != null)
+			{
+				String path = (parentPath.length() == 0)
+					? child.getName()
+					: parentPath + PATH_SEPARATOR + child.getName();
+
+				add(child, path.toLowerCase(),
+						path.length() - child.getName().length());
+
+				if (child.isContainer())
+				{
+					addChildren(child, path);
+				}
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds a target to the index.
+	 *
+	 * @param target the target
+	 * @param path the lower-case path of the target
+	 * @param nameStart the index in the path at which the target's own name
+	 *     begins
+	 */
+	private void add(SubmissionTarget target, String path, int nameStart)
+	{
+		int entry = targets.size();
+
+		targets.add(target);
+		paths.add(path);
+		nameStarts.add(nameStart);
+
+		for (int i = 0; i < path.length(); i++)
+		{
+			char ch = path.charAt(i);
+
+			if (Character.isWhitespace(ch))
+			{
+				continue;
+			}
+
+			BitSet entries = characterIndex.get(ch);
+
+			if (entries == null)
+			{
+				entries = new BitSet();
+				characterIndex.put(ch, entries);
+			}
+
+			entries.set(entry);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Converts a query to lower case and removes any whitespace from it.
+	 *
+	 * @param query the query
+	 * @return the normalized query
+	 */
+	private static String normalizeQuery(String query)
+	{
+		StringBuffer buffer = new StringBuffer();
+
+		for (int i = 0; i < query.length(); i++)
+		{
+			char ch = query.charAt(i);
+
+			if (!Character.isWhitespace(ch))
+			{
+				buffer.append(Character.toLowerCase(ch));
+			}
+		}
+
+		return buffer.toString();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Scores how well a path matches a query.
+	 *
+	 * @param query the normalized query
+	 * @param path the lower-case path
+	 * @param nameStart the index in the path at which the target's own name
+	 *     begins
+	 * @return the score, which is higher for better matches, or 0 if the
+	 *     characters of the query do not appear in the path in order
+	 */
+	private static int score(String query, String path, int nameStart)
+	{
+		// An exact substring is the best kind of match, especially at the
+		// start of a word in the target's own name.
+
+		int index = path.indexOf(query, nameStart);
+
+		if (index == -1)
+		{
+			index = path.indexOf(query);
+		}
+
+		if (index != -1)
+		{
+			int score = SCORE_SUBSTRING - index;
+
+			if (index >= nameStart)
+			{
+				score += SCORE_IN_NAME;
+			}
+
+			if (isWordStart(path, index))
+			{
+				score += SCORE_WORD_START;
+			}
+
+			return score;
+		}
+
+		// Otherwise, match the characters of the query in order, skipping
+		// whitespace in the path.
+
+		int score = SCORE_SUBSEQUENCE;
+		int position = 0;
+		int previous = -2;
+
+		for (int i = 0; i < query.length(); i++)
+		{
+			char ch = query.charAt(i);
+
+			while (position < path.length() && path.charAt(position) != ch)
+			{
+				position++;
+			}
+
+			if (position == path.length())
+			{
+				return 0;
+			}
+
+			if (isWordStart(path, position))
+			{
+				score += SCORE_WORD_START;
+			}
+
+			if (position == previous + 1 || (position == previous + 2
+					&& Character.isWhitespace(path.charAt(previous + 1))))
+			{
+				score += SCORE_CONSECUTIVE;
+			}
+
+			if (position >= nameStart)
+			{
+				score += SCORE_IN_NAME / query.length();
+			}
+
+			previous = position;
+			position++;
+		}
+
+		return Math.max(score - (previous - query.length()), 1);
+	}
+
+
+	// ----------------------------------------------------------
+	private static boolean isWordStart(String path, int index)
+	{
+		return index == 0
+			|| !Character.isLetterOrDigit(path.charAt(index - 1))
+			|| (Character.isDigit(path.charAt(index))
+					!= Character.isDigit(path.charAt(index - 1)));
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* Separates the names in the path of a target. */
+	private static final String PATH_SEPARATOR = "/"; //$NON-NLS-1$
+
+	/* The scores given to the different parts of a match. */
+	private static final int SCORE_SUBSTRING = 10000;
+	private static final int SCORE_SUBSEQUENCE = 1000;
+	private static final int SCORE_IN_NAME = 500;
+	private static final int SCORE_WORD_START = 100;
+	private static final int SCORE_CONSECUTIVE = 50;
+
+	/* The indexed targets. */
+	private List<SubmissionTarget> targets;
+
+	/* The lower-case path of each indexed target. */
+	private List<String> paths;
+
+	/* The index in each path at which the target's own name begins. */
+	private List<Integer> nameStarts;
+
+	/* The entries whose paths contain each character. */
+	private Map<Character, BitSet> characterIndex =
+		new HashMap<Character, BitSet>();
+}
@@ -0,0 +1,168 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//--------------------------------------------------------------------------
+/**
+ * A lightweight outline of a group or assignment in a submission target
+ * definitions document, containing only what is needed to display it in the
+ * target tree. Outlines are produced by a {@link DefinitionsOutlineReader}
+ * while the document is still being read, or restored from a
+ * {@link TargetTreeSnapshot}, so that the user can see the targets before
+ * the engine has finished parsing them.
+ * <p>
+ * An outline cannot be submitted to; it is replaced by the corresponding
+ * {@code SubmissionTarget} once the definitions have been fully loaded.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class TargetOutline
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code TargetOutline}.
+	 *
+	 * @param parent the outline of the containing group, or null if this is
+	 *     the root of the document
+	 * @param name the name of the target, or null if it does not have one
+	 * @param container true if the target is a group; false if it is an
+	 *     assignment
+	 * @param hidden true if the target should not be displayed
+	 */
+	public TargetOutline(TargetOutline parent, String name, boolean container,
+			boolean hidden)
+	{
+		this.parent = parent;
+		this.name = name;
+		this.container = container;
+		this.hidden = hidden;
+		this.children = new ArrayList<TargetOutline>();
+
+		if (parent != null)
+		{
+			parent.children.add(this);
+		}
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the outline of the group that contains this target.
+	 *
+	 * @return the parent outline, or null if this is the root
+	 */
+	public TargetOutline getParent()
+	{
+		return parent;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the name of the target.
+	 *
+	 * @return the name of the target, or null if it does not have one
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the target is a group.
+	 *
+	 * @return true if the target is a group; false if it is an assignment
+	 */
+	public boolean isContainer()
+	{
+		return container;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the target should be hidden.
+	 *
+	 * @return true if the target should not be displayed
+	 */
+	public boolean isHidden()
+	{
+		return hidden;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the group is displayed as its own node
+	 * in the tree. Like the engine's groups, an unnamed group is not; its
+	 * children are displayed in its place.
+	 *
+	 * @return true if the target is a named group
+	 */
+	public boolean isNested()
+	{
+		return container && name != null;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the outlines of the targets in this group, in the order in which
+	 * they were declared.
+	 *
+	 * @return the child outlines
+	 */
+	public List<TargetOutline> getChildren()
+	{
+		return Collections.unmodifiableList(children);
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The outline of the containing group. */
+	private TargetOutline parent;
+
+	/* The name of the target. */
+	private String name;
+
+	/* Indicates whether the target is a group. */
+	private boolean container;
+
+	/* Indicates whether the target should be hidden. */
+	private boolean hidden;
+
+	/* The outlines of the targets in this group. */
+	private List<TargetOutline> children;
+}
@@ -0,0 +1,289 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.webcat.submitter.SubmissionTargetException;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * Identifies a submission target in a way that survives the targets being
+ * loaded again, such as in a later session: the definitions URL that the
+ * target came from, and the names of the target and the named groups that
+ * contain it.
+ * <p>
+ * A path is resolved against the targets themselves rather than the tree
+ * that displays them, and without loading anything. If an imported group on
+ * the way to the target has not been loaded yet, the group is reported so
+ * that the caller can load just that group and try again.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class TargetPath
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code TargetPath}.
+	 *
+	 * @param definitionsURL the definitions URL that the target came from
+	 * @param names the names of the named groups that contain the target,
+	 *     outermost first, followed by the name of the target itself
+	 */
+	public TargetPath(String definitionsURL, List<String> names)
+	{
+		this.definitionsURL = definitionsURL;
+		this.names = new ArrayList<String>(names);
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the path of a target.
+	 *
+	 * @param source the targets that the target belongs to
+	 * @param target the target
+	 * @return the path of the target, or null if it cannot be identified by
+	 *     name
+	 */
+	public static TargetPath of(DefinitionsSource source,
+			SubmissionTarget target)
+	{
+		List<String> names = new ArrayList<String>();
+
+		for (SubmissionTarget t = target; t != null && t != source.getRoot();
+				t = t.parent())
+		{
+			if (t == target || t.isNested())
+			{
+				if (t.getName() == null)
+				{
+					return null;
+				}
+
+				names.add(t.getName());
+			}
+		}
+
+		Collections.reverse(names);
+
+		return new TargetPath(source.getURL().toString(), names);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Parses a path that was converted to a string by
+	 * {@link #toString()}.
+	 *
+	 * @param value the string
+	 * @return the path, or null if the string is null or is not a path
+	 */
+	public static TargetPath parse(String value)
+	{
+		if (value == null)
+		{
+			return null;
+		}
+
+		String[] parts = value.split(SEPARATOR, -1);
+
+		if (parts.length < 2 || parts[0].length() == 0)
+		{
+			return null;
+		}
+
+		List<String> names = new ArrayList<String>();
+
+		for (int i = 1; i < parts.length; i++)
+		{
+			names.add(parts[i]);
+		}
+
+		return new TargetPath(parts[0], names);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the definitions URL that the target came from.
+	 *
+	 * @return the definitions URL
+	 */
+	public String getDefinitionsURL()
+	{
+		return definitionsURL;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the names that make up the path.
+	 *
+	 * @return the names of the named groups that contain the target,
+	 *     outermost first, followed by the name of the target itself
+	 */
+	public List<String> getNames()
+	{
+		return Collections.unmodifiableList(names);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the target with this path in a target tree, without loading any
+	 * imported groups.
+	 *
+	 * @param root the root of the target tree
+	 * @param unloadedGroups if not null, receives the imported groups that
+	 *     have not been loaded yet and that have to be loaded before the
+	 *     rest of the path can be resolved
+	 * @return the target, or null if it was not found
+	 */
+	public SubmissionTarget resolve(SubmissionTarget root,
+			List<SubmissionTarget> unloadedGroups)
+	{
+		SubmissionTarget current = root;
+
+		for (String name : names)
+		{
+			List<SubmissionTarget> unloaded = new ArrayList<SubmissionTarget>();
+			current = findChild(current, name, unloaded);
+
+			if (current == null)
+			{
+				if (unloadedGroups != null)
+				{
+					unloadedGroups.addAll(unloaded);
+				}
+
+				return null;
+			}
+		}
+
+		return current;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the visible child of a container with the specified name,
+	 * looking inside groups without names the same way that the tree in the
+	 * wizard flattens them.
+	 *
+	 * @param container the container
+	 * @param name the name of the child
+	 * @param unloaded receives the containers that could not be searched
+	 *     because they have not been loaded
+	 * @return the child, or null if it was not found
+	 */
+	private static SubmissionTarget findChild(SubmissionTarget container,
+			String name, List<SubmissionTarget> unloaded)
+	{
+		if (!container.isLoaded())
+		{
+			unloaded.add(container);
+			return null;
+		}
+
+		SubmissionTarget[] children;
+
+		try
+		{
+			children = container.getLogicalChildren();
+		}
+		catch (SubmissionTargetException e)
+		{
+			return null;
+		}
+
+		for (SubmissionTarget child : children)
+		{
+			if (child.isHidden())
+			{
+				continue;
+			}
+
+			if (child.isContainer() && !child.isNested())
+			{
+				SubmissionTarget match = findChild(child, name, unloaded);
+
+				if (match != null)
+				{
+					return match;
+				}
+			}
+			else if (name.equals(child.getName()))
+			{
+				return child;
+			}
+		}
+
+		return null;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Converts the path to a string that can be stored in the preferences
+	 * and read back by {@link #parse(String)}.
+	 *
+	 * @return the path as a string
+	 */
+	public String toString()
+	{
+		StringBuffer buffer = new StringBuffer(definitionsURL);
+
+		for (String name : names)
+		{
+			buffer.append(SEPARATOR);
+			buffer.append(name);
+		}
+
+		return buffer.toString();
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* Separates the definitions URL and the names in the string form of a
+	   path. A line break cannot appear in a URL or, in practice, in the
+	   name of a target. */
+	private static final String SEPARATOR = "\n"; //$NON-NLS-1$
+
+	/* The definitions URL that the target came from. */
+	private String definitionsURL;
+
+	/* The names of the named groups that contain the target, followed by the
+	   name of the target itself. */
+	private List<String> names;
+}
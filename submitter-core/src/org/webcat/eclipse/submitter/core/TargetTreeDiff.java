@@ -0,0 +1,300 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.webcat.submitter.SubmissionTargetException;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * The structural differences between two submission target trees loaded
+ * from the same definitions, such as before and after a refresh.
+ * <p>
+ * The visible targets in the two trees are matched by path: the root
+ * targets match, and a child of a matched group matches the child of the
+ * other group with the same name and kind (group or assignment). Groups
+ * without names are looked inside, the same way that the tree in the
+ * wizard flattens them, and if two children of a group have the same name
+ * they are matched in order. Targets in the old tree that have no match
+ * were removed, and targets in the new tree that have no match were added.
+ * <p>
+ * This lets a tree that displays the old targets switch each of its
+ * elements over to the matching new one and only add and remove the
+ * elements that changed, instead of being rebuilt from scratch. Imported
+ * groups that have not been loaded in either tree are matched but not
+ * looked inside; nothing is loaded to compute the differences.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class TargetTreeDiff
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Computes the differences between two target trees.
+	 *
+	 * @param oldRoot the root of the old target tree
+	 * @param newRoot the root of the new target tree
+	 */
+	public TargetTreeDiff(SubmissionTarget oldRoot, SubmissionTarget newRoot)
+	{
+		match(oldRoot, newRoot);
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the target in the new tree that matches a target in the old one.
+	 *
+	 * @param oldTarget a target in the old tree
+	 * @return the matching target in the new tree, or null if the target was
+	 *     removed (or the object is not a target in the old tree)
+	 */
+	public SubmissionTarget getNewTarget(Object oldTarget)
+	{
+		return matches.get(oldTarget);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the number of visible targets in the new tree that have no match
+	 * in the old one.
+	 *
+	 * @return the number of targets that were added
+	 */
+	public int getAddedCount()
+	{
+		return addedCount;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the number of visible targets in the old tree that have no match
+	 * in the new one.
+	 *
+	 * @return the number of targets that were removed
+	 */
+	public int getRemovedCount()
+	{
+		return removedCount;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the trees have the same structure, in
+	 * which case the new tree can simply take the place of the old one.
+	 *
+	 * @return true if no targets were added or removed
+	 */
+	public boolean isStructureUnchanged()
+	{
+		return addedCount == 0 && removedCount == 0;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Records a pair of matching targets and matches their children.
+	 */
+	private void match(SubmissionTarget oldTarget, SubmissionTarget newTarget)
+	{
+		matches.put(oldTarget, newTarget);
+
+		if (!oldTarget.isContainer())
+		{
+			return;
+		}
+
+		boolean oldLoaded = oldTarget.isLoaded();
+		boolean newLoaded = newTarget.isLoaded();
+
+		if (!oldLoaded || !newLoaded)
+		{
+			// Nothing is loaded just to compare the trees; the contents of
+			// a group that is only loaded in one of them count as added or
+			// removed.
+
+			if (oldLoaded)
+			{
+				removedCount += countVisible(oldTarget);
+			}
+			else if (newLoaded)
+			{
+				addedCount += countVisible(newTarget);
+			}
+
+			return;
+		}
+
+		Map<String, LinkedList<SubmissionTarget>> newChildren =
+			new HashMap<String, LinkedList<SubmissionTarget>>();
+
+		for (SubmissionTarget child : getVisibleChildren(newTarget))
+		{
+			String key = getKey(child);
+			LinkedList<SubmissionTarget> sameKey = newChildren.get(key);
+
+			if (sameKey == null)
+			{
+				sameKey = new LinkedList<SubmissionTarget>();
+				newChildren.put(key, sameKey);
+			}
+
+			sameKey.add(child);
+		}
+
+		for (SubmissionTarget oldChild : getVisibleChildren(oldTarget))
+		{
+			LinkedList<SubmissionTarget> sameKey =
+				newChildren.get(getKey(oldChild));
+
+			if (oldChild.getName() != null && sameKey != null
+					&& !sameKey.isEmpty())
+			{
+				match(oldChild, sameKey.removeFirst());
+			}
+			else
+			{
+				removedCount += 1 + countVisible(oldChild);
+			}
+		}
+
+		for (LinkedList<SubmissionTarget> unmatched : newChildren.values())
+		{
+			for (SubmissionTarget newChild : unmatched)
+			{
+				addedCount += 1 + countVisible(newChild);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the key by which a target is matched with its counterpart in the
+	 * other tree.
+	 */
+	private static String getKey(SubmissionTarget target)
+	{
+		return (target.isContainer() ? "group:" : "assignment:") //$NON-NLS-1$ //$NON-NLS-2$
+			+ target.getName();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Counts the visible targets beneath a container that has been loaded.
+	 */
+	private static int countVisible(SubmissionTarget container)
+	{
+		if (!container.isContainer() || !container.isLoaded())
+		{
+			return 0;
+		}
+
+		int count = 0;
+
+		for (SubmissionTarget child : getVisibleChildren(container))
+		{
+			count += 1 + countVisible(child);
+		}
+
+		return count;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the children of a container that are displayed beneath it,
+	 * looking inside groups without names.
+	 */
+	private static List<SubmissionTarget> getVisibleChildren(
+			SubmissionTarget container)
+	{
+		List<SubmissionTarget> list = new ArrayList<SubmissionTarget>();
+		addVisibleChildren(container, list);
+		return list;
+	}
+
+
+	// ----------------------------------------------------------
+	private static void addVisibleChildren(SubmissionTarget container,
+			List<SubmissionTarget> list)
+	{
+		if (!container.isLoaded())
+		{
+			return;
+		}
+
+		try
+		{
+			for (SubmissionTarget child : container.getLogicalChildren())
+			{
+				if (child.isHidden())
+				{
+					continue;
+				}
+
+				if (child.isContainer() && !child.isNested())
+				{
+					addVisibleChildren(child, list);
+				}
+				else
+				{
+					list.add(child);
+				}
+			}
+		}
+		catch (SubmissionTargetException e)
+		{
+			// A broken container has no visible children.
+		}
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The targets in the new tree that match the targets in the old one. */
+	private Map<SubmissionTarget, SubmissionTarget> matches =
+		new HashMap<SubmissionTarget, SubmissionTarget>();
+
+	/* The number of visible targets that were added. */
+	private int addedCount;
+
+	/* The number of visible targets that were removed. */
+	private int removedCount;
+}
@@ -0,0 +1,471 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.webcat.submitter.SubmissionTargetException;
+import org.webcat.submitter.Submitter;
+import org.webcat.submitter.targets.ImportGroupTarget;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * Reads and writes a binary snapshot of the shape of a submission target
+ * tree, so that the whole tree (including the contents of imported groups)
+ * can be displayed as soon as the wizard asks for it, without waiting for
+ * the definitions to be fetched and parsed.
+ * <p>
+ * A snapshot begins with a header that identifies the snapshot format and
+ * the version of the submission engine that produced it, and lists every
+ * document that went into it (the definitions document and the documents of
+ * the imported groups that were loaded) along with a hash of that
+ * document's contents. The tree follows, written out one target at a time
+ * in depth-first order by this class itself rather than by Java
+ * serialization, so that it does not depend on the engine's classes: each
+ * target is recorded with its kind (group, imported group, or assignment),
+ * its name, whether it is hidden, and, if it is a group whose contents have
+ * been loaded, its children.
+ * <p>
+ * A snapshot is read back as a tree of {@link TargetOutline}s. Since it was
+ * not read by an engine, it can only be used to display the targets; the
+ * targets that are submitted to are always those of an engine that has read
+ * the definitions itself, and they replace the outlines as soon as they
+ * are ready.
+ * <p>
+ * When a snapshot is read, each of the documents in the header can be
+ * revalidated through the {@link DefinitionsCache} (which only costs a
+ * conditional request for documents that have not changed), so that it is
+ * only used if every hash still matches. It can also be read without
+ * revalidating its documents, so that the last good target tree can be
+ * shown without waiting on the network.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class TargetTreeSnapshot
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code TargetTreeSnapshot} that has been read from a
+	 * file.
+	 *
+	 * @param root the outline of the root of the target tree
+	 * @param documents a map from the URI of each document that the tree was
+	 *     loaded from to a hash of its contents
+	 */
+	private TargetTreeSnapshot(TargetOutline root,
+			Map<String, String> documents)
+	{
+		this.root = root;
+		this.documents = documents;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the outline of the root of the target tree.
+	 *
+	 * @return the root outline
+	 */
+	public TargetOutline getRoot()
+	{
+		return root;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the outlines of the top-level targets that should be displayed,
+	 * in the order in which they were declared. These are the outlines that
+	 * a {@link DefinitionsOutlineReader} would report for the definitions
+	 * document.
+	 *
+	 * @return the outlines of the visible top-level targets
+	 */
+	public List<TargetOutline> getTopLevelOutlines()
+	{
+		List<TargetOutline> outlines = new ArrayList<TargetOutline>();
+
+		for (TargetOutline child : root.getChildren())
+		{
+			if (!child.isHidden())
+			{
+				outlines.add(child);
+			}
+		}
+
+		return outlines;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the documents that the target tree was loaded from.
+	 *
+	 * @return a map from the URI of each document to a hash of its contents
+	 */
+	public Map<String, String> getDocuments()
+	{
+		return documents;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a string that identifies the version of the submission engine, so
+	 * that snapshots of trees built by a different version are not used.
+	 *
+	 * @return the engine version
+	 */
+	public static String getEngineVersion()
+	{
+		Package enginePackage = Submitter.class.getPackage();
+		String engineVersion = (enginePackage != null)
+			? enginePackage.getImplementationVersion() : null;
+
+		// The plug-in is not running when snapshots are used outside of the
+		// workbench (for example, by the benchmarks).
+
+		SubmitterCore plugin = SubmitterCore.getDefault();
+		Object bundleVersion = (plugin != null)
+			? plugin.getBundle().getHeaders().get("Bundle-Version") //$NON-NLS-1$
+			: null;
+
+		return bundleVersion + "/" + engineVersion; //$NON-NLS-1$
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes a snapshot of the specified target tree. The tree is only read,
+	 * so imported groups that have not been loaded are recorded without
+	 * their contents rather than loaded here.
+	 *
+	 * @param file the file to write the snapshot to
+	 * @param root the root of the target tree
+	 * @param documents a map from the URI of each document that the tree was
+	 *     loaded from to a hash of its contents
+	 * @return true if the snapshot was written; false if it could not be
+	 */
+	public static boolean write(File file, SubmissionTarget root,
+			Map<String, String> documents)
+	{
+		File tempFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+
+		try
+		{
+			DataOutputStream stream = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tempFile)));
+
+			try
+			{
+				stream.writeInt(MAGIC);
+				stream.writeInt(FORMAT_VERSION);
+				stream.writeUTF(getEngineVersion());
+				stream.writeInt(documents.size());
+
+				for (Map.Entry<String, String> document : documents.entrySet())
+				{
+					stream.writeUTF(document.getKey());
+					stream.writeUTF(document.getValue());
+				}
+
+				writeTarget(stream, root);
+			}
+			finally
+			{
+				stream.close();
+			}
+
+			file.delete();
+			return tempFile.renameTo(file);
+		}
+		catch (IOException e)
+		{
+			tempFile.delete();
+
+			// The plug-in is not running when snapshots are used outside of
+			// the workbench (for example, by the benchmarks), which report
+			// the failure themselves.
+
+			if (SubmitterCore.getDefault() != null)
+			{
+				SubmitterCore.log("The submission targets could not be "
+						+ "saved as a snapshot", e);
+			}
+
+			return false;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Writes a target, and then its children if it is a group that has been
+	 * loaded.
+	 *
+	 * @param stream the stream to write to
+	 * @param target the target
+	 * @throws IOException if the target could not be written
+	 */
+	private static void writeTarget(DataOutputStream stream,
+			SubmissionTarget target) throws IOException
+	{
+		SubmissionTarget[] children = null;
+
+		if (target.isContainer() && target.isLoaded())
+		{
+			try
+			{
+				children = target.getLogicalChildren();
+			}
+			catch (SubmissionTargetException e)
+			{
+				// Record the group as if it had not been loaded; the engine
+				// reports the problem when the group is expanded.
+			}
+		}
+
+		byte kind;
+
+		if (target instanceof ImportGroupTarget)
+		{
+			kind = KIND_IMPORTED_GROUP;
+		}
+		else if (target.isContainer())
+		{
+			kind = KIND_GROUP;
+		}
+		else
+		{
+			kind = KIND_ASSIGNMENT;
+		}
+
+		// A group that is not nested is displayed in place of its children,
+		// as an outline without a name is.
+
+		String name = (target.isContainer() && !target.isNested())
+			? null : target.getName();
+
+		stream.writeByte(kind);
+		stream.writeBoolean(name != null);
+
+		if (name != null)
+		{
+			stream.writeUTF(name);
+		}
+
+		stream.writeBoolean(target.isHidden());
+		stream.writeInt((children != null) ? children.length : -1);
+
+		if (children != null)
+		{
+			for (SubmissionTarget child : children)
+			{
+				writeTarget(stream, child);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads a snapshot of a target tree, if one exists and (when
+	 * {@code revalidate} is true) it is still up to date with respect to the
+	 * documents that it was loaded from.
+	 *
+	 * @param file the file to read the snapshot from
+	 * @param cache the cache used to revalidate the documents
+	 * @param revalidate true to check that none of the documents have
+	 *     changed; false to use the snapshot without contacting the server
+	 * @return the snapshot, or null if there is no usable snapshot
+	 */
+	public static TargetTreeSnapshot read(File file, DefinitionsCache cache,
+			boolean revalidate)
+	{
+		if (!file.isFile())
+		{
+			return null;
+		}
+
+		try
+		{
+			DataInputStream stream = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file)));
+
+			try
+			{
+				if (stream.readInt() != MAGIC
+						|| stream.readInt() != FORMAT_VERSION
+						|| !getEngineVersion().equals(stream.readUTF()))
+				{
+					return null;
+				}
+
+				int count = stream.readInt();
+				Map<String, String> documents =
+					new LinkedHashMap<String, String>();
+
+				for (int i = 0; i < count; i++)
+				{
+					documents.put(stream.readUTF(), stream.readUTF());
+				}
+
+				if (revalidate && !isCurrent(documents, cache))
+				{
+					return null;
+				}
+
+				return new TargetTreeSnapshot(readTarget(stream, null),
+						documents);
+			}
+			finally
+			{
+				stream.close();
+			}
+		}
+		catch (IOException e)
+		{
+			// The snapshot is incomplete or corrupt; it is replaced the next
+			// time the definitions are parsed.
+
+			return null;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Reads a target that was written by
+	 * {@link #writeTarget(DataOutputStream, SubmissionTarget)}, and its
+	 * children.
+	 *
+	 * @param stream the stream to read from
+	 * @param parent the outline of the containing group, or null if this is
+	 *     the root
+	 * @return the outline of the target
+	 * @throws IOException if the target could not be read
+	 */
+	private static TargetOutline readTarget(DataInputStream stream,
+			TargetOutline parent) throws IOException
+	{
+		byte kind = stream.readByte();
+
+		if (kind != KIND_GROUP && kind != KIND_IMPORTED_GROUP
+				&& kind != KIND_ASSIGNMENT)
+		{
+			throw new IOException("Unknown target kind " + kind);
+		}
+
+		String name = stream.readBoolean() ? stream.readUTF() : null;
+		boolean hidden = stream.readBoolean();
+		int count = stream.readInt();
+
+		TargetOutline outline = new TargetOutline(parent, name,
+				kind != KIND_ASSIGNMENT, hidden);
+
+		for (int i = 0; i < count; i++)
+		{
+			readTarget(stream, outline);
+		}
+
+		return outline;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Revalidates the specified documents and checks whether any of them
+	 * have changed.
+	 *
+	 * @param documents a map from the URI of each document to the hash of
+	 *     its contents when it was last loaded
+	 * @param cache the cache used to revalidate the documents
+	 * @return true if none of the documents have changed
+	 * @throws IOException if one of the documents could not be revalidated
+	 */
+	public static boolean isCurrent(Map<String, String> documents,
+			DefinitionsCache cache) throws IOException
+	{
+		for (Map.Entry<String, String> document : documents.entrySet())
+		{
+			String hash;
+
+			try
+			{
+				hash = cache.revalidate(new URI(document.getKey()));
+			}
+			catch (URISyntaxException e)
+			{
+				return false;
+			}
+
+			if (!document.getValue().equals(hash))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* Identifies a snapshot file ("WCTS"). */
+	private static final int MAGIC = 0x57435453;
+
+	/* The version of the snapshot file format. Version 1 held the engine's
+	   own targets in Java serialization form. */
+	private static final int FORMAT_VERSION = 2;
+
+	/* The kinds of target recorded in a snapshot. */
+	private static final byte KIND_GROUP = 1;
+	private static final byte KIND_IMPORTED_GROUP = 2;
+	private static final byte KIND_ASSIGNMENT = 3;
+
+	/* The outline of the root of the target tree. */
+	private TargetOutline root;
+
+	/* The documents that the target tree was loaded from, and hashes of
+	   their contents. */
+	private Map<String, String> documents;
+}
@@ -0,0 +1,133 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.internal.core.preferences;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.eclipse.jface.dialogs.IInputValidator;
+import org.eclipse.jface.dialogs.InputDialog;
+import org.eclipse.jface.preference.ListEditor;
+import org.eclipse.jface.window.Window;
+import org.eclipse.swt.widgets.Composite;
+import org.webcat.eclipse.submitter.core.SubmitterCore;
+
+//--------------------------------------------------------------------------
+/**
+ * A field editor for the list of assignment definition URLs. The URLs are
+ * stored in a single preference value, separated by spaces, so that a value
+ * holding just one URL is still read correctly.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class DefinitionsURLListEditor extends ListEditor
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates a new instance of the field editor.
+	 *
+	 * @param name the name of the preference this field editor works on
+	 * @param labelText the label text of the field editor
+	 * @param parent the parent of the field editor's control
+	 */
+	public DefinitionsURLListEditor(String name, String labelText,
+			Composite parent)
+	{
+		super(name, labelText, parent);
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	protected String createList(String[] items)
+	{
+		StringBuffer buffer = new StringBuffer();
+
+		for (String item : items)
+		{
+			if (buffer.length() > 0)
+			{
+				buffer.append(' ');
+			}
+
+			buffer.append(item);
+		}
+
+		return buffer.toString();
+	}
+
+
+	// ----------------------------------------------------------
+	protected String getNewInputObject()
+	{
+		InputDialog dialog = new InputDialog(getShell(),
+				"Add Assignment Definition URL",
+				"Enter the URL provided by your instructor:",
+				"", new IInputValidator() { //$NON-NLS-1$
+			public String isValid(String newText)
+			{
+				String url = newText.trim();
+
+				if (url.length() == 0)
+				{
+					return ""; //$NON-NLS-1$
+				}
+				else if (SubmitterCore.parseURLList(url).length > 1)
+				{
+					return "A URL cannot contain spaces.";
+				}
+
+				try
+				{
+					new URL(url);
+					return null;
+				}
+				catch (MalformedURLException e)
+				{
+					return "This is not a valid URL. Note that a local file "
+						+ "must be entered as a file: URL.";
+				}
+			}
+		});
+
+		if (dialog.open() == Window.OK)
+		{
+			return dialog.getValue().trim();
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	protected String[] parseString(String stringList)
+	{
+		return SubmitterCore.parseURLList(stringList);
+	}
+}
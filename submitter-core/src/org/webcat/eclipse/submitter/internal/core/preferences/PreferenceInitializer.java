@@ -0,0 +1,58 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+
+package org.webcat.eclipse.submitter.internal.core.preferences;
+
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.webcat.eclipse.submitter.core.SubmitterCore;
+
+//--------------------------------------------------------------------------
+/**
+ * Initializes the default values of the electronic submission plug-in's
+ * preferences.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class PreferenceInitializer extends AbstractPreferenceInitializer
+{
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	public void initializeDefaultPreferences()
+	{
+		IPreferenceStore store =
+			SubmitterCore.getDefault().getPreferenceStore();
+
+		store.setDefault(SubmitterCore.REFRESH_INTERVAL,
+				DEFAULT_REFRESH_INTERVAL);
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The default number of minutes between background checks for changes
+	   to the submission target definitions. */
+	private static final int DEFAULT_REFRESH_INTERVAL = 30;
+}
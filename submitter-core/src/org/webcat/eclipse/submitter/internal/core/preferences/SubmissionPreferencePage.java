@@ -23,6 +23,7 @@ package org.webcat.eclipse.submitter.internal.core.preferences;
 
 
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
@@ -53,7 +54,9 @@ public class SubmissionPreferencePage extends FieldEditorPreferencePage
 		setPreferenceStore(SubmitterCore.getDefault().getPreferenceStore());
 		setDescription("Please enter the URL provided by your instructor "
 		        + "that contains the assignment definitions to be used by the "
-		        + "electronic submission plug-in in the field below.\n");
+		        + "electronic submission plug-in in the list below. If you "
+		        + "are taking more than one course, add the URL for each "
+		        + "of them.\n");
 	}
 
 
@@ -69,9 +72,15 @@ public class SubmissionPreferencePage extends FieldEditorPreferencePage
 	{
 		final int FIELD_WIDTH = 40;
 
-		addField(new StringFieldEditor(SubmitterCore.DEFINITIONS_URL,
-		        "&Assignment definition URL:", FIELD_WIDTH,
-		        getFieldEditorParent()));
+		addField(new DefinitionsURLListEditor(SubmitterCore.DEFINITIONS_URL,
+		        "&Assignment definition URLs:", getFieldEditorParent()));
+
+		IntegerFieldEditor refreshInterval = new IntegerFieldEditor(
+		        SubmitterCore.REFRESH_INTERVAL,
+		        "&Check for assignment changes every (minutes, 0 = never):",
+		        getFieldEditorParent());
+		refreshInterval.setValidRange(0, MAX_REFRESH_INTERVAL);
+		addField(refreshInterval);
 
 		addField(new StringFieldEditor(
 		        SubmitterCore.IDENTIFICATION_DEFAULTUSERNAME,
@@ -92,4 +101,10 @@ public class SubmissionPreferencePage extends FieldEditorPreferencePage
 	{
 		// Does nothing; required by the IWorkbenchPreferencePage interface.
 	}
+
+
+	//~ Static/instance variables .............................................
+
+	/* The largest refresh interval that can be entered: one day. */
+	private static final int MAX_REFRESH_INTERVAL = 24 * 60;
 }
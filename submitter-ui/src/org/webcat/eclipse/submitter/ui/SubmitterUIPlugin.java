@@ -25,21 +25,20 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jface.dialogs.MessageDialog;
-import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.wizard.WizardDialog;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
-import org.webcat.eclipse.submitter.core.RunnableContextLongRunningTaskManager;
+import org.webcat.eclipse.submitter.core.SubmissionTargetsManager;
 import org.webcat.eclipse.submitter.core.SubmitterCore;
-import org.webcat.eclipse.submitter.ui.dialogs.SubmissionParserErrorDialog;
+import org.webcat.eclipse.submitter.core.TargetPath;
 import org.webcat.eclipse.submitter.ui.i18n.Messages;
 import org.webcat.eclipse.submitter.ui.wizards.SubmitterWizard;
-import org.webcat.submitter.Submitter;
 
 //--------------------------------------------------------------------------
 /**
@@ -132,23 +131,12 @@ public class SubmitterUIPlugin extends AbstractUIPlugin
 	 */
 	public void spawnSubmissionUI(Shell shell, IProject project)
 	{
-		URL url;
-		Submitter engine = new Submitter();
+		SubmissionTargetsManager manager =
+			SubmitterCore.getDefault().getSubmissionTargetsManager();
 
 		try
 		{
-			url = new URL(SubmitterCore.getDefault().getOption(
-			        SubmitterCore.DEFINITIONS_URL));
-
-			ProgressMonitorDialog dlg = new ProgressMonitorDialog(shell);
-			
-			RunnableContextLongRunningTaskManager taskManager =
-				new RunnableContextLongRunningTaskManager(dlg);
-			engine.setLongRunningTaskManager(taskManager);
-			
-			engine.readSubmissionTargets(url);
-			
-			engine.setLongRunningTaskManager(null);
+			manager.getDefinitionsURLs();
 		}
 		catch(MalformedURLException e)
 		{
@@ -156,17 +144,13 @@ public class SubmitterUIPlugin extends AbstractUIPlugin
 			        Messages.PLUGINUI_NO_DEF_URL_DESCRIPTION);
 			return;
 		}
-		catch(Throwable e)
-		{
-			SubmissionParserErrorDialog dlg = new SubmissionParserErrorDialog(
-			        shell, e);
-			dlg.open();
 
-			return;
-		}
+		// The wizard loads the submission targets itself, using the ones that
+		// were loaded in the background at startup if they are ready, and
+		// showing them as they are read if they are not.
 
 		SubmitterWizard wizard = new SubmitterWizard();
-		wizard.init(engine, project);
+		wizard.init(project);
 
 		// Instantiates the wizard container with the wizard and opens it
 		WizardDialog dialog = new WizardDialog(shell, wizard);
@@ -279,13 +263,16 @@ public class SubmitterUIPlugin extends AbstractUIPlugin
 	// ----------------------------------------------------------
 	/**
 	 * Gets the path to the most recently selected assignment in the
-	 * submission wizard.
+	 * submission wizard. The path is kept in the plug-in's preferences, so
+	 * it is remembered from one session to the next.
 	 * 
-	 * @return the path to the most recently selected assignment
+	 * @return the path to the most recently selected assignment, or null if
+	 *     no assignment has been selected
 	 */
-	public String getLastSelectedAssignmentPath()
+	public TargetPath getLastSelectedAssignmentPath()
 	{
-		return lastSelectedAssignmentPath;
+		return TargetPath.parse(getPreferenceStore().getString(
+				LAST_SELECTED_ASSIGNMENT));
 	}
 
 
@@ -296,9 +283,45 @@ public class SubmitterUIPlugin extends AbstractUIPlugin
 	 * 
 	 * @param path the path to the most recently selected assignment
 	 */
-	public void setLastSelectedAssignmentPath(String path)
+	public void setLastSelectedAssignmentPath(TargetPath path)
 	{
-		lastSelectedAssignmentPath = path;
+		if (path != null)
+		{
+			getPreferenceStore().setValue(LAST_SELECTED_ASSIGNMENT,
+					path.toString());
+		}
+		else
+		{
+			getPreferenceStore().setToDefault(LAST_SELECTED_ASSIGNMENT);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the paths of the elements that were expanded in the assignment
+	 * tree the last time the submission wizard was open. The wizard updates
+	 * the set as the user expands and collapses elements.
+	 * 
+	 * @return the paths of the expanded elements, or null if the wizard has
+	 *     not been opened yet
+	 */
+	public Set<String> getExpandedAssignmentPaths()
+	{
+		return expandedAssignmentPaths;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Sets the paths of the elements that are expanded in the assignment
+	 * tree of the submission wizard.
+	 * 
+	 * @param paths the paths of the expanded elements
+	 */
+	public void setExpandedAssignmentPaths(Set<String> paths)
+	{
+		expandedAssignmentPaths = paths;
 	}
 
 
@@ -310,13 +333,18 @@ public class SubmitterUIPlugin extends AbstractUIPlugin
 	public static final String PLUGIN_ID =
 		"net.sf.webcat.eclipse.submitter.ui"; //$NON-NLS-1$
 
+	/* The preference key that stores the path to the most recently selected
+	   assignment. */
+	private static final String LAST_SELECTED_ASSIGNMENT =
+		PLUGIN_ID + ".lastSelectedAssignment"; //$NON-NLS-1$
+
 	/* The shared instance of the plug-in. */
 	private static SubmitterUIPlugin plugin;
 
 	/* The resource bundle of the plug-in. */
 	private ResourceBundle resourceBundle;
 	
-	private String lastSelectedAssignmentPath;
+	private Set<String> expandedAssignmentPaths;
 	private String lastEnteredUsername;
 	private String lastEnteredPassword;
 	private String lastEnteredPartners;
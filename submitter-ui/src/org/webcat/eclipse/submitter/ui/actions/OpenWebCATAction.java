@@ -50,17 +50,26 @@ public class OpenWebCATAction implements IWorkbenchWindowActionDelegate
 	 */
 	public void run(IAction action)
 	{
-		String url = SubmitterCore.getDefault().getPreferenceStore().getString(
-				SubmitterCore.DEFINITIONS_URL);
+		String[] urls = SubmitterCore.parseURLList(
+				SubmitterCore.getDefault().getPreferenceStore().getString(
+						SubmitterCore.DEFINITIONS_URL));
 
 		Pattern pattern = Pattern.compile(
 				"(https?://.+/Web-CAT.woa)", //$NON-NLS-1$
 				Pattern.CASE_INSENSITIVE);
-		
-		Matcher matcher = pattern.matcher(url);
-		String match = matcher.group(1);
-		
-		Program.launch(match);
+
+		// Open the first Web-CAT server in the list of definitions URLs.
+
+		for (String url : urls)
+		{
+			Matcher matcher = pattern.matcher(url);
+
+			if (matcher.find())
+			{
+				Program.launch(matcher.group(1));
+				return;
+			}
+		}
 	}
 
 
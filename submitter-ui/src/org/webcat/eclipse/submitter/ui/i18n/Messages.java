@@ -78,16 +78,22 @@ public class Messages extends NLS
 
 	public static String STARTPAGE_CHOOSE_PROJECT_TITLE;
 
+	public static String STARTPAGE_CHECKING_REQUIRED_FILES;
+
 	public static String STARTPAGE_CLICK_FINISH_TO_EXIT;
 
 	public static String STARTPAGE_ERROR_BAD_URL;
 
 	public static String STARTPAGE_ERROR_COULD_NOT_CONNECT;
 
+	public static String STARTPAGE_ERROR_DETAILS;
+
 	public static String STARTPAGE_ERROR_GENERIC;
 
 	public static String STARTPAGE_ERROR_INVALID_TARGET;
 
+	public static String STARTPAGE_ERROR_MISSING_REQUIRED_FILES;
+
 	public static String STARTPAGE_ERROR_NO_PROJECT;
 
 	public static String STARTPAGE_ERROR_NO_TARGET;
@@ -96,6 +102,12 @@ public class Messages extends NLS
 
 	public static String STARTPAGE_ERROR_REQUIRED_FILES_MISSING;
 
+	public static String STARTPAGE_FILTER;
+
+	public static String STARTPAGE_FILTER_MESSAGE;
+
+	public static String STARTPAGE_LOADING_TARGETS;
+
 	public static String STARTPAGE_PAGE_DESCRIPTION;
 
 	public static String STARTPAGE_PAGE_NAME;
@@ -104,12 +116,16 @@ public class Messages extends NLS
 
 	public static String STARTPAGE_PASSWORD;
 
+	public static String STARTPAGE_PREPARING_SUBMISSION;
+
 	public static String STARTPAGE_PARTNERS_DESCRIPTION;
 
 	public static String STARTPAGE_PARTNERS;
 
 	public static String STARTPAGE_PROJECT;
 
+	public static String STARTPAGE_RETRY;
+
 	public static String STARTPAGE_SUBMISSION_CANCELED;
 
 	public static String STARTPAGE_SUBMIT_AS;
@@ -130,6 +146,14 @@ public class Messages extends NLS
 
 	public static String SUMMARYPAGE_STATUS_SUCCESS;
 
+	public static String TARGETTREE_LOAD_FAILED;
+
+	public static String TARGETTREE_LOAD_TIMED_OUT;
+
+	public static String TARGETTREE_LOADING;
+
+	public static String TARGETTREE_SOURCE_FAILED;
+
 	public static String WIZARD_TITLE;
 
 
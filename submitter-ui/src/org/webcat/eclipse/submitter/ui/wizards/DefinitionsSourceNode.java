@@ -0,0 +1,174 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.ui.wizards;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.webcat.eclipse.submitter.core.DefinitionsSource;
+import org.webcat.eclipse.submitter.core.TargetOutline;
+
+//--------------------------------------------------------------------------
+/**
+ * Represents one of the definitions URLs in the submission target tree. When
+ * more than one URL has been entered in the preferences, each of them is
+ * displayed as a root of the tree, so that a URL that is slow to load, or
+ * that fails, only affects its own part of the tree.
+ * <p>
+ * While the URL is loading, its children are the outlines of the targets
+ * that have been read so far; once it has loaded, they are its targets.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class DefinitionsSourceNode
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code DefinitionsSourceNode} for a URL that is
+	 * about to be loaded.
+	 *
+	 * @param url the definitions URL
+	 */
+	public DefinitionsSourceNode(URL url)
+	{
+		this.url = url;
+		this.state = STATE_LOADING;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	public URL getURL()
+	{
+		return url;
+	}
+
+
+	// ----------------------------------------------------------
+	public int getState()
+	{
+		return state;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Adds the outline of a top-level target that has been read while the
+	 * URL is loading.
+	 *
+	 * @param outline the outline of the target
+	 */
+	public void addOutline(TargetOutline outline)
+	{
+		outlines.add(outline);
+	}
+
+
+	// ----------------------------------------------------------
+	public List<TargetOutline> getOutlines()
+	{
+		return outlines;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Records that the URL has loaded successfully.
+	 *
+	 * @param aSource the loaded targets
+	 */
+	public void setSource(DefinitionsSource aSource)
+	{
+		this.source = aSource;
+		this.state = STATE_LOADED;
+		outlines.clear();
+	}
+
+
+	// ----------------------------------------------------------
+	public DefinitionsSource getSource()
+	{
+		return source;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Records that the URL could not be loaded.
+	 *
+	 * @param anError the error that occurred
+	 */
+	public void setError(Throwable anError)
+	{
+		this.error = anError;
+		this.state = STATE_FAILED;
+		outlines.clear();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Records that the URL is being loaded again after it failed.
+	 */
+	public void reset()
+	{
+		this.error = null;
+		this.state = STATE_LOADING;
+	}
+
+
+	// ----------------------------------------------------------
+	public Throwable getError()
+	{
+		return error;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	public static final int STATE_LOADING = 0;
+
+	public static final int STATE_LOADED = 1;
+
+	public static final int STATE_FAILED = 2;
+
+	/* The definitions URL. */
+	private URL url;
+
+	/* The state of the load. */
+	private int state;
+
+	/* The outlines of the targets read so far, while loading. */
+	private List<TargetOutline> outlines = new ArrayList<TargetOutline>();
+
+	/* The loaded targets. */
+	private DefinitionsSource source;
+
+	/* The error that occurred while loading, if any. */
+	private Throwable error;
+}
@@ -0,0 +1,200 @@
+/*==========================================================================*\
+ |  $Id$
+ |*-------------------------------------------------------------------------*|
+ |  Copyright (C) 2026 Virginia Tech
+ |
+ |  This file is part of Web-CAT Eclipse Plugins.
+ |
+ |  Web-CAT is free software; you can redistribute it and/or modify
+ |  it under the terms of the GNU General Public License as published by
+ |  the Free Software Foundation; either version 2 of the License, or
+ |  (at your option) any later version.
+ |
+ |  Web-CAT is distributed in the hope that it will be useful,
+ |  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ |  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ |  GNU General Public License for more details.
+ |
+ |  You should have received a copy of the GNU General Public License along
+ |  with Web-CAT; if not, see <http://www.gnu.org/licenses/>.
+\*==========================================================================*/
+
+package org.webcat.eclipse.submitter.ui.wizards;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.webcat.submitter.targets.SubmissionTarget;
+
+//--------------------------------------------------------------------------
+/**
+ * A placeholder that is shown in the submission target tree in place of the
+ * contents of an imported group while that group is being loaded in the
+ * background. A placeholder without a target stands in for the contents of
+ * a {@link DefinitionsSourceNode} instead, while its definitions are loaded
+ * or after they have failed to load.
+ * <p>
+ * If the load fails, the placeholder stays in the tree as an error leaf that
+ * holds the error, so that the rest of the tree remains usable and the user
+ * can try the load again from there.
+ *
+ * @author  Web-CAT Eclipse Plugins contributors
+ * @author  latest changes by: $Author$
+ * @version $Revision$ $Date$
+ */
+public class LoadingTargetNode
+{
+	//~ Constructors ..........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Initializes a new {@code LoadingTargetNode}.
+	 *
+	 * @param parent the element in the tree under which the placeholder is
+	 *     displayed
+	 * @param target the imported group that is being loaded, or null if the
+	 *     placeholder is for a definitions URL
+	 */
+	public LoadingTargetNode(Object parent, SubmissionTarget target)
+	{
+		this.parent = parent;
+		this.target = target;
+		this.state = STATE_LOADING;
+	}
+
+
+	//~ Methods ...............................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the element in the tree under which the placeholder is displayed.
+	 *
+	 * @return the parent element
+	 */
+	public Object getParent()
+	{
+		return parent;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the imported group that is being loaded.
+	 *
+	 * @return the imported group
+	 */
+	public SubmissionTarget getTarget()
+	{
+		return target;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the state of the load.
+	 *
+	 * @return one of the STATE_* constants
+	 */
+	public int getState()
+	{
+		return state;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Sets the state of the load.
+	 *
+	 * @param state one of the STATE_* constants
+	 */
+	public void setState(int state)
+	{
+		this.state = state;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the error that occurred while loading.
+	 *
+	 * @return the error, or null if the load has not failed
+	 */
+	public Throwable getError()
+	{
+		return error;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Records that the load failed.
+	 *
+	 * @param error the error that occurred
+	 */
+	public void setError(Throwable error)
+	{
+		this.error = error;
+		this.state = STATE_FAILED;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the job that is loading the imported group.
+	 *
+	 * @return the job
+	 */
+	public Job getJob()
+	{
+		return job;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Sets the job that is loading the imported group.
+	 *
+	 * @param job the job
+	 */
+	public void setJob(Job job)
+	{
+		this.job = job;
+	}
+
+
+	//~ Static/instance variables .............................................
+
+	/**
+	 * The imported group is still being loaded.
+	 */
+	public static final int STATE_LOADING = 0;
+
+	/**
+	 * The imported group took too long to load. The load continues in the
+	 * background, and its contents are shown if it eventually finishes.
+	 */
+	public static final int STATE_TIMED_OUT = 1;
+
+	/**
+	 * The imported group was loaded successfully.
+	 */
+	public static final int STATE_LOADED = 2;
+
+	/**
+	 * An error occurred while loading the imported group.
+	 */
+	public static final int STATE_FAILED = 3;
+
+	/* The element in the tree under which the placeholder is displayed. */
+	private Object parent;
+
+	/* The imported group that is being loaded. */
+	private SubmissionTarget target;
+
+	/* The state of the load. */
+	private int state;
+
+	/* The job that is loading the imported group. */
+	private Job job;
+
+	/* The error that occurred while loading. */
+	private Throwable error;
+}
@@ -22,11 +22,30 @@
 package org.webcat.eclipse.submitter.ui.wizards;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
-import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
+import org.eclipse.jface.viewers.ITreeViewerListener;
+import org.eclipse.jface.viewers.TreeExpansionEvent;
+import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
-import org.webcat.eclipse.submitter.ui.dialogs.SubmissionParserErrorDialog;
+import org.eclipse.swt.widgets.Display;
+import org.webcat.eclipse.submitter.core.DefinitionsCache;
+import org.webcat.eclipse.submitter.core.DefinitionsSource;
+import org.webcat.eclipse.submitter.core.SubmitterCore;
+import org.webcat.eclipse.submitter.core.TargetOutline;
+import org.webcat.eclipse.submitter.core.TargetTreeDiff;
 import org.webcat.submitter.targets.ImportGroupTarget;
 import org.webcat.submitter.targets.SubmissionTarget;
 
@@ -34,12 +53,47 @@ import org.webcat.submitter.targets.SubmissionTarget;
 /**
  * The content provider for the tree that displays the submission targets in
  * the wizard.
+ * <p>
+ * The tree is virtual: rows are only created for the elements that are
+ * actually visible, as the viewer asks for them, so opening the wizard does
+ * not create a widget for every assignment in a large catalog.
+ * <p>
+ * Imported groups that have not been loaded yet are never loaded on the UI
+ * thread. Instead, a {@link LoadingTargetNode} is shown in place of their
+ * contents while they are loaded by a background job, and the tree is
+ * refreshed when the job finishes. Collapsing the node under which a group
+ * is loading cancels the load.
+ * <p>
+ * A group that fails to load, or whose children cannot be computed, is
+ * shown as an error leaf in place of its contents; the rest of the tree is
+ * unaffected, and {@link #retry(LoadingTargetNode)} fetches only the part
+ * that failed.
+ * <p>
+ * The input is the list of {@link DefinitionsSourceNode}s for the
+ * definitions URLs. If there is only one, its targets are displayed at the
+ * top level of the tree; otherwise, each URL is a root of the tree. While a
+ * URL is loading, the outlines of its targets are displayed in its place.
+ * <p>
+ * The tree can be filtered to show only the targets that match a search,
+ * along with the groups that contain them (see
+ * {@link #setFilter(Set, Set)}).
+ * <p>
+ * When the definitions for a URL are refreshed while the tree is displayed,
+ * only the elements that changed are added to or removed from the tree (see
+ * {@link #sourceRefreshed(DefinitionsSourceNode, DefinitionsSource,
+ * TargetTreeDiff)}); the rest are switched over to the new targets in
+ * place, so they keep their expanded state.
+ * <p>
+ * The flattened list of visible children of each element is computed once
+ * and cached until the input changes, since the viewer asks for it from
+ * both {@link #hasChildren(Object)} and {@link #getChildren(Object)}.
  *
  * @author  Tony Allevato (Virginia Tech Computer Science)
  * @author  latest changes by: $Author$
  * @version $Revision$ $Date$
  */
-public class SubmissionTargetsContentProvider implements ITreeContentProvider
+public class SubmissionTargetsContentProvider
+	implements ILazyTreeContentProvider
 {
 	//~ Methods ...............................................................
 
@@ -47,27 +101,422 @@ public class SubmissionTargetsContentProvider implements ITreeContentProvider
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see org.eclipse.jface.viewers.ITreeContentProvider#getChildren(java.lang.Object)
+	 * @see org.eclipse.jface.viewers.ILazyTreeContentProvider#updateElement(java.lang.Object, int)
+	 */
+	public void updateElement(Object parent, int index)
+	{
+		Object[] children = getChildren(parent);
+
+		if (index < children.length)
+		{
+			Object child = children[index];
+
+			viewer.replace(parent, index, child);
+			viewer.setHasChildren(child, hasChildren(child));
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.jface.viewers.ILazyTreeContentProvider#updateChildCount(java.lang.Object, int)
+	 */
+	public void updateChildCount(Object element, int currentChildCount)
+	{
+		int count = getChildren(element).length;
+
+		if (count != currentChildCount)
+		{
+			viewer.setChildCount(element, count);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the visible children of an element in the tree. Unlike the
+	 * viewer's own requests, this is not limited to the rows that are
+	 * visible, so it can be used to find an element by its path.
+	 *
+	 * @param parentElement the element, or the tree's input for the
+	 *     top-level elements
+	 * @return the visible children of the element
 	 */
 	public Object[] getChildren(Object parentElement)
 	{
-		SubmissionTarget obj = (SubmissionTarget)parentElement;
+		if (parentElement instanceof LoadingTargetNode)
+		{
+			return new Object[0];
+		}
+
+		Object[] children = childCache.get(parentElement);
+
+		if (children == null)
+		{
+			ArrayList<Object> list = new ArrayList<Object>();
+
+			if (parentElement == input)
+			{
+				// With only one definitions URL, its targets are displayed
+				// at the top level of the tree.
+
+				if (sources.size() == 1)
+				{
+					computeSourceChildren(input, sources.get(0), list);
+				}
+				else
+				{
+					list.addAll(sources);
+				}
+			}
+			else if (parentElement instanceof DefinitionsSourceNode)
+			{
+				computeSourceChildren(parentElement,
+						(DefinitionsSourceNode) parentElement, list);
+			}
+			else if (parentElement instanceof TargetOutline)
+			{
+				computeOutlineChildren(
+						((TargetOutline) parentElement).getChildren(), list);
+			}
+			else
+			{
+				SubmissionTarget obj = (SubmissionTarget)parentElement;
+				computeChildren(obj, obj, list);
+			}
+
+			children = list.toArray();
+			childCache.put(parentElement, children);
+		}
+
+		return children;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Computes the visible children of a definitions URL: its targets if it
+	 * has been loaded, or the outlines read so far if it is still loading.
+	 * A placeholder is shown if there is nothing else to show.
+	 */
+	private void computeSourceChildren(Object visibleParent,
+			DefinitionsSourceNode node, ArrayList<Object> list)
+	{
+		if (node.getState() == DefinitionsSourceNode.STATE_LOADED)
+		{
+			SubmissionTarget root = node.getSource().getRoot();
+			sourceRoots.put(root, node);
+			computeChildren(visibleParent, root, list);
+		}
+		else if (node.getState() == DefinitionsSourceNode.STATE_LOADING
+				&& filterMatches == null)
+		{
+			computeOutlineChildren(node.getOutlines(), list);
+
+			for (TargetOutline outline : node.getOutlines())
+			{
+				outlineSources.put(outline, node);
+			}
+		}
+
+		if (list.isEmpty()
+				&& node.getState() != DefinitionsSourceNode.STATE_LOADED)
+		{
+			LoadingTargetNode placeholder =
+				new LoadingTargetNode(visibleParent, null);
+
+			if (node.getState() == DefinitionsSourceNode.STATE_FAILED)
+			{
+				placeholder.setError(node.getError());
+			}
+
+			list.add(placeholder);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Computes the visible outlines among the specified ones, flattening
+	 * groups without names the same way as the full targets.
+	 */
+	private void computeOutlineChildren(List<TargetOutline> outlines,
+			ArrayList<Object> list)
+	{
+		for (TargetOutline outline : outlines)
+		{
+			if (!outline.isHidden())
+			{
+				if (outline.isContainer() && !outline.isNested())
+					computeOutlineChildren(outline.getChildren(), list);
+				else
+					list.add(outline);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Updates the tree after a definitions URL has read more outlines,
+	 * finished loading, or failed.
+	 *
+	 * @param node the node for the definitions URL
+	 */
+	public void sourceChanged(DefinitionsSourceNode node)
+	{
+		Object visibleParent = getVisibleParent(node);
 
-		ArrayList<SubmissionTarget> children =
-			new ArrayList<SubmissionTarget>();
-		computeChildren(obj, children);
-		return children.toArray();
+		childCache.remove(visibleParent);
+		viewer.refresh(visibleParent);
 	}
 
 
 	// ----------------------------------------------------------
 	/**
-	 * Computes the visible children of the specified node, displaying a message
-	 * to the user if any errors occur.
+	 * Replaces the loaded targets of a definitions URL with ones that were
+	 * loaded from changed definitions. Only the rows that have been created
+	 * are visited: the elements that still exist are switched over to the
+	 * matching new targets, and only the elements that were added or
+	 * removed are inserted into or removed from the tree, so the work done
+	 * is proportional to what has changed among the visible rows rather
+	 * than to the size of the catalog.
+	 *
+	 * @param node the node for the definitions URL
+	 * @param newSource the targets that replace the current ones
+	 * @param diff the differences between the current targets and the new
+	 *     ones
 	 */
-	private void computeChildren(SubmissionTarget obj,
-			                     ArrayList<SubmissionTarget> list)
+	public void sourceRefreshed(DefinitionsSourceNode node,
+			DefinitionsSource newSource, TargetTreeDiff diff)
 	{
+		SubmissionTarget oldRoot = node.getSource().getRoot();
+		Object visibleParent = getVisibleParent(node);
+
+		// Loads of imported groups in the old tree are of no use any more.
+
+		Iterator<LoadingTargetNode> it = pendingLoads.values().iterator();
+
+		while (it.hasNext())
+		{
+			LoadingTargetNode pending = it.next();
+
+			if (getRoot(pending.getTarget()) == oldRoot)
+			{
+				pending.getJob().cancel();
+				it.remove();
+			}
+		}
+
+		sourceRoots.remove(oldRoot);
+		node.setSource(newSource);
+
+		updateChildren(visibleParent, visibleParent, diff);
+
+		// Whatever is left in the cache for the old tree was not visible,
+		// and will be computed for the new tree when it is needed.
+
+		Iterator<Object> keys = childCache.keySet().iterator();
+
+		while (keys.hasNext())
+		{
+			Object key = keys.next();
+
+			if (key instanceof SubmissionTarget
+					&& getRoot((SubmissionTarget) key) == oldRoot)
+			{
+				keys.remove();
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Updates the children of an element in the tree after its definitions
+	 * have been refreshed, and then does the same for each of its children
+	 * that still exists.
+	 *
+	 * @param newParent the element in the new tree (or a node that is not a
+	 *     target)
+	 * @param oldParent the element in the old tree that it replaces
+	 * @param diff the differences between the old tree and the new one
+	 */
+	private void updateChildren(Object newParent, Object oldParent,
+			TargetTreeDiff diff)
+	{
+		Object[] oldChildren = childCache.remove(oldParent);
+
+		if (oldChildren == null)
+		{
+			// The children were never displayed, so there is nothing in the
+			// tree to update.
+
+			return;
+		}
+
+		Object[] newChildren = getChildren(newParent);
+
+		// Find the children that still exist, in order.
+
+		Set<Object> newSet = new HashSet<Object>(Arrays.asList(newChildren));
+		Map<Object, Object> survivors = new HashMap<Object, Object>();
+		List<Object> survivorOrder = new ArrayList<Object>();
+
+		for (Object oldChild : oldChildren)
+		{
+			Object newChild = diff.getNewTarget(oldChild);
+
+			if (newChild != null && newSet.contains(newChild))
+			{
+				survivors.put(newChild, oldChild);
+				survivorOrder.add(newChild);
+			}
+		}
+
+		boolean inOrder = isSubsequence(survivorOrder, newChildren);
+
+		if (survivors.size() < oldChildren.length
+				|| survivors.size() < newChildren.length || !inOrder)
+		{
+			if (newParent != input && !viewer.getExpandedState(newParent))
+			{
+				// The element is collapsed, so its rows can just be thrown
+				// away and created again if it is expanded.
+
+				viewer.setChildCount(newParent, 0);
+				viewer.setHasChildren(newParent, newChildren.length > 0);
+				return;
+			}
+
+			if (!inOrder)
+			{
+				// The children were reordered, which is rare enough that
+				// the rows are simply created again.
+
+				viewer.setChildCount(newParent, 0);
+				viewer.setChildCount(newParent, newChildren.length);
+				return;
+			}
+
+			// Remove the rows for children that are gone, from the end so
+			// that the indices of the others do not change, and then insert
+			// the new ones.
+
+			for (int i = oldChildren.length - 1; i >= 0; i--)
+			{
+				if (!survivors.containsKey(diff.getNewTarget(oldChildren[i])))
+				{
+					viewer.remove(newParent, i);
+				}
+			}
+
+			for (int i = 0; i < newChildren.length; i++)
+			{
+				if (!survivors.containsKey(newChildren[i]))
+				{
+					viewer.insert(newParent, newChildren[i], i);
+					viewer.setHasChildren(newChildren[i],
+							hasChildren(newChildren[i]));
+				}
+			}
+		}
+
+		// Switch the remaining rows over to the new targets, keeping their
+		// expanded state, and update their children in turn.
+
+		for (int i = 0; i < newChildren.length; i++)
+		{
+			Object oldChild = survivors.get(newChildren[i]);
+
+			if (oldChild != null)
+			{
+				viewer.replace(newParent, i, newChildren[i]);
+				updateChildren(newChildren[i], oldChild, diff);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether the elements of a list appear in an
+	 * array in the same order.
+	 */
+	private static boolean isSubsequence(List<Object> list, Object[] array)
+	{
+		int index = 0;
+
+		for (Object element : list)
+		{
+			while (index < array.length && array[index] != element)
+			{
+				index++;
+			}
+
+			if (index == array.length)
+			{
+				return false;
+			}
+
+			index++;
+		}
+
+		return true;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the root of the tree that a target belongs to.
+	 */
+	private static SubmissionTarget getRoot(SubmissionTarget target)
+	{
+		while (target.parent() != null)
+		{
+			target = target.parent();
+		}
+
+		return target;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the element in the tree under which the targets of a definitions
+	 * URL are displayed: the tree's input if there is only one URL, or else
+	 * the URL's own node.
+	 */
+	private Object getVisibleParent(DefinitionsSourceNode node)
+	{
+		return (sources.size() == 1) ? input : node;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Computes the visible children of the specified node. Imported groups
+	 * that have not been loaded yet are represented by a placeholder while
+	 * they load, and a target whose children cannot be computed is
+	 * represented by an error leaf, without affecting its siblings.
+	 */
+	private void computeChildren(Object visibleParent, SubmissionTarget obj,
+			                     ArrayList<Object> list)
+	{
+		LoadingTargetNode pending = pendingLoads.get(obj);
+
+		if (!obj.isLoaded() && (pending == null
+				|| pending.getState() != LoadingTargetNode.STATE_LOADED))
+		{
+			// If the load failed, the placeholder stays as an error leaf
+			// until the user tries again.
+
+			list.add(loadInBackground(visibleParent, obj));
+			return;
+		}
+
 		try
 		{
 			SubmissionTarget[] children = obj.getLogicalChildren();
@@ -78,57 +527,290 @@ public class SubmissionTargetsContentProvider implements ITreeContentProvider
 				if (!child.isHidden())
 				{
 					if (child.isContainer() && !child.isNested())
-						computeChildren(child, list);
-					else
+						computeChildren(visibleParent, child, list);
+					else if (passesFilter(child))
 						list.add(child);
 				}
 			}
 		}
 		catch (Throwable e)
 		{
-			SubmissionParserErrorDialog dlg = new SubmissionParserErrorDialog(
-			        null, e);
-			dlg.open();
+			// Show the failure in place of this target's children, and keep
+			// the siblings that were computed already.
 
-			list.clear();
+			LoadingTargetNode failed =
+				new LoadingTargetNode(visibleParent, obj);
+			failed.setError(e);
+			list.add(failed);
 		}
 	}
 
 
 	// ----------------------------------------------------------
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see org.eclipse.jface.viewers.ITreeContentProvider#getParent(java.lang.Object)
+	/**
+	 * Filters the tree so that it only shows the specified targets, the
+	 * groups that contain them, and the contents of any groups among them.
+	 *
+	 * @param matches the targets to show, or null to show all of them
+	 * @param ancestors the groups that contain the targets to show
 	 */
-	public Object getParent(Object element)
+	public void setFilter(Set<SubmissionTarget> matches,
+			Set<SubmissionTarget> ancestors)
 	{
-		return ((SubmissionTarget) element).parent();
+		filterMatches = matches;
+		filterAncestors = ancestors;
+
+		childCache.clear();
+		viewer.refresh();
 	}
 
 
 	// ----------------------------------------------------------
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see org.eclipse.jface.viewers.ITreeContentProvider#hasChildren(java.lang.Object)
+	/**
+	 * Gets a value indicating whether a target should be shown under the
+	 * current filter.
 	 */
-	public boolean hasChildren(Object element)
+	private boolean passesFilter(SubmissionTarget target)
 	{
-		if (element instanceof ImportGroupTarget)
+		if (filterMatches == null || filterAncestors.contains(target))
 		{
-			// If it's an imported group, it might have children.
-			// Chances are it does. We want expand logic here.
-
 			return true;
 		}
+
+		for (SubmissionTarget t = target; t != null; t = t.parent())
+		{
+			if (filterMatches.contains(t))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts loading the specified imported group in a background job, if it
+	 * is not already being loaded.
+	 *
+	 * @param visibleParent the element in the tree whose children include
+	 *     the contents of the group
+	 * @param target the imported group to load
+	 * @return the placeholder that represents the load
+	 */
+	private LoadingTargetNode loadInBackground(Object visibleParent,
+			SubmissionTarget target)
+	{
+		LoadingTargetNode pending = pendingLoads.get(target);
+
+		if (pending != null)
+		{
+			return pending;
+		}
+
+		final LoadingTargetNode node =
+			new LoadingTargetNode(visibleParent, target);
+		pendingLoads.put(target, node);
+
+		ImportGroupLoadJob job =
+			new ImportGroupLoadJob(node, getLoadLockFor(target));
+		node.setJob(job);
+		job.schedule();
+
+		viewer.getControl().getDisplay().timerExec(LOAD_TIMEOUT,
+				new Runnable() {
+			public void run()
+			{
+				loadTimedOut(node);
+			}
+		});
+
+		return node;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the lock that must be held while loading an imported group, which
+	 * is the load lock of the targets that it belongs to.
+	 *
+	 * @param target the imported group
+	 * @return the lock
+	 */
+	private Object getLoadLockFor(SubmissionTarget target)
+	{
+		SubmissionTarget root = target;
+
+		while (root.parent() != null)
+		{
+			root = root.parent();
+		}
+
+		DefinitionsSourceNode node = sourceRoots.get(root);
+
+		// A group whose targets are no longer in the tree can only be
+		// loaded by this job, so any lock of its own will do.
+
+		return (node != null && node.getSource() != null)
+			? node.getSource().getLoadLock() : new Object();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Tries again to compute the children that an error leaf stands in for.
+	 * Only that part of the tree is fetched again; an imported group that
+	 * failed is loaded again in the background.
+	 *
+	 * @param node the error leaf
+	 */
+	public void retry(LoadingTargetNode node)
+	{
+		SubmissionTarget target = node.getTarget();
+
+		if (target != null && pendingLoads.get(target) == node)
+		{
+			pendingLoads.remove(target);
+		}
+
+		childCache.remove(node.getParent());
+		viewer.refresh(node.getParent());
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts loading an imported group in the background, without expanding
+	 * it in the tree, such as to find a target inside it.
+	 *
+	 * @param group the imported group to load
+	 */
+	public void loadGroup(SubmissionTarget group)
+	{
+		if (!group.isLoaded())
+		{
+			loadInBackground(group.isNested() ? group : getParent(group),
+					group);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Sets the code to run on the UI thread whenever an imported group
+	 * finishes loading successfully.
+	 *
+	 * @param callback the code to run, or null
+	 */
+	public void setImportLoadedCallback(Runnable callback)
+	{
+		importLoadedCallback = callback;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called on the UI thread when an imported group has finished loading.
+	 *
+	 * @param node the placeholder for the load
+	 * @param error the error that occurred, or null if it was successful
+	 */
+	private void loadFinished(LoadingTargetNode node, Throwable error)
+	{
+		if (viewer == null || viewer.getControl().isDisposed()
+				|| pendingLoads.get(node.getTarget()) != node)
+		{
+			// The load was canceled, or the tree is gone.
+
+			return;
+		}
+
+		if (error != null)
+		{
+			node.setError(error);
+		}
 		else
 		{
-			ArrayList<SubmissionTarget> children =
-				new ArrayList<SubmissionTarget>();
-			computeChildren((SubmissionTarget)element, children);
-			return children.size() > 0;
+			node.setState(LoadingTargetNode.STATE_LOADED);
+		}
+
+		childCache.remove(node.getParent());
+		viewer.refresh(node.getParent());
+
+		if (error == null && importLoadedCallback != null)
+		{
+			importLoadedCallback.run();
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called on the UI thread when an imported group has been loading for
+	 * longer than the timeout. The placeholder is updated to tell the user;
+	 * the contents will still appear if the load eventually finishes.
+	 *
+	 * @param node the placeholder for the load
+	 */
+	private void loadTimedOut(LoadingTargetNode node)
+	{
+		if (viewer != null && !viewer.getControl().isDisposed()
+				&& pendingLoads.get(node.getTarget()) == node
+				&& node.getState() == LoadingTargetNode.STATE_LOADING)
+		{
+			node.setState(LoadingTargetNode.STATE_TIMED_OUT);
+			viewer.update(node, null);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Cancels the background loads whose placeholders appear under the
+	 * specified element, so that they will be started again the next time
+	 * that the element is expanded.
+	 *
+	 * @param element the element that was collapsed
+	 */
+	private void cancelLoadsUnder(Object element)
+	{
+		boolean canceled = false;
+		Iterator<LoadingTargetNode> it = pendingLoads.values().iterator();
+
+		while (it.hasNext())
+		{
+			LoadingTargetNode node = it.next();
+
+			if (node.getParent() == element
+					&& node.getState() != LoadingTargetNode.STATE_LOADED)
+			{
+				node.getJob().cancel();
+				it.remove();
+				canceled = true;
+			}
+		}
+
+		if (canceled)
+		{
+			childCache.remove(element);
+			viewer.refresh(element);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Cancels all of the background loads.
+	 */
+	private void cancelAllLoads()
+	{
+		for (LoadingTargetNode node : pendingLoads.values())
+		{
+			node.getJob().cancel();
 		}
+
+		pendingLoads.clear();
 	}
 
 
@@ -136,11 +818,104 @@ public class SubmissionTargetsContentProvider implements ITreeContentProvider
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see org.eclipse.jface.viewers.IStructuredContentProvider#getElements(java.lang.Object)
+	 * @see org.eclipse.jface.viewers.ILazyTreeContentProvider#getParent(java.lang.Object)
 	 */
-	public Object[] getElements(Object inputElement)
+	public Object getParent(Object element)
 	{
-		return getChildren(root);
+		if (element instanceof LoadingTargetNode)
+		{
+			return ((LoadingTargetNode) element).getParent();
+		}
+		else if (element instanceof DefinitionsSourceNode)
+		{
+			return input;
+		}
+		else if (element instanceof TargetOutline)
+		{
+			TargetOutline outline = (TargetOutline) element;
+			TargetOutline parent = outline.getParent();
+
+			while (parent != null && !parent.isNested())
+			{
+				outline = parent;
+				parent = parent.getParent();
+			}
+
+			if (parent != null)
+			{
+				return parent;
+			}
+
+			DefinitionsSourceNode node = outlineSources.get(outline);
+			return (node != null) ? getVisibleParent(node) : null;
+		}
+
+		// Groups without names are not displayed, so skip over them to the
+		// nearest group that is.
+
+		SubmissionTarget parent = ((SubmissionTarget) element).parent();
+
+		while (parent != null)
+		{
+			DefinitionsSourceNode node = sourceRoots.get(parent);
+
+			if (node != null)
+			{
+				return getVisibleParent(node);
+			}
+			else if (parent.isNested())
+			{
+				return parent;
+			}
+
+			parent = parent.parent();
+		}
+
+		return null;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether an element in the tree should be shown
+	 * as expandable. This is answered without computing the element's
+	 * children where possible, so that rows can be created without visiting
+	 * the targets beneath them.
+	 *
+	 * @param element the element
+	 * @return true if the element has, or might have, children
+	 */
+	private boolean hasChildren(Object element)
+	{
+		Object[] children = childCache.get(element);
+
+		if (children != null)
+		{
+			return children.length > 0;
+		}
+		else if (element instanceof LoadingTargetNode)
+		{
+			return false;
+		}
+		else if (element instanceof ImportGroupTarget)
+		{
+			// If it's an imported group, it might have children.
+			// Chances are it does. We want expand logic here.
+
+			return true;
+		}
+		else if (element instanceof SubmissionTarget)
+		{
+			return ((SubmissionTarget) element).isContainer();
+		}
+		else if (element instanceof TargetOutline)
+		{
+			return ((TargetOutline) element).isContainer();
+		}
+		else
+		{
+			return getChildren(element).length > 0;
+		}
 	}
 
 
@@ -152,7 +927,10 @@ public class SubmissionTargetsContentProvider implements ITreeContentProvider
 	 */
 	public void dispose()
 	{
-		// Do nothing.
+		cancelAllLoads();
+		childCache.clear();
+		sourceRoots.clear();
+		outlineSources.clear();
 	}
 
 
@@ -163,14 +941,190 @@ public class SubmissionTargetsContentProvider implements ITreeContentProvider
 	 * @see org.eclipse.jface.viewers.IContentProvider#inputChanged(org.eclipse.jface.viewers.Viewer,
 	 *      java.lang.Object, java.lang.Object)
 	 */
+	@SuppressWarnings("unchecked")
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput)
 	{
-		root = (SubmissionTarget) newInput;
+		cancelAllLoads();
+		childCache.clear();
+		sourceRoots.clear();
+		outlineSources.clear();
+
+		if (this.viewer != viewer)
+		{
+			if (this.viewer != null)
+			{
+				this.viewer.removeTreeListener(collapseListener);
+			}
+
+			this.viewer = (TreeViewer) viewer;
+
+			if (this.viewer != null)
+			{
+				this.viewer.addTreeListener(collapseListener);
+			}
+		}
+
+		input = newInput;
+		sources = (newInput != null)
+			? (List<DefinitionsSourceNode>) newInput
+			: new ArrayList<DefinitionsSourceNode>();
 	}
 
-	
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * The job that loads an imported group in the background.
+	 */
+	private class ImportGroupLoadJob extends Job
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public ImportGroupLoadJob(LoadingTargetNode node, Object loadLock)
+		{
+			super("Loading imported submission targets");
+
+			this.node = node;
+			this.loadLock = loadLock;
+			this.display = viewer.getControl().getDisplay();
+
+			setSystem(true);
+			setPriority(Job.SHORT);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		protected IStatus run(IProgressMonitor monitor)
+		{
+			Throwable error = null;
+
+			DefinitionsCache cache =
+				SubmitterCore.getDefault().getDefinitionsCache();
+
+			cache.beginCachedFetch();
+
+			try
+			{
+				// The group may already be loading in the background
+				// because it is one the user opens often; wait for that
+				// load rather than fetching it twice.
+
+				synchronized (loadLock)
+				{
+					node.getTarget().getLogicalChildren();
+				}
+			}
+			catch (Throwable e)
+			{
+				error = e;
+			}
+			finally
+			{
+				cache.endCachedFetch();
+			}
+
+			final Throwable loadError = error;
+
+			if (!display.isDisposed())
+			{
+				display.asyncExec(new Runnable() {
+					public void run()
+					{
+						loadFinished(node, loadError);
+					}
+				});
+			}
+
+			return monitor.isCanceled() ? Status.CANCEL_STATUS
+					: Status.OK_STATUS;
+		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The placeholder for the imported group being loaded. */
+		private LoadingTargetNode node;
+
+		/* The load lock of the targets that the group belongs to. */
+		private Object loadLock;
+
+		/* The display on which the tree is refreshed. */
+		private Display display;
+	}
+
+
 	//~ Static/instance variables .............................................
 
-	/* The root of the submission target tree. */
-	private SubmissionTarget root;
+	/* How long an imported group can take to load before the user is told
+	   that it has timed out, in milliseconds. */
+	private static final int LOAD_TIMEOUT = 30000;
+
+	/* The tree's input, which is the list of definitions URLs. */
+	private Object input;
+
+	/* The nodes for the definitions URLs. */
+	private List<DefinitionsSourceNode> sources =
+		new ArrayList<DefinitionsSourceNode>();
+
+	/* The definitions URL that each loaded root target came from. */
+	private Map<SubmissionTarget, DefinitionsSourceNode> sourceRoots =
+		new HashMap<SubmissionTarget, DefinitionsSourceNode>();
+
+	/* The definitions URL that each top-level outline came from. */
+	private Map<TargetOutline, DefinitionsSourceNode> outlineSources =
+		new HashMap<TargetOutline, DefinitionsSourceNode>();
+
+	/* The targets that match the filter, or null if the tree is not
+	   filtered. */
+	private Set<SubmissionTarget> filterMatches;
+
+	/* The groups that contain the targets that match the filter. */
+	private Set<SubmissionTarget> filterAncestors;
+
+	/* Run whenever an imported group finishes loading. */
+	private Runnable importLoadedCallback;
+
+	/* The tree viewer that this content provider is attached to. */
+	private TreeViewer viewer;
+
+	/* The visible children of each element in the tree that has been
+	   visited, so that they are only computed once for hasChildren and
+	   getChildren. Entries are removed when an imported group under the
+	   element finishes loading. */
+	private Map<Object, Object[]> childCache = new HashMap<Object, Object[]>();
+
+	/* The placeholders for imported groups that are being loaded in the
+	   background, keyed by the group being loaded. */
+	private Map<SubmissionTarget, LoadingTargetNode> pendingLoads =
+		new HashMap<SubmissionTarget, LoadingTargetNode>();
+
+	/* Cancels any loads under a node when it is collapsed. */
+	private ITreeViewerListener collapseListener = new ITreeViewerListener() {
+		public void treeCollapsed(TreeExpansionEvent event)
+		{
+			final Object element = event.getElement();
+
+			// The tree cannot be refreshed while it is still processing the
+			// collapse, so wait until it is done.
+
+			viewer.getControl().getDisplay().asyncExec(new Runnable() {
+				public void run()
+				{
+					if (viewer != null && !viewer.getControl().isDisposed())
+					{
+						cancelLoadsUnder(element);
+					}
+				}
+			});
+		}
+
+		public void treeExpanded(TreeExpansionEvent event)
+		{
+			// Do nothing.
+		}
+	};
 }
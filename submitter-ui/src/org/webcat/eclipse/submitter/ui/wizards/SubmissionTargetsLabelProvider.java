@@ -22,8 +22,13 @@
 package org.webcat.eclipse.submitter.ui.wizards;
 
 import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.ui.ISharedImages;
+import org.eclipse.ui.PlatformUI;
+import org.webcat.eclipse.submitter.core.TargetOutline;
 import org.webcat.eclipse.submitter.ui.SubmitterUIPlugin;
+import org.webcat.eclipse.submitter.ui.i18n.Messages;
 import org.webcat.submitter.targets.SubmissionTarget;
 
 //--------------------------------------------------------------------------
@@ -76,6 +81,27 @@ public class SubmissionTargetsLabelProvider extends LabelProvider
 	 */
 	public Image getImage(Object element)
 	{
+		if (element instanceof LoadingTargetNode)
+		{
+			if (((LoadingTargetNode) element).getState()
+					== LoadingTargetNode.STATE_FAILED)
+			{
+				return PlatformUI.getWorkbench().getSharedImages().getImage(
+						ISharedImages.IMG_OBJS_ERROR_TSK);
+			}
+
+			return null;
+		}
+		else if (element instanceof TargetOutline)
+		{
+			return ((TargetOutline) element).isContainer()
+				? folderImage : fileImage;
+		}
+		else if (element instanceof DefinitionsSourceNode)
+		{
+			return folderImage;
+		}
+
 		SubmissionTarget object = (SubmissionTarget)element;
 		
 		if(object.isContainer())
@@ -97,6 +123,40 @@ public class SubmissionTargetsLabelProvider extends LabelProvider
 	 */
 	public String getText(Object element)
 	{
+		if (element instanceof LoadingTargetNode)
+		{
+			LoadingTargetNode node = (LoadingTargetNode) element;
+
+			if (node.getState() == LoadingTargetNode.STATE_TIMED_OUT)
+			{
+				return Messages.TARGETTREE_LOAD_TIMED_OUT;
+			}
+			else if (node.getState() == LoadingTargetNode.STATE_FAILED)
+			{
+				if (node.getTarget() == null)
+				{
+					return Messages.TARGETTREE_SOURCE_FAILED;
+				}
+				else
+				{
+					return NLS.bind(Messages.TARGETTREE_LOAD_FAILED,
+							getErrorText(node.getError()));
+				}
+			}
+			else
+			{
+				return Messages.TARGETTREE_LOADING;
+			}
+		}
+		else if (element instanceof TargetOutline)
+		{
+			return ((TargetOutline) element).getName();
+		}
+		else if (element instanceof DefinitionsSourceNode)
+		{
+			return ((DefinitionsSourceNode) element).getURL().toString();
+		}
+
 		SubmissionTarget object = (SubmissionTarget)element;
 
 		if (object.getName() != null)
@@ -110,6 +170,27 @@ public class SubmissionTargetsLabelProvider extends LabelProvider
 	}
 
 
+	// ----------------------------------------------------------
+	/**
+	 * Gets a short description of an error to show in the tree.
+	 */
+	private String getErrorText(Throwable error)
+	{
+		if (error == null)
+		{
+			return ""; //$NON-NLS-1$
+		}
+		else if (error.getMessage() != null)
+		{
+			return error.getMessage();
+		}
+		else
+		{
+			return error.getClass().getSimpleName();
+		}
+	}
+
+
 	//~ Static/instance variables .............................................
 
 	/* The image used for assignment groups and imported groups. */
@@ -21,26 +21,52 @@
 
 package org.webcat.eclipse.submitter.ui.wizards;
 
+import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
+import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.jface.operation.IRunnableContext;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IMenuListener;
+import org.eclipse.jface.action.IMenuManager;
+import org.eclipse.jface.action.MenuManager;
+import org.eclipse.jface.operation.IRunnableWithProgress;
+import org.eclipse.jface.viewers.IOpenListener;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.ITreeViewerListener;
+import org.eclipse.jface.viewers.OpenEvent;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.TreeExpansionEvent;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.window.Window;
 import org.eclipse.jface.wizard.IWizardPage;
 import org.eclipse.jface.wizard.WizardPage;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.KeyAdapter;
+import org.eclipse.swt.events.KeyEvent;
 import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -48,23 +74,32 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Text;
-import org.eclipse.swt.widgets.Tree;
-import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.dialogs.ElementListSelectionDialog;
 import org.eclipse.ui.model.WorkbenchLabelProvider;
-import org.webcat.eclipse.submitter.core.SubmittableEclipseResource;
+import org.webcat.eclipse.submitter.core.DefinitionsSource;
+import org.webcat.eclipse.submitter.core.IDefinitionsLoadListener;
+import org.webcat.eclipse.submitter.core.IDefinitionsRefreshListener;
+import org.webcat.eclipse.submitter.core.ProjectManifestIndex;
+import org.webcat.eclipse.submitter.core.ProjectTraversal;
+import org.webcat.eclipse.submitter.core.RequiredFiles;
 import org.webcat.eclipse.submitter.core.SubmitterCore;
+import org.webcat.eclipse.submitter.core.TargetOutline;
+import org.webcat.eclipse.submitter.core.TargetPath;
+import org.webcat.eclipse.submitter.core.TargetTreeDiff;
 import org.webcat.eclipse.submitter.ui.SWTUtil;
 import org.webcat.eclipse.submitter.ui.SubmitterUIPlugin;
+import org.webcat.eclipse.submitter.ui.dialogs.SubmissionParserErrorDialog;
 import org.webcat.eclipse.submitter.ui.i18n.Messages;
 import org.webcat.submitter.ISubmittableItem;
 import org.webcat.submitter.RequiredItemsMissingException;
 import org.webcat.submitter.SubmissionManifest;
-import org.webcat.submitter.SubmissionTargetException;
 import org.webcat.submitter.Submitter;
 import org.webcat.submitter.targets.AssignmentTarget;
+import org.webcat.submitter.targets.ImportGroupTarget;
 import org.webcat.submitter.targets.SubmissionTarget;
 
 //--------------------------------------------------------------------------
@@ -84,17 +119,15 @@ public class SubmitterStartPage extends WizardPage
 	/**
 	 * Creates a new instance of the main wizard page.
 	 * 
-	 * @param submitter the {@link Submitter} to use to submit
 	 * @param project the project being submitted
 	 */
-	protected SubmitterStartPage(Submitter submitter, IProject project)
+	protected SubmitterStartPage(IProject project)
 	{
 		super(Messages.STARTPAGE_PAGE_NAME);
 
 		setTitle(Messages.STARTPAGE_PAGE_TITLE);
 		setDescription(Messages.STARTPAGE_PAGE_DESCRIPTION);
 
-		this.submitter = submitter;
 		this.project = project;
 	}
 
@@ -127,8 +160,6 @@ public class SubmitterStartPage extends WizardPage
 	// ----------------------------------------------------------
 	public void createControl(Composite parent)
 	{
-		IRunnableContext context = getContainer();
-
 		Composite composite = new Composite(parent, SWT.NONE);
 		GridLayout gl = new GridLayout();
 		gl.numColumns = 2;
@@ -169,17 +200,57 @@ public class SubmitterStartPage extends WizardPage
 		gd.heightHint = 12;
 		separator.setLayoutData(gd);
 
+		new Label(composite, SWT.NONE).setText(Messages.STARTPAGE_FILTER);
+		filterField = new Text(composite,
+				SWT.BORDER | SWT.SEARCH | SWT.ICON_CANCEL);
+		filterField.setMessage(Messages.STARTPAGE_FILTER_MESSAGE);
+		gd = new GridData(SWT.FILL, SWT.CENTER, true, false);
+		filterField.setLayoutData(gd);
+		filterField.addModifyListener(new ModifyListener() {
+			public void modifyText(ModifyEvent e)
+			{
+				applyFilter();
+			}
+		});
+		filterField.addKeyListener(new KeyAdapter() {
+			public void keyPressed(KeyEvent e)
+			{
+				if (e.keyCode == SWT.ARROW_DOWN)
+				{
+					assignmentTree.getControl().setFocus();
+				}
+			}
+		});
+
 		Label submitLabel = new Label(composite, SWT.NONE);
 		submitLabel.setText(Messages.STARTPAGE_SUBMIT_AS);
 		gd = new GridData(SWT.BEGINNING, SWT.BEGINNING, false, false);
 		submitLabel.setLayoutData(gd);
 
+		// The tree is virtual, so that only the rows that are visible are
+		// created, no matter how many assignments there are.
+
 		assignmentTree = new TreeViewer(composite,
-				SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER);
-		assignmentTree.setContentProvider(
-				new SubmissionTargetsContentProvider());
-		assignmentTree.setLabelProvider(new SubmissionTargetsLabelProvider());
-		assignmentTree.setInput(submitter.getRoot());
+				SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER | SWT.VIRTUAL);
+		assignmentTree.setUseHashlookup(true);
+		contentProvider = new SubmissionTargetsContentProvider();
+		labelProvider = new SubmissionTargetsLabelProvider();
+		assignmentTree.setContentProvider(contentProvider);
+		assignmentTree.setLabelProvider(labelProvider);
+		assignmentTree.setInput(createSourceNodes());
+		assignmentTree.addTreeListener(expansionListener);
+		initializeExpandedPaths();
+
+		contentProvider.setImportLoadedCallback(new Runnable() {
+			public void run()
+			{
+				if (restoringSelection
+						&& assignmentTree.getSelection().isEmpty())
+				{
+					selectLastSelectedAssignmentInTree();
+				}
+			}
+		});
 
 		gd = new GridData(GridData.FILL_HORIZONTAL);
 		gd.heightHint = 150;
@@ -191,6 +262,18 @@ public class SubmitterStartPage extends WizardPage
 				        assignmentTreeSelectionChanged();
 			        }
 		        });
+		assignmentTree.addOpenListener(new IOpenListener() {
+			public void open(OpenEvent event)
+			{
+				LoadingTargetNode node = getSelectedErrorNode();
+
+				if (node != null)
+				{
+					retryLoad(node);
+				}
+			}
+		});
+		createErrorMenu();
 
 		new Label(composite, SWT.NONE).setText(Messages.STARTPAGE_USERNAME);
 		username = new Text(composite, SWT.BORDER);
@@ -200,7 +283,7 @@ public class SubmitterStartPage extends WizardPage
 		username.addModifyListener(new ModifyListener() {
 			public void modifyText(ModifyEvent e)
 			{
-				updatePageComplete();
+				scheduleValidation();
 			}
 		});
 
@@ -212,7 +295,7 @@ public class SubmitterStartPage extends WizardPage
 		password.addModifyListener(new ModifyListener() {
 			public void modifyText(ModifyEvent e)
 			{
-				updatePageComplete();
+				scheduleValidation();
 			}
 		});
 
@@ -278,375 +361,1600 @@ public class SubmitterStartPage extends WizardPage
 
 		partners.setText(lastPartners);
 
-		expandAllLocalGroups(submitter.getRoot(), context);
-		selectLastSelectedAssignmentInTree();		
 		initializationComplete = true;
-		
-		updatePageComplete();
-	}
-
-
-	// ----------------------------------------------------------
-	private void chooseProjectToSubmit()
-	{
-		IProject[] allProjects = ResourcesPlugin.getWorkspace().getRoot()
-		        .getProjects();
-		ArrayList<IProject> filteredProjects = new ArrayList<IProject>();
-		for(int i = 0; i < allProjects.length; i++)
-			if(allProjects[i].isOpen())
-				filteredProjects.add(allProjects[i]);
 
-		ElementListSelectionDialog dialog = new ElementListSelectionDialog(
-		        getShell(), new WorkbenchLabelProvider());
-
-		dialog.setElements(filteredProjects.toArray());
-		dialog.setMessage(Messages.STARTPAGE_CHOOSE_PROJECT_TITLE);
-		dialog.setMatchEmptyString(true);
-		dialog.setMultipleSelection(false);
+		indexProject();
+		updatePageComplete();
 
-		if(project != null)
-			dialog.setInitialSelections(new IProject[] { project });
+		// Start loading the submission targets. Until they have been loaded,
+		// the tree shows an outline of them as it is read, so that the user
+		// can find their assignment while the rest are still arriving.
 
-		int result = dialog.open();
-		if(result == Window.OK)
+		try
 		{
-			project = (IProject)dialog.getResult()[0];
-			projectField.setText(project.getName());
-			
-			// Update the wizard's copy of the project as well so that the
-			// internal result browser gets initialized correctly.
-
-			((SubmitterWizard) getWizard()).setProject(project);
+			SubmitterCore.getDefault().getSubmissionTargetsManager()
+				.addRefreshListener(refreshListener);
+			SubmitterCore.getDefault().getSubmissionTargetsManager()
+				.loadDefinitions(loadListener);
 		}
+		catch (MalformedURLException e)
+		{
+			// This was checked before the wizard was opened, so it can only
+			// happen if the preferences were changed in the meantime.
 
-		updatePageComplete();
+			definitionsFailed(null, e);
+		}
 	}
 
 
 	// ----------------------------------------------------------
-	private void expandAllLocalGroups(SubmissionTarget obj,
-			                          IRunnableContext context)
+	public void dispose()
 	{
-		try
-		{
-			SubmissionTarget[] children = obj.getLogicalChildren();
-
-			for(int i = 0; i < children.length; i++)
-			{
-				SubmissionTarget child = children[i];
+		SubmitterCore.getDefault().getSubmissionTargetsManager()
+			.removeLoadListener(loadListener);
+		SubmitterCore.getDefault().getSubmissionTargetsManager()
+			.removeRefreshListener(refreshListener);
 
-				if(child.isLoaded())
-				{
-					if(assignmentTree.isExpandable(child))
-					{
-						assignmentTree.setExpandedState(child, true);
-						expandAllLocalGroups(child, context);
-					}
-				}
-			}
+		if (!getControl().isDisposed())
+		{
+			getControl().getDisplay().timerExec(-1, validationRunnable);
 		}
-		catch(SubmissionTargetException e)
+
+		if (requiredFilesJob != null)
 		{
-			// Do nothing.
+			requiredFilesJob.cancel();
+			requiredFilesJob = null;
 		}
+
+		super.dispose();
 	}
 
 
 	// ----------------------------------------------------------
-	private boolean usesPartnersParameter(SubmissionTarget target)
+	/**
+	 * Creates the nodes that represent the definitions URLs in the tree.
+	 *
+	 * @return the list of nodes, which is the input to the tree
+	 */
+	private List<DefinitionsSourceNode> createSourceNodes()
 	{
+		sources = new ArrayList<DefinitionsSourceNode>();
+
 		try
 		{
-			Map<String, String> params;
-	
-			params = target.getPackagerParameters();
-			
-			for (Map.Entry<String, String> paramEntry : params.entrySet())
-			{
-				if (paramEntry.getValue().contains("${partners}")) //$NON-NLS-1$
-				{
-					return true;
-				}
-			}
-
-			params = target.getTransportParameters();
-			
-			for (Map.Entry<String, String> paramEntry : params.entrySet())
-			{
-				if (paramEntry.getValue().contains("${partners}")) //$NON-NLS-1$
-				{
-					return true;
-				}
-			}
-			
-			String transport = target.getTransport();
-			
-			if (transport.contains("${partners}")) //$NON-NLS-1$
+			for (URL url : SubmitterCore.getDefault()
+					.getSubmissionTargetsManager().getDefinitionsURLs())
 			{
-				return true;
+				sources.add(new DefinitionsSourceNode(url));
 			}
-			
-			return false;
 		}
-		catch (SubmissionTargetException e)
+		catch (MalformedURLException e)
 		{
-			return false;
+			// Reported when the targets are loaded.
 		}
-	}
 
-
-	// ----------------------------------------------------------
-	private void assignmentTreeSelectionChanged()
-	{
-		updatePageComplete();
+		return sources;
 	}
 
 
 	// ----------------------------------------------------------
-	public boolean canFlipToNextPage()
+	/**
+	 * Gets the node for the specified definitions URL.
+	 *
+	 * @param url the definitions URL
+	 * @return the node, or null if the URL is not one of the ones in the tree
+	 */
+	private DefinitionsSourceNode getSourceNode(URL url)
 	{
-		return isPageComplete();
+		return getSourceNode(url.toString());
 	}
 
 
 	// ----------------------------------------------------------
-	private void setErrorMessageIfInitialized(String msg)
+	/**
+	 * Gets the node for the specified definitions URL.
+	 *
+	 * @param url the definitions URL, as a string
+	 * @return the node, or null if the URL is not one of the ones in the tree
+	 */
+	private DefinitionsSourceNode getSourceNode(String url)
 	{
-		if(initializationComplete)
-			setErrorMessage(msg);
+		for (DefinitionsSourceNode node : sources)
+		{
+			if (node.getURL().toString().equals(url))
+			{
+				return node;
+			}
+		}
+
+		return null;
 	}
 
 
 	// ----------------------------------------------------------
-	private void updatePageComplete()
+	/**
+	 * Adds the outline of a top-level target to the tree while its
+	 * definitions are still being loaded.
+	 *
+	 * @param url the definitions URL that the target came from
+	 * @param outline the outline of the target
+	 */
+	private void outlineRead(URL url, TargetOutline outline)
 	{
-		if(project == null)
-		{
-			setPageComplete(false);
-			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_NO_PROJECT);
-			return;
-		}
+		DefinitionsSourceNode node = getSourceNode(url);
 
-		IStructuredSelection sel = (IStructuredSelection)assignmentTree
-		        .getSelection();
-		if(sel.isEmpty())
+		if (node == null
+				|| node.getState() != DefinitionsSourceNode.STATE_LOADING)
 		{
-			setPageComplete(false);
-			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_NO_TARGET);
 			return;
 		}
 
-		SubmissionTarget object = getSelectedAssignment();
+		node.addOutline(outline);
+		contentProvider.sourceChanged(node);
 
-		if(object == null || !object.isActionable())
+		if (!filtering)
 		{
-			setPageComplete(false);
-			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_INVALID_TARGET);
-			return;
+			restoreExpandedState();
 		}
-		else
-			setPageComplete(true);
 
-		if(username.getText().trim().length() == 0)
+		// Select the assignment that the user chose last time as soon as it
+		// appears, unless they have already picked something else.
+
+		if (assignmentTree.getSelection().isEmpty())
 		{
-			setPageComplete(false);
-			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_NO_USERNAME);
-			return;
+			selectLastSelectedAssignmentInTree();
 		}
-
-		SubmissionTarget target = getSelectedAssignment();
-		
-		boolean usesPartners =
-			(target != null && usesPartnersParameter(target));
-		
-		partnersLabel.setVisible(usesPartners);
-		partnersLabel2.setVisible(usesPartners);
-		partners.setVisible(usesPartners);
-
-		setErrorMessage(null);
 	}
 
 
 	// ----------------------------------------------------------
-	private ISubmittableItem[] getProjectChildren()
+	/**
+	 * Gets the paths of the elements that the user has expanded from the
+	 * plug-in, so that the tree looks the way they left it the last time the
+	 * wizard was open. The first time the wizard is opened, the top-level
+	 * elements are expanded instead.
+	 */
+	private void initializeExpandedPaths()
 	{
-		try
-		{
-			ISubmittableItem[] children =
-				new ISubmittableItem[project.members().length];
-			
-			int i = 0;
-			for (IResource resource : project.members())
-			{
-				children[i++] = new SubmittableEclipseResource(resource);
-			}
-	
-			return children;
-		}
-		catch (CoreException e)
+		expandedPaths =
+			SubmitterUIPlugin.getDefault().getExpandedAssignmentPaths();
+
+		if (expandedPaths == null)
 		{
-			return new ISubmittableItem[0];
+			expandedPaths = new LinkedHashSet<String>();
+			SubmitterUIPlugin.getDefault().setExpandedAssignmentPaths(
+					expandedPaths);
+
+			defaultExpandedPaths = new HashSet<String>();
 		}
 	}
 
-	
+
 	// ----------------------------------------------------------
-	public IWizardPage getNextPage()
+	/**
+	 * Expands the elements in the tree that the user had expanded before,
+	 * as they appear. Only the elements whose ancestors are all expanded are
+	 * expanded, and the tree creates rows for them only as they become
+	 * visible.
+	 */
+	private void restoreExpandedState()
 	{
-		SubmitterSummaryPage nextPage = (SubmitterSummaryPage)super
-		        .getNextPage();
-
-		if(isPageComplete())
+		if (defaultExpandedPaths != null)
 		{
-			// Remember the last values entered in the wizard for the rest of
-			// the session.
-
-			updateLastSelectedAssignmentPath();
-			SubmitterUIPlugin.getDefault().setLastEnteredUsername(
-					username.getText());
-			SubmitterUIPlugin.getDefault().setLastEnteredPassword(
-					password.getText());
-			SubmitterUIPlugin.getDefault().setLastEnteredPartners(
-					partners.getText());
-
-			SubmissionManifest manifest = new SubmissionManifest();
-			manifest.setAssignment(getSelectedAssignment());
-			manifest.setSubmittableItems(getProjectChildren());
-			manifest.setUsername(username.getText().trim());
-			manifest.setPassword(password.getText());
-			manifest.setParameter("partners", partners.getText().trim()); //$NON-NLS-1$
-
-			try
-			{
-				submitter.submit(manifest);
-				
-				nextPage.setResultCode(SubmitterSummaryPage.RESULT_OK,
-				        Messages.STARTPAGE_CLICK_FINISH_TO_EXIT);
-			}
-			catch(RequiredItemsMissingException e)
+			for (Object element : contentProvider.getChildren(sources))
 			{
-				StringBuffer buffer = new StringBuffer();
-				buffer.append(Messages.STARTPAGE_ERROR_REQUIRED_FILES_MISSING);
-
-				for(int i = 0; i < e.getMissingFiles().length; i++)
+				if (element instanceof LoadingTargetNode)
 				{
-					buffer.append('\u2022');
-					buffer.append(' ');
-					buffer.append(e.getMissingFiles()[i]);
-					buffer.append('\n');
+					continue;
 				}
 
-				nextPage.setResultCode(SubmitterSummaryPage.RESULT_INCOMPLETE,
-				        buffer.toString());
-			}
-			catch(MalformedURLException e)
-			{
-				nextPage.setResultCode(SubmitterSummaryPage.RESULT_ERROR,
-				        Messages.STARTPAGE_ERROR_BAD_URL, e);
-			}
-			catch(UnknownHostException e)
-			{
-				nextPage.setResultCode(SubmitterSummaryPage.RESULT_ERROR,
-				        Messages.STARTPAGE_ERROR_COULD_NOT_CONNECT, e);
-			}
-			catch(Throwable e)
-			{
-				nextPage.setResultCode(SubmitterSummaryPage.RESULT_ERROR,
-				        Messages.STARTPAGE_ERROR_GENERIC, e);
+				String path = getElementPath(element);
+
+				if (defaultExpandedPaths.add(path))
+				{
+					expandedPaths.add(path);
+				}
 			}
 		}
 
-		return nextPage;
-	}
-	
-
-	// ----------------------------------------------------------
-	private void selectLastSelectedAssignmentInTree()
-	{
-		String path = 
-			SubmitterUIPlugin.getDefault().getLastSelectedAssignmentPath();
+		// Expand the shallowest elements first, so that each element's
+		// parent has already been expanded when it is reached.
 
-		Tree tree = assignmentTree.getTree();
-		TreeItem item = null;
+		String[] paths = expandedPaths.toArray(new String[expandedPaths.size()]);
+		Arrays.sort(paths, new Comparator<String>() {
+			public int compare(String path1, String path2)
+			{
+				return getPathDepth(path1) - getPathDepth(path2);
+			}
+		});
 
-		if (path != null)
+		for (String path : paths)
 		{
-			String[] components = path.split("/\\$#\\$/"); //$NON-NLS-1$
-			TreeItem[] children = tree.getItems();
+			Object element = findElement(path);
 
-			for (String component : components)
+			if (element != null)
 			{
-				item = findTreeItemWithText(component, children);
-				
-				if (item == null)
-				{
-					return;
-				}
-				else
+				Object parent = contentProvider.getParent(element);
+
+				if (parent == sources
+						|| assignmentTree.getExpandedState(parent))
 				{
-					item.setExpanded(true);
-					children = item.getItems();
+					assignmentTree.setExpandedState(element, true);
 				}
 			}
-
-			if (item != null)
-			{
-				tree.select(item);
-			}
 		}
 	}
 
 
 	// ----------------------------------------------------------
-	private TreeItem findTreeItemWithText(String text, TreeItem[] items)
+	/**
+	 * Replaces the outline of a definitions URL in the tree with its fully
+	 * loaded submission targets, keeping the user's selection if they have
+	 * made one.
+	 *
+	 * @param source the loaded targets
+	 */
+	private void definitionsLoaded(DefinitionsSource source)
 	{
-		for (TreeItem item : items)
+		DefinitionsSourceNode node = getSourceNode(source.getURL());
+
+		if (node == null)
 		{
-			if (item.getText().equals(text))
-			{
-				return item;
-			}
+			return;
+		}
+
+		String selectedPath = getSelectedAssignmentPath();
+
+		node.setSource(source);
+		contentProvider.sourceChanged(node);
+
+		if (filtering)
+		{
+			applyFilter();
+		}
+		else
+		{
+			restoreExpandedState();
+		}
+
+		if (selectedPath != null)
+		{
+			selectAssignmentPath(selectedPath);
+		}
+		else
+		{
+			selectLastSelectedAssignmentInTree();
+		}
+
+		updatePageComplete();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Updates the tree when the targets of a definitions URL have been
+	 * refreshed in the background while the wizard is open. Only the
+	 * elements that changed are added or removed; the user's expanded
+	 * groups and selection are kept.
+	 *
+	 * @param oldSource the targets that were replaced
+	 * @param newSource the targets that replaced them
+	 * @param diff the differences between the old targets and the new ones
+	 */
+	private void definitionsRefreshed(DefinitionsSource oldSource,
+			DefinitionsSource newSource, TargetTreeDiff diff)
+	{
+		DefinitionsSourceNode node = getSourceNode(oldSource.getURL());
+
+		if (node == null || node.getSource() != oldSource)
+		{
+			return;
+		}
+
+		IStructuredSelection sel =
+			(IStructuredSelection) assignmentTree.getSelection();
+		Object selected = sel.getFirstElement();
+
+		contentProvider.sourceRefreshed(node, newSource, diff);
+
+		if (filtering)
+		{
+			applyFilter();
+		}
+		else if (selected != null)
+		{
+			Object newSelected = diff.getNewTarget(selected);
+
+			if (newSelected != null)
+			{
+				assignmentTree.setSelection(
+						new StructuredSelection(newSelected), false);
+			}
+			else if (getRootOf(selected) == oldSource.getRoot())
+			{
+				assignmentTree.setSelection(StructuredSelection.EMPTY);
+			}
+		}
+
+		updatePageComplete();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the root of the target tree that an element in the tree belongs
+	 * to.
+	 *
+	 * @param element the element
+	 * @return the root target, or null if the element is not a target
+	 */
+	private SubmissionTarget getRootOf(Object element)
+	{
+		if (!(element instanceof SubmissionTarget))
+		{
+			return null;
+		}
+
+		SubmissionTarget top = (SubmissionTarget) element;
+
+		while (top.parent() != null)
+		{
+			top = top.parent();
+		}
+
+		return top;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Runs code on the UI thread, unless the page has been closed by the
+	 * time it gets there.
+	 *
+	 * @param runnable the code to run
+	 */
+	private void asyncExecIfOpen(final Runnable runnable)
+	{
+		Display display = assignmentTree.getControl().getDisplay();
+
+		display.asyncExec(new Runnable() {
+			public void run()
+			{
+				if (!assignmentTree.getControl().isDisposed())
+				{
+					runnable.run();
+				}
+			}
+		});
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Handles a definitions URL that could not be loaded. If it is the only
+	 * one, the user is told why and the wizard is closed, since there is
+	 * nothing to submit to; otherwise, only its part of the tree shows the
+	 * failure, and the user can still submit to the others.
+	 *
+	 * @param url the definitions URL that failed, or null if the URLs could
+	 *     not be determined at all
+	 * @param error the error that occurred
+	 */
+	private void definitionsFailed(URL url, Throwable error)
+	{
+		DefinitionsSourceNode node = (url != null) ? getSourceNode(url) : null;
+
+		if (node != null && sources.size() > 1)
+		{
+			node.setError(error);
+			contentProvider.sourceChanged(node);
+
+			if (!filtering)
+			{
+				restoreExpandedState();
+			}
+
+			updatePageComplete();
+			return;
+		}
+
+		SubmissionParserErrorDialog dlg =
+			new SubmissionParserErrorDialog(getShell(), error);
+		dlg.open();
+
+		getContainer().getShell().close();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Filters the tree to show the targets that match the text in the filter
+	 * field, using the index of each definitions URL that has been loaded,
+	 * and selects the best match. Only the groups that contain the matches
+	 * are expanded, and nothing is loaded to find them. When the filter
+	 * field is cleared, the tree goes back to the way the user left it.
+	 */
+	private void applyFilter()
+	{
+		String query = filterField.getText();
+
+		if (query.trim().length() == 0)
+		{
+			if (filtering)
+			{
+				filtering = false;
+
+				contentProvider.setFilter(null, null);
+				assignmentTree.collapseAll();
+				restoreExpandedState();
+
+				IStructuredSelection sel =
+					(IStructuredSelection) assignmentTree.getSelection();
+
+				if (!sel.isEmpty())
+				{
+					assignmentTree.reveal(sel.getFirstElement());
+				}
+			}
+
+			return;
+		}
+
+		filtering = true;
+
+		List<SubmissionTarget> matches = new ArrayList<SubmissionTarget>();
+
+		for (DefinitionsSourceNode node : sources)
+		{
+			if (node.getState() == DefinitionsSourceNode.STATE_LOADED)
+			{
+				matches.addAll(node.getSource().getIndex().find(
+						query, MAX_FILTER_MATCHES));
+			}
+		}
+
+		Set<SubmissionTarget> ancestors = new HashSet<SubmissionTarget>();
+
+		for (SubmissionTarget match : matches)
+		{
+			for (SubmissionTarget parent = match.parent(); parent != null;
+					parent = parent.parent())
+			{
+				ancestors.add(parent);
+			}
+		}
+
+		contentProvider.setFilter(
+				new HashSet<SubmissionTarget>(matches), ancestors);
+
+		// Expanding to level 0 expands only the groups that contain each
+		// match, not the match itself.
+
+		for (SubmissionTarget match : matches)
+		{
+			assignmentTree.expandToLevel(match, 0);
+		}
+
+		if (!matches.isEmpty())
+		{
+			assignmentTree.setSelection(
+					new StructuredSelection(matches.get(0)), true);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets a value indicating whether any of the definitions URLs are still
+	 * loading.
+	 *
+	 * @return true if any of the definitions URLs are still loading
+	 */
+	private boolean isLoading()
+	{
+		for (DefinitionsSourceNode node : sources)
+		{
+			if (node.getState() == DefinitionsSourceNode.STATE_LOADING)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the engine that should submit the specified manifest, which is
+	 * the one that read the definitions that the manifest's assignment came
+	 * from, and sets the manifest's items to the project's. If the project
+	 * has not been indexed yet, it is indexed in the wizard's progress area
+	 * so that the UI stays responsive.
+	 *
+	 * @param manifest the manifest
+	 * @return the submission engine
+	 * @throws Throwable if the project could not be indexed
+	 */
+	private Submitter createSubmitterFor(final SubmissionManifest manifest)
+	throws Throwable
+	{
+		final DefinitionsSource source =
+			getSourceFor(manifest.getAssignment());
+		final Submitter[] submitter = new Submitter[1];
+
+		try
+		{
+			getContainer().run(true, false, new IRunnableWithProgress()
+			{
+				public void run(IProgressMonitor monitor)
+						throws InvocationTargetException
+				{
+					monitor.beginTask(Messages.STARTPAGE_PREPARING_SUBMISSION,
+							1);
+
+					try
+					{
+						manifest.setSubmittableItems(getProjectChildren(
+								project, new SubProgressMonitor(monitor, 1)));
+						submitter[0] = source.getSubmitter();
+					}
+					catch (Exception e)
+					{
+						throw new InvocationTargetException(e);
+					}
+					finally
+					{
+						monitor.done();
+					}
+				}
+			});
+		}
+		catch (InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+
+		return submitter[0];
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the loaded definitions that the specified target came from.
+	 *
+	 * @param target the target
+	 * @return the definitions, or null if the target is not in the tree
+	 */
+	private DefinitionsSource getSourceFor(SubmissionTarget target)
+	{
+		SubmissionTarget top = getRootOf(target);
+
+		for (DefinitionsSourceNode node : sources)
+		{
+			if (node.getSource() != null
+					&& node.getSource().getRoot() == top)
+			{
+				return node.getSource();
+			}
+		}
+
+		return null;
+	}
+
+
+	// ----------------------------------------------------------
+	private void chooseProjectToSubmit()
+	{
+		IProject[] allProjects = ResourcesPlugin.getWorkspace().getRoot()
+		        .getProjects();
+		ArrayList<IProject> filteredProjects = new ArrayList<IProject>();
+		for(int i = 0; i < allProjects.length; i++)
+			if(allProjects[i].isOpen())
+				filteredProjects.add(allProjects[i]);
+
+		ElementListSelectionDialog dialog = new ElementListSelectionDialog(
+		        getShell(), new WorkbenchLabelProvider());
+
+		dialog.setElements(filteredProjects.toArray());
+		dialog.setMessage(Messages.STARTPAGE_CHOOSE_PROJECT_TITLE);
+		dialog.setMatchEmptyString(true);
+		dialog.setMultipleSelection(false);
+
+		if(project != null)
+			dialog.setInitialSelections(new IProject[] { project });
+
+		int result = dialog.open();
+		if(result == Window.OK)
+		{
+			project = (IProject)dialog.getResult()[0];
+			projectField.setText(project.getName());
+			
+			// Update the wizard's copy of the project as well so that the
+			// internal result browser gets initialized correctly.
+
+			((SubmitterWizard) getWizard()).setProject(project);
+
+			indexProject();
+		}
+
+		updatePageComplete();
+	}
+
+
+	// ----------------------------------------------------------
+	private boolean usesPartnersParameter(SubmissionTarget target)
+	{
+		DefinitionsSource source = getSourceFor(target);
+
+		return source != null
+			&& source.getCapabilities(target).usesPartners();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Checks whether the page is complete once the user stops typing for a
+	 * moment, rather than on every keystroke.
+	 */
+	private void scheduleValidation()
+	{
+		getControl().getDisplay().timerExec(VALIDATION_DELAY,
+				validationRunnable);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Checks whether the page is complete right away, if a check is still
+	 * waiting for the user to stop typing.
+	 */
+	private void flushValidation()
+	{
+		getControl().getDisplay().timerExec(-1, validationRunnable);
+		updatePageComplete();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Creates the context menu of the tree, which lets the user try again to
+	 * load a part of the tree that failed, or see why it failed.
+	 */
+	private void createErrorMenu()
+	{
+		MenuManager menuManager = new MenuManager();
+		menuManager.setRemoveAllWhenShown(true);
+		menuManager.addMenuListener(new IMenuListener() {
+			public void menuAboutToShow(IMenuManager manager)
+			{
+				final LoadingTargetNode node = getSelectedErrorNode();
+
+				if (node == null)
+				{
+					return;
+				}
+
+				manager.add(new Action(Messages.STARTPAGE_RETRY) {
+					public void run()
+					{
+						retryLoad(node);
+					}
+				});
+
+				if (node.getError() != null)
+				{
+					manager.add(new Action(Messages.STARTPAGE_ERROR_DETAILS) {
+						public void run()
+						{
+							new SubmissionParserErrorDialog(getShell(),
+									node.getError()).open();
+						}
+					});
+				}
+			}
+		});
+
+		Control tree = assignmentTree.getControl();
+		tree.setMenu(menuManager.createContextMenu(tree));
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the selected element if it is an error leaf.
+	 *
+	 * @return the selected error leaf, or null if something else is
+	 *     selected
+	 */
+	private LoadingTargetNode getSelectedErrorNode()
+	{
+		Object element = ((IStructuredSelection)
+				assignmentTree.getSelection()).getFirstElement();
+
+		if (element instanceof LoadingTargetNode
+				&& ((LoadingTargetNode) element).getState()
+					== LoadingTargetNode.STATE_FAILED)
+		{
+			return (LoadingTargetNode) element;
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Tries again to load the part of the tree that an error leaf stands
+	 * for. If it is a whole definitions URL that failed, only that URL is
+	 * loaded again.
+	 *
+	 * @param node the error leaf
+	 */
+	private void retryLoad(LoadingTargetNode node)
+	{
+		if (node.getTarget() != null)
+		{
+			contentProvider.retry(node);
+			return;
+		}
+
+		DefinitionsSourceNode sourceNode =
+			(node.getParent() instanceof DefinitionsSourceNode)
+				? (DefinitionsSourceNode) node.getParent() : sources.get(0);
+
+		sourceNode.reset();
+		contentProvider.sourceChanged(sourceNode);
+		updatePageComplete();
+
+		SubmitterCore.getDefault().getSubmissionTargetsManager()
+			.loadDefinitions(sourceNode.getURL(), loadListener);
+	}
+
+
+	// ----------------------------------------------------------
+	private void assignmentTreeSelectionChanged()
+	{
+		updatePageComplete();
+	}
+
+
+	// ----------------------------------------------------------
+	public boolean canFlipToNextPage()
+	{
+		return isPageComplete();
+	}
+
+
+	// ----------------------------------------------------------
+	private void setErrorMessageIfInitialized(String msg)
+	{
+		if(initializationComplete)
+			setErrorMessage(msg);
+	}
+
+
+	// ----------------------------------------------------------
+	private void updatePageComplete()
+	{
+		if(project == null)
+		{
+			setPageComplete(false);
+			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_NO_PROJECT);
+			return;
+		}
+
+		IStructuredSelection sel = (IStructuredSelection)assignmentTree
+		        .getSelection();
+
+		if ((sel.isEmpty() && isLoading())
+				|| sel.getFirstElement() instanceof TargetOutline)
+		{
+			// The targets are still being loaded; the outline in the tree
+			// cannot be submitted to.
+
+			setPageComplete(false);
+			setErrorMessage(null);
+			setMessage(Messages.STARTPAGE_LOADING_TARGETS);
+			return;
+		}
+
+		setMessage(null);
+
+		if(sel.isEmpty())
+		{
+			setPageComplete(false);
+			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_NO_TARGET);
+			return;
+		}
+
+		SubmissionTarget object = getSelectedAssignment();
+
+		if(object == null || !object.isActionable())
+		{
+			setPageComplete(false);
+			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_INVALID_TARGET);
+			return;
+		}
+		else
+			setPageComplete(true);
+
+		if(username.getText().trim().length() == 0)
+		{
+			setPageComplete(false);
+			setErrorMessageIfInitialized(Messages.STARTPAGE_ERROR_NO_USERNAME);
+			return;
+		}
+
+		SubmissionTarget target = getSelectedAssignment();
+		
+		boolean usesPartners =
+			(target != null && usesPartnersParameter(target));
+		
+		partnersLabel.setVisible(usesPartners);
+		partnersLabel2.setVisible(usesPartners);
+		partners.setVisible(usesPartners);
+
+		List<String> missing = getMissingRequiredFiles(target);
+
+		if (missing == null)
+		{
+			// The project is still being checked; the page is checked again
+			// when it has been.
+
+			setPageComplete(false);
+			setErrorMessage(null);
+			setMessage(Messages.STARTPAGE_CHECKING_REQUIRED_FILES);
+			return;
+		}
+
+		if (!missing.isEmpty())
+		{
+			StringBuffer files = new StringBuffer();
+
+			for (String file : missing)
+			{
+				if (files.length() > 0)
+				{
+					files.append(", "); //$NON-NLS-1$
+				}
+
+				files.append(file);
+			}
+
+			setPageComplete(false);
+			setErrorMessageIfInitialized(NLS.bind(
+					Messages.STARTPAGE_ERROR_MISSING_REQUIRED_FILES, files));
+			return;
+		}
+
+		setErrorMessage(null);
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Checks the project for the files that the selected assignment
+	 * requires, so that the user finds out that one is missing before the
+	 * project is packaged. Reading the assignment's requirements and
+	 * indexing the project can both take a while, so unless the
+	 * requirements are already known to be empty, the check is made by a
+	 * {@link RequiredFilesJob}, and the page is checked again when it has
+	 * finished. The project's items come from the manifest index, which
+	 * hands back the same array until the project changes, so the check is
+	 * only repeated when the project, the assignment, or the project's
+	 * contents have changed.
+	 *
+	 * @param target the selected assignment
+	 * @return the patterns of the required files that are missing, or null
+	 *     if the project is still being checked
+	 */
+	private List<String> getMissingRequiredFiles(SubmissionTarget target)
+	{
+		DefinitionsSource source =
+			(target != null) ? getSourceFor(target) : null;
+
+		if (source == null)
+		{
+			return Collections.emptyList();
+		}
+
+		RequiredFiles required = source.getReadRequiredFiles(target);
+
+		if (required != null && required.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+
+		ProjectManifestIndex index =
+			SubmitterCore.getDefault().getProjectManifestIndex();
+		ISubmittableItem[] items =
+			(index != null) ? index.getIndexedItems(project) : null;
+
+		if (target == checkedTarget && project.equals(checkedProject)
+				&& (requiredFilesJob != null || items == checkedItems))
+		{
+			return missingRequiredFiles;
+		}
+
+		if (requiredFilesJob != null)
+		{
+			requiredFilesJob.cancel();
+		}
+
+		checkedTarget = target;
+		checkedProject = project;
+		checkedItems = null;
+		missingRequiredFiles = null;
+
+		requiredFilesJob = new RequiredFilesJob(source, target, project);
+		requiredFilesJob.schedule();
+
+		return null;
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Called on the UI thread when a required files job has finished.
+	 *
+	 * @param job the job
+	 */
+	private void requiredFilesChecked(RequiredFilesJob job)
+	{
+		if (job != requiredFilesJob || getControl().isDisposed())
+		{
+			return;
+		}
+
+		requiredFilesJob = null;
+		checkedItems = job.items;
+		missingRequiredFiles = job.missing;
+
+		updatePageComplete();
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Starts indexing the project in the background, if it has not been
+	 * indexed already, so that it is ready by the time it is checked or
+	 * submitted.
+	 */
+	private void indexProject()
+	{
+		ProjectManifestIndex index =
+			SubmitterCore.getDefault().getProjectManifestIndex();
+
+		if (index != null && project != null
+				&& index.getIndexedItems(project) == null)
+		{
+			index.schedule(project);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Gets the items for the members of a project, indexing the project
+	 * first if it has not been already. This is called from the wizard's
+	 * progress area or a background job, not the UI thread.
+	 *
+	 * @param project the project
+	 * @param monitor the progress monitor
+	 * @return the items for the members of the project
+	 */
+	private static ISubmittableItem[] getProjectChildren(IProject project,
+			IProgressMonitor monitor)
+	{
+		ProjectManifestIndex index =
+			SubmitterCore.getDefault().getProjectManifestIndex();
+
+		try
+		{
+			if (index != null)
+			{
+				return index.getItems(project, monitor);
+			}
+		}
+		catch (CoreException e)
+		{
+			// Fall back to walking the project.
+		}
+
+		try
+		{
+			return new ProjectTraversal().getItems(project);
+		}
+		catch (CoreException e)
+		{
+			return new ISubmittableItem[0];
+		}
+	}
+
+	
+	// ----------------------------------------------------------
+	public IWizardPage getNextPage()
+	{
+		flushValidation();
+
+		SubmitterSummaryPage nextPage = (SubmitterSummaryPage)super
+		        .getNextPage();
+
+		if(isPageComplete())
+		{
+			// Remember the last values entered in the wizard for the rest of
+			// the session.
+
+			updateLastSelectedAssignmentPath();
+			SubmitterUIPlugin.getDefault().setLastEnteredUsername(
+					username.getText());
+			SubmitterUIPlugin.getDefault().setLastEnteredPassword(
+					password.getText());
+			SubmitterUIPlugin.getDefault().setLastEnteredPartners(
+					partners.getText());
+
+			SubmissionManifest manifest = new SubmissionManifest();
+			manifest.setAssignment(getSelectedAssignment());
+			manifest.setUsername(username.getText().trim());
+			manifest.setPassword(password.getText());
+			manifest.setParameter("partners", partners.getText().trim()); //$NON-NLS-1$
+
+			// An engine left over from an earlier attempt must not be asked
+			// for its response if this attempt fails before submitting.
+
+			SubmitterWizard wizard = (SubmitterWizard) getWizard();
+			wizard.setSubmitter(null);
+
+			try
+			{
+				Submitter submitter = createSubmitterFor(manifest);
+				wizard.setSubmitter(submitter);
+
+				submitter.submit(manifest);
+				recordSubmission();
+				
+				nextPage.setResultCode(SubmitterSummaryPage.RESULT_OK,
+				        Messages.STARTPAGE_CLICK_FINISH_TO_EXIT);
+			}
+			catch(RequiredItemsMissingException e)
+			{
+				StringBuffer buffer = new StringBuffer();
+				buffer.append(Messages.STARTPAGE_ERROR_REQUIRED_FILES_MISSING);
+
+				for(int i = 0; i < e.getMissingFiles().length; i++)
+				{
+					buffer.append('\u2022');
+					buffer.append(' ');
+					buffer.append(e.getMissingFiles()[i]);
+					buffer.append('\n');
+				}
+
+				nextPage.setResultCode(SubmitterSummaryPage.RESULT_INCOMPLETE,
+				        buffer.toString());
+			}
+			catch(MalformedURLException e)
+			{
+				nextPage.setResultCode(SubmitterSummaryPage.RESULT_ERROR,
+				        Messages.STARTPAGE_ERROR_BAD_URL, e);
+			}
+			catch(UnknownHostException e)
+			{
+				nextPage.setResultCode(SubmitterSummaryPage.RESULT_ERROR,
+				        Messages.STARTPAGE_ERROR_COULD_NOT_CONNECT, e);
+			}
+			catch(Throwable e)
+			{
+				nextPage.setResultCode(SubmitterSummaryPage.RESULT_ERROR,
+				        Messages.STARTPAGE_ERROR_GENERIC, e);
+			}
+		}
+
+		return nextPage;
+	}
+	
+
+	// ----------------------------------------------------------
+	/**
+	 * Selects the assignment that the user submitted to last time, if it is
+	 * in the tree. The assignment is found by its path in the targets (or,
+	 * while they are still loading, in their outline), so only the groups
+	 * that contain it are expanded. If it is inside an imported group that
+	 * has not been loaded yet, only that group is loaded, and the assignment
+	 * is selected when it finishes.
+	 */
+	private void selectLastSelectedAssignmentInTree()
+	{
+		restoringSelection = false;
+
+		TargetPath path =
+			SubmitterUIPlugin.getDefault().getLastSelectedAssignmentPath();
+
+		if (path == null)
+		{
+			return;
+		}
+
+		DefinitionsSourceNode node = getSourceNode(path.getDefinitionsURL());
+		Object element = null;
+
+		if (node == null)
+		{
+			return;
+		}
+		else if (node.getState() == DefinitionsSourceNode.STATE_LOADING)
+		{
+			element = findOutline(node.getOutlines(), path.getNames(), 0);
+		}
+		else if (node.getState() == DefinitionsSourceNode.STATE_LOADED)
+		{
+			List<SubmissionTarget> unloadedGroups =
+				new ArrayList<SubmissionTarget>();
+
+			element = path.resolve(node.getSource().getRoot(),
+					unloadedGroups);
+
+			for (SubmissionTarget group : unloadedGroups)
+			{
+				contentProvider.loadGroup(group);
+				restoringSelection = true;
+			}
+		}
+
+		if (element != null)
+		{
+			assignmentTree.setSelection(new StructuredSelection(element), true);
 		}
-		
-		return null;
 	}
 
 
 	// ----------------------------------------------------------
-	private void updateLastSelectedAssignmentPath()
+	/**
+	 * Finds the outline with the specified path among the outlines of a
+	 * definitions URL that is still loading.
+	 *
+	 * @param outlines the outlines to search
+	 * @param names the names in the path
+	 * @param index the index of the name to look for among the outlines
+	 * @return the outline, or null if it has not been read yet
+	 */
+	private TargetOutline findOutline(List<TargetOutline> outlines,
+			List<String> names, int index)
 	{
-		Tree tree = assignmentTree.getTree();
-		
-		TreeItem[] selItems = tree.getSelection();
-		
-		if (selItems != null && selItems.length > 0)
+		for (TargetOutline outline : outlines)
+		{
+			if (outline.isHidden())
+			{
+				continue;
+			}
+
+			TargetOutline match = null;
+
+			if (outline.isContainer() && !outline.isNested())
+			{
+				match = findOutline(outline.getChildren(), names, index);
+			}
+			else if (names.get(index).equals(outline.getName()))
+			{
+				match = (index == names.size() - 1) ? outline
+					: findOutline(outline.getChildren(), names, index + 1);
+			}
+
+			if (match != null)
+			{
+				return match;
+			}
+		}
+
+		return null;
+	}
+
+
+	// ----------------------------------------------------------
+	private void selectAssignmentPath(String path)
+	{
+		if (path != null)
+		{
+			Object element = findElement(path);
+
+			if (element != null)
+			{
+				assignmentTree.setSelection(
+						new StructuredSelection(element), true);
+			}
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Finds the element in the tree with the specified path. The elements
+	 * are found through the content provider rather than the tree's items,
+	 * since the items for elements that have not been shown yet have not
+	 * been created.
+	 *
+	 * @param path the path of the element, as returned by
+	 *     {@link #getElementPath(Object)}
+	 * @return the element, or null if there is no element with that path
+	 */
+	private Object findElement(String path)
+	{
+		Object element = sources;
+
+		for (String component : path.split(Pattern.quote(PATH_SEPARATOR)))
 		{
-			TreeItem item = selItems[0];
-			StringBuffer buffer = new StringBuffer();
+			Object match = null;
+
+			for (Object child : contentProvider.getChildren(element))
+			{
+				if (component.equals(labelProvider.getText(child)))
+				{
+					match = child;
+					break;
+				}
+			}
+
+			if (match == null)
+			{
+				return null;
+			}
+
+			element = match;
+		}
+
+		return element;
+	}
+
 
-			buffer.append(item.getText());
+	// ----------------------------------------------------------
+	/**
+	 * Gets the path of an element in the tree, made up of its label and the
+	 * labels of its ancestors. Unlike the element itself, the path still
+	 * identifies the same assignment after the targets have been loaded
+	 * again.
+	 *
+	 * @param element the element
+	 * @return the path of the element
+	 */
+	private String getElementPath(Object element)
+	{
+		StringBuffer buffer = new StringBuffer();
 
-			while ((item = item.getParentItem()) != null)
+		while (element != null && element != sources)
+		{
+			if (buffer.length() > 0)
 			{
-				buffer.insert(0, "/$#$/"); //$NON-NLS-1$
-				buffer.insert(0, item.getText());
+				buffer.insert(0, PATH_SEPARATOR);
 			}
 
+			buffer.insert(0, labelProvider.getText(element));
+			element = contentProvider.getParent(element);
+		}
+
+		return buffer.toString();
+	}
+
+
+	// ----------------------------------------------------------
+	private int getPathDepth(String path)
+	{
+		int depth = 0;
+		int index = path.indexOf(PATH_SEPARATOR);
+
+		while (index != -1)
+		{
+			depth++;
+			index = path.indexOf(PATH_SEPARATOR,
+					index + PATH_SEPARATOR.length());
+		}
+
+		return depth;
+	}
+
+
+	// ----------------------------------------------------------
+	private void updateLastSelectedAssignmentPath()
+	{
+		AssignmentTarget target = getSelectedAssignment();
+		DefinitionsSource source =
+			(target != null) ? getSourceFor(target) : null;
+
+		if (source != null)
+		{
 			SubmitterUIPlugin.getDefault().setLastSelectedAssignmentPath(
-				buffer.toString());
+					TargetPath.of(source, target));
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	/**
+	 * Records the imported groups that contain the assignment that was just
+	 * submitted to, so that they can be loaded ahead of time when the wizard
+	 * is next opened.
+	 */
+	private void recordSubmission()
+	{
+		AssignmentTarget target = getSelectedAssignment();
+		DefinitionsSource source =
+			(target != null) ? getSourceFor(target) : null;
+
+		if (source != null)
+		{
+			SubmitterCore.getDefault().getImportGroupUsage().recordSubmitted(
+					source, target);
+		}
+	}
+
+
+	// ----------------------------------------------------------
+	private String getSelectedAssignmentPath()
+	{
+		IStructuredSelection sel =
+			(IStructuredSelection) assignmentTree.getSelection();
+
+		if (!sel.isEmpty())
+		{
+			return getElementPath(sel.getFirstElement());
 		}
 		else
 		{
-			SubmitterUIPlugin.getDefault().setLastSelectedAssignmentPath(null);
+			return null;
+		}
+	}
+
+
+	//~ Nested classes ........................................................
+
+	// ----------------------------------------------------------
+	/**
+	 * The job that reads the files an assignment requires and checks the
+	 * project for them, indexing the project first if needed.
+	 */
+	private class RequiredFilesJob extends Job
+	{
+		//~ Constructors ......................................................
+
+		// ----------------------------------------------------------
+		public RequiredFilesJob(DefinitionsSource source,
+				SubmissionTarget target, IProject project)
+		{
+			super(Messages.STARTPAGE_CHECKING_REQUIRED_FILES);
+
+			this.source = source;
+			this.target = target;
+			this.project = project;
+
+			setSystem(true);
+			setPriority(Job.SHORT);
+		}
+
+
+		//~ Methods ...........................................................
+
+		// ----------------------------------------------------------
+		protected IStatus run(IProgressMonitor monitor)
+		{
+			missing = Collections.emptyList();
+
+			try
+			{
+				RequiredFiles required = source.getRequiredFiles(target);
+
+				if (!required.isEmpty() && !monitor.isCanceled())
+				{
+					ProjectManifestIndex index =
+						SubmitterCore.getDefault().getProjectManifestIndex();
+
+					if (index != null)
+					{
+						// Wait for the project to be indexed, rather than
+						// walking it a second time.
+
+						index.schedule(project).join();
+						items = index.getIndexedItems(project);
+					}
+
+					missing = required.findMissing((items != null)
+							? items : getProjectChildren(project, monitor));
+				}
+			}
+			catch (InterruptedException e)
+			{
+				// Leave the check to the engine when the project is
+				// submitted.
+			}
+			catch (OperationCanceledException e)
+			{
+				// Likewise.
+			}
+			finally
+			{
+				final Control control = getControl();
+
+				if (!control.isDisposed())
+				{
+					control.getDisplay().asyncExec(new Runnable() {
+						public void run()
+						{
+							if (!control.isDisposed())
+							{
+								requiredFilesChecked(RequiredFilesJob.this);
+							}
+						}
+					});
+				}
+			}
+
+			return monitor.isCanceled()
+				? Status.CANCEL_STATUS : Status.OK_STATUS;
 		}
+
+
+		//~ Static/instance variables .........................................
+
+		/* The definitions that the assignment came from. */
+		private final DefinitionsSource source;
+
+		/* The assignment. */
+		private final SubmissionTarget target;
+
+		/* The project to check. */
+		private final IProject project;
+
+		/* The items that were checked, or null if the project could not be
+		   indexed. */
+		private ISubmittableItem[] items;
+
+		/* The patterns of the required files that are missing. */
+		private List<String> missing;
 	}
 
 
 	//~ Static/instance variables .............................................
 
-	/* The submission engine instance that should be used by this wizard to
-	   submit the project. */
-	private Submitter submitter;
+	/* The nodes for the definitions URLs, which are the input to the
+	   tree. */
+	private List<DefinitionsSourceNode> sources;
+
+	/* The time, in milliseconds, that the user must stop typing before the
+	   page is checked for completeness. */
+	private static final int VALIDATION_DELAY = 150;
+
+	/* Checks whether the page is complete, once the user stops typing. */
+	private Runnable validationRunnable = new Runnable() {
+		public void run()
+		{
+			if (!getControl().isDisposed())
+			{
+				updatePageComplete();
+			}
+		}
+	};
+
+
+	/* The assignment whose required files the project was last checked
+	   for. */
+	private SubmissionTarget checkedTarget;
+
+	/* The project that was last checked for required files. */
+	private IProject checkedProject;
+
+	/* The items of the project that were last checked for the required
+	   files, or null if the project was not indexed. */
+	private ISubmittableItem[] checkedItems;
+
+	/* The required files that were missing from the project when it was
+	   last checked, or null while it is being checked. */
+	private List<String> missingRequiredFiles;
+
+	/* The job that is checking the project for required files, if any. */
+	private RequiredFilesJob requiredFilesJob;
+
+	/* The largest number of matches shown for each definitions URL when the
+	   tree is filtered. */
+	private static final int MAX_FILTER_MATCHES = 200;
+
+	/* Separates the labels in the path of an element in the tree. */
+	private static final String PATH_SEPARATOR = "/$#$/"; //$NON-NLS-1$
+
+	/* The content provider for the tree. */
+	private SubmissionTargetsContentProvider contentProvider;
+
+	/* The label provider for the tree. */
+	private SubmissionTargetsLabelProvider labelProvider;
+
+	/* The paths of the elements that the user has expanded, which are kept
+	   by the plug-in for the rest of the session. */
+	private Set<String> expandedPaths;
+
+	/* The paths of the top-level elements that have been expanded by
+	   default, or null if the user's own expanded elements are being
+	   restored. */
+	private Set<String> defaultExpandedPaths;
+
+	/* Keeps track of the elements that the user expands and collapses. */
+	private ITreeViewerListener expansionListener = new ITreeViewerListener() {
+		public void treeExpanded(TreeExpansionEvent event)
+		{
+			Object element = event.getElement();
+			expandedPaths.add(getElementPath(element));
+
+			if (element instanceof ImportGroupTarget)
+			{
+				SubmissionTarget group = (SubmissionTarget) element;
+				DefinitionsSource source = getSourceFor(group);
+
+				if (source != null)
+				{
+					SubmitterCore.getDefault().getImportGroupUsage()
+						.recordOpened(source, group);
+				}
+			}
+		}
+
+		public void treeCollapsed(TreeExpansionEvent event)
+		{
+			expandedPaths.remove(getElementPath(event.getElement()));
+		}
+	};
+
+	/* Receives the submission targets as they are loaded, and passes them
+	   on to the UI thread. */
+	private IDefinitionsLoadListener loadListener =
+		new IDefinitionsLoadListener() {
+		public void outlineRead(final URL url, final TargetOutline outline)
+		{
+			asyncExecIfOpen(new Runnable() {
+				public void run()
+				{
+					SubmitterStartPage.this.outlineRead(url, outline);
+				}
+			});
+		}
+
+		public void definitionsLoaded(final DefinitionsSource source)
+		{
+			asyncExecIfOpen(new Runnable() {
+				public void run()
+				{
+					SubmitterStartPage.this.definitionsLoaded(source);
+				}
+			});
+		}
+
+		public void definitionsFailed(final URL url, final Throwable error)
+		{
+			asyncExecIfOpen(new Runnable() {
+				public void run()
+				{
+					SubmitterStartPage.this.definitionsFailed(url, error);
+				}
+			});
+		}
+	};
+
+	/* Receives the targets loaded by a background refresh, works out what
+	   changed off of the UI thread, and then updates the tree. */
+	private IDefinitionsRefreshListener refreshListener =
+		new IDefinitionsRefreshListener() {
+		public void definitionsRefreshed(final DefinitionsSource oldSource,
+				final DefinitionsSource newSource)
+		{
+			final TargetTreeDiff diff = new TargetTreeDiff(
+					oldSource.getRoot(), newSource.getRoot());
+
+			asyncExecIfOpen(new Runnable() {
+				public void run()
+				{
+					SubmitterStartPage.this.definitionsRefreshed(
+							oldSource, newSource, diff);
+				}
+			});
+		}
+	};
 
 	/* The currently selected project that will be submitted by the wizard. */
 	private IProject project;
@@ -655,6 +1963,19 @@ public class SubmitterStartPage extends WizardPage
 	   project. */
 	private Text projectField;
 
+	/* A text field in which the user can type part of the name of an
+	   assignment to find it in the tree. */
+	private Text filterField;
+
+	/* Set to true while an imported group that contains the assignment
+	   that the user submitted to last time is being loaded, so that it can
+	   be selected when the group finishes loading. */
+	private boolean restoringSelection;
+
+	/* Set to true while the tree is filtered to show the targets that match
+	   the text in the filter field. */
+	private boolean filtering;
+
 	/* A tree that displays the submission targets that can be selected for
 	   submission. */
 	private TreeViewer assignmentTree;
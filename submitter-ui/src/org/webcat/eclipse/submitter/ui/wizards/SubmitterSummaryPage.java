@@ -37,7 +37,6 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Text;
 import org.webcat.eclipse.submitter.ui.i18n.Messages;
-import org.webcat.submitter.Submitter;
 
 //--------------------------------------------------------------------------
 /**
@@ -56,10 +55,9 @@ public class SubmitterSummaryPage extends WizardPage
 	/**
 	 * Creates a new instance of the wizard summary page.
 	 * 
-	 * @param engine the {@link Submitter} to use to submit
 	 * @param project the project being submitted
 	 */
-	protected SubmitterSummaryPage(Submitter engine, IProject project)
+	protected SubmitterSummaryPage(IProject project)
 	{
 		super(Messages.SUMMARYPAGE_PAGE_NAME);
 
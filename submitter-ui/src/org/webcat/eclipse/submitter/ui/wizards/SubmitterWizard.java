@@ -49,14 +49,11 @@ public class SubmitterWizard extends Wizard
 	{
 		// Add the wizard pages to the wizard.
 
-		startPage = new SubmitterStartPage(submitter, project);
-		finalPage = new SubmitterSummaryPage(submitter, project);
+		startPage = new SubmitterStartPage(project);
+		finalPage = new SubmitterSummaryPage(project);
 
 		addPage(startPage);
 		addPage(finalPage);
-
-		submitter.setLongRunningTaskManager(
-				new RunnableContextLongRunningTaskManager(getContainer()));
 	}
 
 
@@ -64,14 +61,12 @@ public class SubmitterWizard extends Wizard
 	/**
 	 * Initializes the wizard.
 	 * 
-	 * @param aSubmitter the submitter
 	 * @param aProject the project
 	 */
-	public void init(Submitter aSubmitter, IProject aProject)
+	public void init(IProject aProject)
 	{
 		// Initialize the wizard.
 
-		this.submitter = aSubmitter;
 		this.project = aProject;
 		this.setWindowTitle(Messages.WIZARD_TITLE);
 
@@ -81,6 +76,33 @@ public class SubmitterWizard extends Wizard
 	}
 
 
+	// ----------------------------------------------------------
+	/**
+	 * Sets the submission engine used by the wizard. The engine is the one
+	 * that loaded the targets, which is kept for the rest of the session, so
+	 * the wizard's progress context is only attached to it while the wizard
+	 * is using it; it is detached from the previous engine here.
+	 * 
+	 * @param aSubmitter the submission engine, or null to release the
+	 *     current one
+	 */
+	void setSubmitter(Submitter aSubmitter)
+	{
+		if (submitter != null)
+		{
+			submitter.setLongRunningTaskManager(null);
+		}
+
+		this.submitter = aSubmitter;
+
+		if (submitter != null)
+		{
+			submitter.setLongRunningTaskManager(
+					new RunnableContextLongRunningTaskManager(getContainer()));
+		}
+	}
+
+
 	// ----------------------------------------------------------
 	public boolean canFinish()
 	{
@@ -113,7 +135,7 @@ public class SubmitterWizard extends Wizard
 		// response (e.g., HTTP POST), we should display that to the user in
 		// an embedded browser window.
 
-		if(submitter.hasResponse())
+		if(submitter != null && submitter.hasResponse())
 		{
 			try
 			{
@@ -129,7 +151,7 @@ public class SubmitterWizard extends Wizard
 			}
 		}
 
-		submitter.setLongRunningTaskManager(null);
+		setSubmitter(null);
 
 		return true;
 	}
@@ -149,7 +171,8 @@ public class SubmitterWizard extends Wizard
 	private SubmitterSummaryPage finalPage;
 
 	/**
-	 * A reference to the submission engine that should be used by the wizard.
+	 * A reference to the submission engine that made the current submission.
+	 * This is null until the user has submitted.
 	 */
 	private Submitter submitter;
 